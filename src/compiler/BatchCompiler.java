@@ -0,0 +1,227 @@
+package compiler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import requirement.util.Requirements;
+import utility.Pool;
+import utility.StreamSet;
+
+/**
+ * Compiles many programs in parallel, on the common {@code ForkJoinPool}. Each
+ * program is compiled by an {@code SML_Compiler} that no other thread uses at
+ * the same time, whose messages are kept until all programs are compiled and
+ * are then returned in the order of the programs, so that the results don't
+ * depend on the order in which the programs happened to be compiled. The
+ * Compilers are reset and reused, from a {@link Pool} shared by all batches.
+ * The tables that don't change, like the ones of the {@link Statement
+ * Statements} and the {@link Condition Conditions}, are shared by all
+ * Compilers. An unexpected error while compiling a program is reported as an
+ * error of that program, and the rest of the programs are still compiled.
+ *
+ * @author Alex Mandelias
+ */
+final class BatchCompiler {
+
+	/* the Requirements that are copied from the batch to each program */
+	private static final String[] copied = { "screen", "st", "verbose", "cache", "stream",
+	        "pipeline", "optimise" };
+
+	/* a Compiler and the streams where its messages are kept */
+	private static final class Worker {
+		public final ByteArrayOutputStream out, err;
+		public final SML_Compiler          compiler;
+
+		public Worker() {
+			out = new ByteArrayOutputStream();
+			err = new ByteArrayOutputStream();
+			compiler = new SML_Compiler(new StreamSet().in(InputStream.nullInputStream())
+			        .out(new PrintStream(out)).err(new PrintStream(err)));
+		}
+	}
+
+	/* every thread of the ForkJoinPool, and the one that waits for it, may compile */
+	private static final Pool<Worker> workers = new Pool<>(
+	        ForkJoinPool.getCommonPoolParallelism() + 1, Worker::new);
+
+	/** The result of compiling one program of the batch */
+	static final class Result {
+
+		/** The program */
+		public final Path source;
+
+		/** Everything the Compiler wrote to its output stream */
+		public final String out;
+
+		/** Everything the Compiler wrote to its error stream */
+		public final String err;
+
+		private Result(Path source, String out, String err) {
+			this.source = source;
+			this.out = out;
+			this.err = err;
+		}
+
+		/**
+		 * Returns whether or not the program was compiled without errors.
+		 *
+		 * @return {@code true} if it was, {@code false} otherwise
+		 */
+		public boolean success() {
+			return err.isEmpty();
+		}
+	}
+
+	private final Requirements requirements;
+	private final Path         output;
+
+	private List<Path> sources;
+	private List<Path> outputs;
+	private Result[]   results;
+
+	/**
+	 * Constructs a BatchCompiler that compiles programs with the same
+	 * {@code requirements} as the batch, apart from their input and output.
+	 *
+	 * @param requirements the Requirements of the batch
+	 * @param output       the directory where the machine code of each program is
+	 *                     written, or {@code "stdout"}
+	 */
+	BatchCompiler(Requirements requirements, String output) {
+		this.requirements = requirements;
+		this.output = output.equals("stdout") ? null : Paths.get(output);
+	}
+
+	/**
+	 * Returns the programs of a batch: every {@code .sml} file in a directory and
+	 * its subdirectories, or every file listed in a file, one per line.
+	 *
+	 * @param input the directory or the file with the list
+	 *
+	 * @return the programs, sorted if they are in a directory
+	 *
+	 * @throws IOException if the directory or the file couldn't be read
+	 */
+	static List<Path> sources(String input) throws IOException {
+		final Path path = Paths.get(input);
+
+		if (!Files.isDirectory(path))
+			return Files.readAllLines(path).stream().filter(line -> !line.isBlank())
+			        .map(line -> Paths.get(line.strip())).collect(Collectors.toList());
+
+		try (Stream<Path> paths = Files.walk(path)) {
+			return paths.filter(p -> Files.isRegularFile(p) && p.toString().endsWith(".sml"))
+			        .sorted().collect(Collectors.toList());
+		}
+	}
+
+	/**
+	 * Compiles the programs of a batch in parallel. The machine code of each
+	 * program is written to the output directory, at the same relative path as
+	 * the program in the {@code base} directory, with the extension {@code .txt}
+	 * instead of {@code .sml}.
+	 *
+	 * @param batch the programs
+	 * @param base  the directory the programs are in, or {@code null} if they
+	 *              aren't in one directory
+	 *
+	 * @return the result of compiling each program, in the same order
+	 */
+	List<Result> compile(List<Path> batch, Path base) {
+		sources = batch;
+		outputs = new ArrayList<>(batch.size());
+		results = new Result[batch.size()];
+
+		for (final Path source : batch)
+			outputs.add(output == null ? null : output.resolve(BatchCompiler.relative(source, base)));
+
+		if (!batch.isEmpty())
+			ForkJoinPool.commonPool().invoke(new Task(0, batch.size()));
+
+		return Collections.unmodifiableList(Arrays.asList(results));
+	}
+
+	/* compiles the programs from one index up to another, splitting the range in half */
+	private final class Task extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final int from, to;
+
+		Task(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if ((to - from) == 1) {
+				results[from] = compile(from);
+				return;
+			}
+
+			final int middle = (from + to) >>> 1;
+			invokeAll(new Task(from, middle), new Task(middle, to));
+		}
+	}
+
+	private Result compile(int index) {
+		final Path source = sources.get(index);
+		final Path target = outputs.get(index);
+
+		final Worker worker = BatchCompiler.workers.acquire();
+		try {
+			worker.out.reset();
+			worker.err.reset();
+			worker.compiler.reset();
+
+			final Requirements reqs = SML_Compiler.getRequirements();
+			for (final String key : BatchCompiler.copied)
+				reqs.fulfil(key, requirements.getValue(key));
+
+			reqs.fulfil("input", source.toString());
+			reqs.fulfil("output", target == null ? "stdout" : target.toString());
+
+			try {
+				if ((target != null) && (target.getParent() != null))
+					Files.createDirectories(target.getParent());
+
+				worker.compiler.compile(reqs);
+			} catch (final IOException e) {
+				new PrintStream(worker.err).printf(
+				        "Compilation Error: Couldn't create directory for: %s%n", target);
+			} catch (final RuntimeException | StackOverflowError e) {
+				// one program must not stop the others, the Compiler is reset before it's reused
+				new PrintStream(worker.err).printf(
+				        "Compilation Error: Unexpected error while compiling %s: %s%n", source, e);
+			}
+
+			return new Result(source, worker.out.toString(), worker.err.toString());
+		} finally {
+			BatchCompiler.workers.release(worker);
+		}
+	}
+
+	/* the path of the output of a program relative to the output directory */
+	private static Path relative(Path source, Path base) {
+		Path path = base != null ? base.relativize(source) : source;
+		if (path.isAbsolute())
+			path = path.getRoot().relativize(path);
+
+		final String name = path.getFileName().toString();
+		final String stem = name.endsWith(".sml") ? name.substring(0, name.length() - 4) : name;
+		return path.resolveSibling(stem + ".txt");
+	}
+}
@@ -11,7 +11,7 @@ import compiler.exceptions.InvalidConditionException;
  *
  * @author Alex Mandelias
  */
-enum Condition {
+public enum Condition {
 
 	/** "Less Than" condition */
 	LT("<"),
@@ -62,6 +62,32 @@ enum Condition {
 		return condition;
 	}
 
+	/**
+	 * Returns whether or not the comparison of two values with this Condition is
+	 * true.
+	 *
+	 * @param left  the left value of the comparison
+	 * @param right the right value of the comparison
+	 *
+	 * @return {@code true} if it is, {@code false} otherwise
+	 */
+	public boolean test(int left, int right) {
+		switch (this) {
+		case LT:
+			return left < right;
+		case GT:
+			return left > right;
+		case LE:
+			return left <= right;
+		case GE:
+			return left >= right;
+		case EQ:
+			return left == right;
+		default:
+			return left != right;
+		}
+	}
+
 	Condition(String value) {
 		this.value = value;
 	}
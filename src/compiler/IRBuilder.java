@@ -0,0 +1,577 @@
+package compiler;
+
+import static compiler.Statement.INT;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import compiler.ast.BinaryExpression;
+import compiler.ast.Comparison;
+import compiler.ast.Declare;
+import compiler.ast.Dump;
+import compiler.ast.End;
+import compiler.ast.Expression;
+import compiler.ast.ExpressionVisitor;
+import compiler.ast.Goto;
+import compiler.ast.If;
+import compiler.ast.IfGoto;
+import compiler.ast.Input;
+import compiler.ast.Invalid;
+import compiler.ast.Label;
+import compiler.ast.Let;
+import compiler.ast.Node;
+import compiler.ast.NodeVisitor;
+import compiler.ast.Noop;
+import compiler.ast.Print;
+import compiler.ast.Symbol;
+import compiler.ast.While;
+import compiler.exceptions.CompilerException;
+import compiler.exceptions.LabelAlreadyDeclaredException;
+import compiler.exceptions.VariableAlreadyDeclaredException;
+import compiler.exceptions.VariableNotDeclaredException;
+import compiler.ir.BasicBlock;
+import compiler.ir.Constant;
+import compiler.ir.ControlFlowGraph;
+import compiler.ir.Opcode;
+import compiler.ir.Operand;
+import compiler.ir.Operation;
+import compiler.ir.Temp;
+import compiler.ir.Terminator;
+import compiler.ir.Variable;
+import compiler.symboltable.SymbolTable;
+import compiler.symboltable.SymbolType;
+
+/**
+ * Builds the {@link ControlFlowGraph} of a program from the {@link Node Nodes}
+ * of its abstract syntax tree, using an {@code SML_Compiler}. Before building
+ * the Operations of a statement the Builder also checks that its symbols are
+ * correctly declared: Variables must be declared before they are used and
+ * Constants are declared the first time they are used. Memory for the Variables,
+ * the Constants and the Temporaries is allocated in the order they appear in the
+ * program.
+ * <p>
+ * An error in a statement is reported to an {@link ErrorHandler} and building
+ * continues with the next statement. An error in the first line of a block
+ * doesn't prevent the statements inside it from being built.
+ * <p>
+ * When the Compiler is optimising, the operations of an expression whose
+ * operands are Constants are calculated before the expression is checked, so
+ * that only their results are declared as Constants. An operation is left as
+ * it is if the machine would stop with an error while calculating it or if its
+ * result is negative, since memory can't be initialised with negative values.
+ * The memory for the Temporaries isn't allocated while building, but when the
+ * graph is lowered, so that it can be reused. The operands of an operation are
+ * evaluated in the order that needs the fewest intermediate results to be
+ * stored, so that the result of the operand that is evaluated last can be used
+ * directly from the accumulator. The {@code NOOP} that separates the end of an {@code if}
+ * block from what follows isn't added, since the block ends anyway.
+ * <p>
+ * The graph is built so that {@link IRLowering} generates the same machine code
+ * as the statements always did: every {@code goto}, {@code ifg}, {@code end}
+ * and every jump at the end of a block is followed by a new block, and the
+ * jumps of {@code if} and {@code while} blocks that aren't closed go to the
+ * start of the program.
+ *
+ * @author Alex Mandelias
+ */
+final class IRBuilder implements NodeVisitor, ExpressionVisitor<Operand> {
+
+	/** Receives the errors found while building the graph */
+	@FunctionalInterface
+	interface ErrorHandler {
+
+		/**
+		 * Reports an error found in the statement of a {@code Node}.
+		 *
+		 * @param node  the Node
+		 * @param token the token of the statement where the error was found
+		 * @param error the error
+		 */
+		void error(Node node, String token, CompilerException error);
+	}
+
+	/**
+	 * The state of the Builder between two statements outside of any block, to
+	 * which it can be {@link IRBuilder#restore(State) restored} in order to build
+	 * the statements after it again.
+	 */
+	static final class State {
+		private final int placedCount, blockCount, operationCount, tempCount;
+
+		private State(int placedCount, int blockCount, int operationCount, int tempCount) {
+			this.placedCount = placedCount;
+			this.blockCount = blockCount;
+			this.operationCount = operationCount;
+			this.tempCount = tempCount;
+		}
+	}
+
+	private final SML_Compiler             compiler;
+	private final Map<Integer, BasicBlock> labels;
+
+	private ControlFlowGraph graph;
+	private BasicBlock       start, current;
+	private int              tempCount;
+	private ErrorHandler     handler;
+	private String           variable;
+
+	/* checks the Symbols of an expression from left to right */
+	private final ExpressionVisitor<Void> checker = new ExpressionVisitor<>() {
+
+		@Override
+		public Void visit(Symbol symbol) throws CompilerException {
+			check(symbol);
+			return null;
+		}
+
+		@Override
+		public Void visit(BinaryExpression expression, Void left, Void right) {
+			return null;
+		}
+	};
+
+	/* replaces the operations whose operands are Constants with their result */
+	private final ExpressionVisitor<Expression> folder = new ExpressionVisitor<>() {
+
+		@Override
+		public Expression visit(Symbol symbol) {
+			return symbol;
+		}
+
+		@Override
+		public Expression visit(BinaryExpression expression, Expression left, Expression right)
+		        throws CompilerException {
+			if (IRBuilder.isConstant(left) && IRBuilder.isConstant(right)) {
+				final int x = Integer.parseInt(((Symbol) left).name);
+				final int y = Integer.parseInt(((Symbol) right).name);
+
+				try {
+					final int value = Opcode.of(expression.operator).evaluate(x, y);
+					if (value >= 0)
+						return new Symbol(String.valueOf(value), SymbolTable.NOT_FOUND,
+						        SymbolType.CONSTANT);
+				} catch (final ArithmeticException e) {
+					// the error happens when the program is executed
+				}
+			}
+
+			if ((left == expression.left) && (right == expression.right))
+				return expression;
+
+			return new BinaryExpression(expression.operator, left, right);
+		}
+	};
+
+	/* the number of intermediate results that must be stored while an expression is evaluated */
+	private final ExpressionVisitor<Integer> counter = new ExpressionVisitor<>() {
+
+		@Override
+		public Integer visit(Symbol symbol) {
+			return 0;
+		}
+
+		@Override
+		public Integer visit(BinaryExpression expression, Integer left, Integer right)
+		        throws CompilerException {
+			final int count;
+			if (expression.right instanceof Symbol)
+				count = left;
+			else if (expression.left instanceof Symbol)
+				count = Opcode.of(expression.operator).isCommutative() ? right : Math.max(right, 1);
+			else
+				count = IRBuilder.rightFirst(expression, left, right) ? Math.max(right, left + 1)
+				        : Math.max(left, right + 1);
+
+			counts.put(expression, count);
+			return count;
+		}
+	};
+
+	/* the counts of the BinaryExpressions of the expression that is being built */
+	private final Map<Expression, Integer> counts = new IdentityHashMap<>();
+
+	/**
+	 * Constructs a Builder that builds the graph of a program for a
+	 * {@code compiler}.
+	 *
+	 * @param compiler the compiler for which to build the graph
+	 */
+	IRBuilder(SML_Compiler compiler) {
+		this.compiler = compiler;
+		labels = new HashMap<>();
+		variable = "";
+		clear();
+	}
+
+	/** Discards the graph that was built so far and starts a new one */
+	void clear() {
+		graph = new ControlFlowGraph();
+		start = graph.newBlock();
+		graph.entry().setTerminator(Terminator.jump(start));
+		graph.place(start);
+
+		current = start;
+		labels.clear();
+		tempCount = 0;
+	}
+
+	/**
+	 * Returns the graph that was built so far. The graph must not be modified
+	 * while more statements may be built.
+	 *
+	 * @return the graph
+	 */
+	ControlFlowGraph graph() {
+		return graph;
+	}
+
+	/**
+	 * Returns the current state of the Builder. It may only be called between two
+	 * statements outside of any block.
+	 *
+	 * @return the state
+	 */
+	State save() {
+		return new State(graph.blocks().size(), graph.blockCount(), current.operations().size(),
+		        tempCount);
+	}
+
+	/**
+	 * Restores a previous state of the Builder, discarding everything that was
+	 * built after it.
+	 *
+	 * @param state the state
+	 */
+	void restore(State state) {
+		graph.truncate(state.placedCount, state.blockCount, state.operationCount);
+		labels.values().removeIf(block -> block.id >= state.blockCount);
+
+		final List<BasicBlock> blocks = graph.blocks();
+		current = blocks.get(blocks.size() - 1);
+		tempCount = state.tempCount;
+	}
+
+	/**
+	 * Builds the statement of a {@code Node}, including the statements inside it,
+	 * and reports its errors to a {@code handler}.
+	 *
+	 * @param node    the Node
+	 * @param handler the handler of the errors
+	 */
+	void build(Node node, ErrorHandler handler) {
+		this.handler = handler;
+		build(node);
+	}
+
+	private void build(Node node) {
+		try {
+			node.accept(this);
+		} catch (final CompilerException e) {
+			handler.error(node, variable, e);
+		}
+	}
+
+	private void build(List<Node> nodes) {
+		for (final Node node : nodes)
+			build(node);
+	}
+
+	@Override
+	public void visit(Declare node) throws CompilerException {
+		// either all or none of the variables are declared
+		for (final Symbol symbol : node.variables) {
+			variable = symbol.name;
+
+			if (compiler.variableDeclared(id(symbol)))
+				throw new VariableAlreadyDeclaredException(symbol.name);
+		}
+
+		for (final Symbol symbol : node.variables) {
+			variable = symbol.name;
+
+			// the same variable may appear twice in the statement
+			if (compiler.variableDeclared(id(symbol)))
+				throw new VariableAlreadyDeclaredException(symbol.name);
+
+			compiler.declareVariable(id(symbol), INT.identifier);
+		}
+	}
+
+	@Override
+	public void visit(Input node) throws CompilerException {
+		for (final Symbol symbol : node.variables)
+			check(symbol);
+
+		for (final Symbol symbol : node.variables)
+			add(new Operation(Opcode.READ, operand(symbol)));
+	}
+
+	@Override
+	public void visit(Let node) throws CompilerException {
+		final Expression expression = compiler.optimising() ? node.expression.accept(folder)
+		        : node.expression;
+
+		check(node.variable);
+		expression.accept(checker);
+
+		if (compiler.optimising())
+			expression.accept(counter);
+
+		final Operand result = expression.accept(this);
+		counts.clear();
+		add(new Operation(Opcode.ASSIGN, operand(node.variable), result));
+	}
+
+	@Override
+	public void visit(Print node) throws CompilerException {
+		for (final Symbol symbol : node.symbols)
+			check(symbol);
+
+		for (final Symbol symbol : node.symbols)
+			if (compiler.symbolVarType(id(symbol)).equals(INT.identifier))
+				add(new Operation(Opcode.WRITE, null, operand(symbol)));
+	}
+
+	@Override
+	public void visit(Label node) throws CompilerException {
+		variable = node.label.name;
+
+		if (compiler.labelDeclared(id(node.label)))
+			throw new LabelAlreadyDeclaredException(node.label.name);
+
+		compiler.declareLabel(id(node.label));
+		continueAt(label(id(node.label)));
+	}
+
+	@Override
+	public void visit(Goto node) throws CompilerException {
+		// because goto instructions may jump to a label further down the program,
+		// it is not necessary for labels to be declared
+		variable = node.label.name;
+
+		terminate(Terminator.jump(label(id(node.label))));
+	}
+
+	@Override
+	public void visit(IfGoto node) throws CompilerException {
+		final Comparison comparison = node.comparison;
+		check(comparison);
+		variable = node.label.name;
+
+		final BasicBlock next = graph.newBlock();
+		current.setTerminator(Terminator.branch(comparison.condition, operand(comparison.op1),
+		        operand(comparison.op2), label(id(node.label)), next));
+		place(next);
+	}
+
+	@Override
+	public void visit(If node) {
+		final Terminator branch = branchToBody(node, node.comparison);
+
+		build(node.thenBody);
+
+		// the jump that goes to the end of the block and the index of its target
+		Terminator toEnd = branch;
+		int        index = Terminator.FALSE;
+
+		if (node.elseBody != null) {
+			final BasicBlock elseBlock = graph.newBlock();
+			final Terminator jump      = Terminator.jump(start);
+
+			current.setTerminator(jump);
+			if (branch != null)
+				branch.setTarget(Terminator.FALSE, elseBlock);
+
+			place(elseBlock);
+			toEnd = jump;
+			index = 0;
+
+			build(node.elseBody);
+		}
+
+		// the jumps of a block that isn't closed go to the start of the program
+		BasicBlock end = start;
+		if (node.closed) {
+			// dummy operation just to separate the end of the block from what follows
+			if (!compiler.optimising())
+				add(new Operation(Opcode.NOOP, null));
+			end = graph.newBlock();
+			continueAt(end);
+		}
+
+		if (toEnd != null)
+			toEnd.setTarget(index, end);
+	}
+
+	@Override
+	public void visit(While node) {
+		final BasicBlock header = graph.newBlock();
+		continueAt(header);
+
+		final Terminator branch = branchToBody(node, node.comparison);
+
+		build(node.body);
+
+		BasicBlock end = start;
+		if (node.closed) {
+			terminate(Terminator.jump(header));
+			end = current;
+		}
+
+		if (branch != null)
+			branch.setTarget(Terminator.FALSE, end);
+	}
+
+	@Override
+	public void visit(End node) {
+		terminate(Terminator.halt());
+	}
+
+	@Override
+	public void visit(Noop node) {
+		add(new Operation(Opcode.NOOP, null));
+	}
+
+	@Override
+	public void visit(Dump node) {
+		add(new Operation(Opcode.DUMP, null));
+	}
+
+	@Override
+	public void visit(Invalid node) throws CompilerException {
+		variable = node.token;
+		throw node.error;
+	}
+
+	/* builds the Operations that evaluate an expression, a Symbol is already evaluated */
+	@Override
+	public Operand visit(Symbol symbol) {
+		return operand(symbol);
+	}
+
+	@Override
+	public Operand visit(BinaryExpression expression, Operand x, Operand y) {
+		final Temp result = new Temp(tempCount++,
+		        compiler.optimising() ? Temp.NO_LOCATION : compiler.addVariable());
+
+		add(new Operation(Opcode.of(expression.operator), result, x, y));
+		return result;
+	}
+
+	@Override
+	public boolean rightFirst(BinaryExpression expression) {
+		return compiler.optimising() && IRBuilder.rightFirst(expression,
+		        counts.getOrDefault(expression.left, 0), counts.getOrDefault(expression.right, 0));
+	}
+
+	/*
+	 * Ends the current block with a branch to a new block for the body of an 'if'
+	 * or a 'while' when the Comparison at the start of the block is true, and
+	 * returns the branch, whose target when it is false is set later. If the
+	 * Comparison has an error, the current block simply continues to the body and
+	 * null is returned.
+	 */
+	private Terminator branchToBody(Node node, Comparison comparison) {
+		final BasicBlock body = graph.newBlock();
+
+		Terminator branch = null;
+		try {
+			check(comparison);
+			branch = Terminator.branch(comparison.condition, operand(comparison.op1),
+			        operand(comparison.op2), body, start);
+			current.setTerminator(branch);
+		} catch (final CompilerException e) {
+			handler.error(node, variable, e);
+		}
+
+		continueAt(body);
+		return branch;
+	}
+
+	private void add(Operation operation) {
+		current.operations().add(operation);
+	}
+
+	/* ends the current block with a jump to a block, unless it already has a Terminator, and places the block after it */
+	private void continueAt(BasicBlock block) {
+		if (current.terminator() == null)
+			current.setTerminator(Terminator.jump(block));
+
+		place(block);
+	}
+
+	/* ends the current block with a Terminator and starts a new one */
+	private void terminate(Terminator terminator) {
+		current.setTerminator(terminator);
+		place(graph.newBlock());
+	}
+
+	private void place(BasicBlock block) {
+		graph.place(block);
+		current = block;
+	}
+
+	/* the block at a label, which is created when the label is first referenced */
+	private BasicBlock label(int id) {
+		return labels.computeIfAbsent(id, graph::newBlock);
+	}
+
+	/* the Symbols of lines that were parsed in parallel are interned here, in the order they are used */
+	private int id(Symbol symbol) {
+		return symbol.id != SymbolTable.NOT_FOUND ? symbol.id : compiler.intern(symbol.name);
+	}
+
+	private Operand operand(Symbol symbol) {
+		final int id = id(symbol);
+
+		switch (symbol.type) {
+		case VARIABLE:
+			return new Variable(id, symbol.name, compiler.variableLocation(id));
+		default:
+			return new Constant(Integer.parseInt(symbol.name), compiler.symbolLocation(id));
+		}
+	}
+
+	/*
+	 * Returns whether the right operand of an expression is evaluated first, when
+	 * both operands are expressions and the left one can then be used from the
+	 * accumulator: always when the operator isn't commutative, otherwise when the
+	 * right operand needs more intermediate results to be stored.
+	 */
+	private static boolean rightFirst(BinaryExpression expression, int left, int right) {
+		if ((expression.left instanceof Symbol) || (expression.right instanceof Symbol))
+			return false;
+
+		return !Opcode.of(expression.operator).isCommutative() || (right > left);
+	}
+
+	private static boolean isConstant(Expression expression) {
+		return (expression instanceof Symbol)
+		        && (((Symbol) expression).type == SymbolType.CONSTANT);
+	}
+
+	private void check(Comparison comparison) throws CompilerException {
+		check(comparison.op1);
+		check(comparison.op2);
+	}
+
+	/* declares a Constant if it isn't declared and asserts that a Variable is declared */
+	private void check(Symbol symbol) throws CompilerException {
+		variable = symbol.name;
+
+		switch (symbol.type) {
+		case CONSTANT:
+			if (!compiler.constantDeclared(id(symbol)))
+				compiler.declareConstant(id(symbol), INT.identifier);
+			break;
+		case VARIABLE:
+			if (!compiler.variableDeclared(id(symbol)))
+				throw new VariableNotDeclaredException(symbol.name);
+			break;
+		default:
+			break;
+		}
+	}
+}
@@ -0,0 +1,545 @@
+package compiler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import compiler.ir.BasicBlock;
+import compiler.ir.Constant;
+import compiler.ir.ControlFlowGraph;
+import compiler.ir.Opcode;
+import compiler.ir.Operand;
+import compiler.ir.Operation;
+import compiler.ir.Temp;
+import compiler.ir.Terminator;
+import runtime.Instruction;
+
+/**
+ * Generates machine code for a {@link ControlFlowGraph}, using an
+ * {@code SML_Compiler}. The blocks are placed in memory in the order they are
+ * placed in the graph and a jump to the block that is placed right after is
+ * omitted. {@link compiler.ir.Opcode#PHI PHI} Operations don't generate any
+ * code, since all versions of a Variable share its location.
+ * <p>
+ * A jump to a block that is already placed is completed immediately. The jumps
+ * to a block that isn't placed yet are kept in a fix-up chain for that block,
+ * linked through the addresses of the jump instructions, and are completed as
+ * soon as the block is placed. The jumps that remain in a chain when all blocks
+ * are placed go to labels that were never declared.
+ * <p>
+ * A graph that is still being built can be lowered gradually, up to the last
+ * block whose Terminator is set, since its code doesn't depend on the blocks
+ * after it. The Operations of the blocks that are lowered are discarded.
+ * <p>
+ * When the Compiler is optimising, the Temporaries of the blocks that are
+ * lowered together are allocated right before their code is generated, with a
+ * {@link TempAllocator} whose locations are reused by all blocks of the graph.
+ * A Temporary that is used only once, by the next Operation, which can take it
+ * from the accumulator, isn't stored at all, and doesn't need a location. The
+ * operands of {@code +} and {@code *} are swapped when the second one is in the
+ * accumulator.
+ * <p>
+ * The Lowering also keeps track of the value in the accumulator, so that an
+ * operand that was just stored or loaded, for example a Variable that is
+ * assigned and then compared, isn't loaded again. Every Label and every target
+ * of a jump starts a new block, where the value is known only if all jumps to
+ * it leave the same value, which can only be checked when the whole graph is
+ * lowered at once.
+ *
+ * @author Alex Mandelias
+ */
+final class IRLowering {
+
+	private static final int NONE = -1;
+
+	/*
+	 * A sequence of instructions that branches on a Condition: the difference of
+	 * the operands that is calculated, the conditional branches that test it,
+	 * each to the block for the true or the false Comparison, and the block that
+	 * follows when none of them jumps.
+	 */
+	private static final class Sequence {
+		private final boolean       swapped; // right - left instead of left - right
+		private final int           fallThrough;
+		private final Instruction[] branches;
+		private final int[]         targets;
+
+		private Sequence(boolean swapped, int fallThrough, Instruction branch, int target) {
+			this.swapped = swapped;
+			this.fallThrough = fallThrough;
+			branches = new Instruction[] { branch };
+			targets = new int[] { target };
+		}
+
+		private Sequence(boolean swapped, int fallThrough, Instruction branch1, int target1,
+		        Instruction branch2, int target2) {
+			this.swapped = swapped;
+			this.fallThrough = fallThrough;
+			branches = new Instruction[] { branch1, branch2 };
+			targets = new int[] { target1, target2 };
+		}
+	}
+
+	private static final boolean DIRECT  = false;
+	private static final boolean SWAPPED = true;
+
+	/*
+	 * The Sequences for each Condition, the one that falls through to the false
+	 * Comparison first, which is preferred when they generate as many
+	 * instructions. With the operands in the same order as the Condition, BRANCHNEG
+	 * jumps when the left one is smaller and BRANCHZERO when they are equal.
+	 */
+	private static final Map<Condition, List<Sequence>> sequences;
+
+	static {
+		final int         t    = Terminator.TRUE, f = Terminator.FALSE;
+		final Instruction neg  = Instruction.BRANCHNEG;
+		final Instruction zero = Instruction.BRANCHZERO;
+
+		sequences = new EnumMap<>(Condition.class);
+		IRLowering.sequences.put(Condition.LT, List.of(
+		        new Sequence(IRLowering.DIRECT, f, neg, t),
+		        new Sequence(IRLowering.SWAPPED, t, neg, f, zero, f)));
+		IRLowering.sequences.put(Condition.GT, List.of(
+		        new Sequence(IRLowering.SWAPPED, f, neg, t),
+		        new Sequence(IRLowering.DIRECT, t, neg, f, zero, f)));
+		IRLowering.sequences.put(Condition.LE, List.of(
+		        new Sequence(IRLowering.DIRECT, f, neg, t, zero, t),
+		        new Sequence(IRLowering.SWAPPED, t, neg, f)));
+		IRLowering.sequences.put(Condition.GE, List.of(
+		        new Sequence(IRLowering.SWAPPED, f, neg, t, zero, t),
+		        new Sequence(IRLowering.DIRECT, t, neg, f)));
+		IRLowering.sequences.put(Condition.EQ, List.of(
+		        new Sequence(IRLowering.DIRECT, f, zero, t)));
+		IRLowering.sequences.put(Condition.NE, List.of(
+		        new Sequence(IRLowering.DIRECT, t, zero, f)));
+	}
+
+	private final SML_Compiler  compiler;
+	private final TempAllocator temps;
+
+	private final Set<Temp>                accumulated; // the Temporaries that are never stored
+	private final Map<BasicBlock, Operand> entries;     // the operand in the accumulator when a block starts
+
+	private ControlFlowGraph graph;
+	private int              lowered;
+	private Operand          accumulator; // the operand whose value is in the accumulator, or null
+
+	private int[] addresses; // by block id, NONE if the block isn't placed
+	private int[] chains;    // by block id, the address of the last jump to the block, or NONE
+	private int[] labels;    // by block id, the label of a block with a chain
+	private int[] links;     // by address, the address of the previous jump in the chain, or NONE
+
+	/**
+	 * Constructs a Lowering that generates code for a {@code compiler}.
+	 *
+	 * @param compiler the compiler for which to generate machine code
+	 */
+	IRLowering(SML_Compiler compiler) {
+		this.compiler = compiler;
+		temps = new TempAllocator(compiler);
+		accumulated = new HashSet<>();
+		entries = new HashMap<>();
+		addresses = new int[16];
+		chains = new int[16];
+		labels = new int[16];
+		links = new int[16];
+	}
+
+	/**
+	 * Generates code for the blocks of a graph, starting at the location of the
+	 * next instruction, and sets the location of its labels. The jumps to labels
+	 * that were never declared are left incomplete and the ids of these labels
+	 * are returned, once for every such jump in the order of the jumps.
+	 *
+	 * @param graph the graph
+	 *
+	 * @return the ids of the labels that were never declared
+	 */
+	List<Integer> lower(ControlFlowGraph graph) {
+		start(graph);
+		return finish();
+	}
+
+	/**
+	 * Prepares to lower a graph gradually, starting at the location of the next
+	 * instruction.
+	 *
+	 * @param graph the graph
+	 */
+	void start(ControlFlowGraph graph) {
+		this.graph = graph;
+		lowered = 0;
+		temps.clear();
+		entries.clear();
+
+		Arrays.fill(addresses, IRLowering.NONE);
+		Arrays.fill(chains, IRLowering.NONE);
+	}
+
+	/**
+	 * Generates code for the blocks of the graph up to, but not including, a
+	 * block. The blocks before it must have their Terminators set.
+	 *
+	 * @param count the number of blocks to lower, counting from the first block
+	 */
+	void lower(int count) {
+		final List<BasicBlock> blocks = graph.blocks();
+
+		if (compiler.optimising() && (lowered < count)) {
+			IRLowering.findAccumulated(blocks.subList(lowered, count), accumulated);
+			temps.allocate(blocks.subList(lowered, count), accumulated);
+		}
+
+		for (; lowered < count; ++lowered) {
+			final BasicBlock block = blocks.get(lowered);
+			final BasicBlock next  = (lowered + 1) < blocks.size() ? blocks.get(lowered + 1) : null;
+
+			place(block);
+			accumulator = entries.get(block);
+
+			for (final Operation operation : block.operations())
+				lower(operation);
+
+			if (block.terminator() != null)
+				lower(block.terminator(), next);
+
+			block.operations().clear();
+		}
+
+		accumulated.clear();
+	}
+
+	/**
+	 * Generates code for the remaining blocks of the graph and ends the lowering.
+	 *
+	 * @return the ids of the labels that were never declared, as for
+	 *         {@link #lower(ControlFlowGraph)}
+	 */
+	List<Integer> finish() {
+		if (compiler.optimising() && (lowered == 0))
+			findEntries();
+
+		lower(graph.blocks().size());
+		graph = null;
+
+		final int[] labelAt = new int[compiler.instructionCounter()];
+		Arrays.fill(labelAt, IRLowering.NONE);
+
+		for (int id = 0; id < chains.length; ++id)
+			for (int jump = chains[id]; jump != IRLowering.NONE; jump = links[jump])
+				labelAt[jump] = labels[id];
+
+		final List<Integer> unresolved = new ArrayList<>();
+		for (final int label : labelAt)
+			if (label != IRLowering.NONE)
+				unresolved.add(label);
+
+		return unresolved;
+	}
+
+	/* sets the address of a block and completes the jumps in its chain */
+	private void place(BasicBlock block) {
+		final int address = compiler.instructionCounter();
+
+		ensureCapacity(block.id);
+		addresses[block.id] = address;
+		if (block.label != BasicBlock.NO_LABEL)
+			compiler.setLabelLocation(block.label, address);
+
+		for (int jump = chains[block.id]; jump != IRLowering.NONE; jump = links[jump])
+			compiler.setBranchLocation(jump, address);
+
+		chains[block.id] = IRLowering.NONE;
+	}
+
+	private void lower(Operation operation) {
+		switch (operation.opcode) {
+		case ASSIGN:
+			load(operation.operand(0));
+			store(operation.result());
+			break;
+		case ADD:
+			arithmetic(Instruction.ADD, operation);
+			break;
+		case SUBTRACT:
+			arithmetic(Instruction.SUBTRACT, operation);
+			break;
+		case MULTIPLY:
+			arithmetic(Instruction.MULTIPLY, operation);
+			break;
+		case DIVIDE:
+			arithmetic(Instruction.DIVIDE, operation);
+			break;
+		case MOD:
+			arithmetic(Instruction.MOD, operation);
+			break;
+		case POW:
+			arithmetic(Instruction.POW, operation);
+			break;
+		case READ:
+			add(Instruction.READ_INT, operation.result());
+			if (holds(operation.result()))
+				accumulator = null;
+			break;
+		case WRITE:
+			add(Instruction.WRITE_NL, operation.operand(0));
+			break;
+		case NOOP:
+			compiler.addInstruction(Instruction.NOOP.opcode());
+			break;
+		case DUMP:
+			compiler.addInstruction(Instruction.DUMP.opcode());
+			break;
+		case PHI:
+		default:
+			break;
+		}
+	}
+
+	/* the operands are swapped if only the second one is in the accumulator and the operator is commutative */
+	private void arithmetic(Instruction instruction, Operation operation) {
+		Operand x = operation.operand(0);
+		Operand y = operation.operand(1);
+
+		if (!holds(x) && holds(y) && operation.opcode.isCommutative()) {
+			y = x;
+			x = operation.operand(1);
+		}
+
+		load(x);
+		add(instruction, y);
+		store(operation.result());
+	}
+
+	/* loads an operand, unless its value is already in the accumulator */
+	private void load(Operand operand) {
+		if (!holds(operand))
+			add(Instruction.LOAD, operand);
+
+		accumulator = operand;
+	}
+
+	/* stores the result in the accumulator, unless it is a Temporary that stays there */
+	private void store(Operand result) {
+		if (!accumulated.contains(result))
+			add(Instruction.STORE, result);
+
+		accumulator = result;
+	}
+
+	/*
+	 * Returns whether the value of an operand is in the accumulator, when the
+	 * Compiler is optimising. The value of a location is in the accumulator after
+	 * it is loaded or stored, until another value is loaded or calculated, or the
+	 * location is read, or the next block starts, since it may be the target of
+	 * a jump.
+	 */
+	private boolean holds(Operand operand) {
+		if (!compiler.optimising() || (accumulator == null))
+			return false;
+
+		return (operand == accumulator) || ((operand.location() != Temp.NO_LOCATION)
+		        && (operand.location() == accumulator.location()));
+	}
+
+	private void lower(Terminator terminator, BasicBlock next) {
+		switch (terminator.kind) {
+		case JUMP:
+			if (terminator.target(0) != next)
+				jump(Instruction.BRANCH, terminator.target(0));
+			break;
+		case BRANCH:
+			branch(terminator, next);
+			break;
+		case HALT:
+			compiler.addInstruction(Instruction.HALT.opcode());
+			break;
+		default:
+			break;
+		}
+	}
+
+	/*
+	 * Generates the instructions of a BRANCH with the Sequence of its Condition
+	 * that generates the fewest instructions. A branch whose target is next isn't
+	 * generated if the instructions continue to the same block anyway.
+	 */
+	private void branch(Terminator terminator, BasicBlock next) {
+		Sequence best     = null;
+		int      bestCost = Integer.MAX_VALUE;
+
+		for (final Sequence sequence : IRLowering.sequences.get(terminator.condition)) {
+			final int cost = cost(sequence, terminator, next);
+			if (cost < bestCost) {
+				best = sequence;
+				bestCost = cost;
+			}
+		}
+
+		final Operand    minuend     = terminator.operand(best.swapped ? 1 : 0);
+		final Operand    subtrahend  = terminator.operand(best.swapped ? 0 : 1);
+		final BasicBlock fallThrough = terminator.target(best.fallThrough);
+
+		load(minuend);
+		if (!isZero(subtrahend)) {
+			add(Instruction.SUBTRACT, subtrahend);
+			accumulator = null;
+		}
+
+		for (int i = 0; i < best.branches.length; ++i) {
+			final BasicBlock target = terminator.target(best.targets[i]);
+			if ((target != next) || (fallThrough != next))
+				jump(best.branches[i], target);
+		}
+
+		if (fallThrough != next)
+			jump(Instruction.BRANCH, fallThrough);
+	}
+
+	/* the number of instructions that a Sequence generates for a BRANCH */
+	private int cost(Sequence sequence, Terminator terminator, BasicBlock next) {
+		final Operand minuend    = terminator.operand(sequence.swapped ? 1 : 0);
+		final Operand subtrahend = terminator.operand(sequence.swapped ? 0 : 1);
+
+		int cost = sequence.branches.length;
+		if (!holds(minuend))
+			++cost;
+		if (!isZero(subtrahend))
+			++cost;
+		if (terminator.target(sequence.fallThrough) != next)
+			++cost;
+
+		return cost;
+	}
+
+	/* subtracting a 0 doesn't change the accumulator, when the Compiler is optimising */
+	private boolean isZero(Operand operand) {
+		return compiler.optimising() && (operand instanceof Constant)
+		        && (((Constant) operand).value == 0);
+	}
+
+	/*
+	 * Finds the operand that is in the accumulator when each block starts, when
+	 * the whole graph is lowered at once, so that all jumps to the block are
+	 * known. That is the case when every predecessor ends with a jump, which
+	 * doesn't change the accumulator, after its last Operation stored a value in
+	 * the same location, for example the assignment of a Variable right before a
+	 * 'while' and at the end of its body.
+	 */
+	private void findEntries() {
+		final Map<BasicBlock, Operand> exits   = new HashMap<>();
+		final Set<BasicBlock>          unknown = new HashSet<>();
+
+		for (final BasicBlock block : graph.blocks()) {
+			final Terminator terminator = block.terminator();
+			if (terminator == null)
+				continue;
+
+			Operand exit = null;
+			if (terminator.kind == Terminator.Kind.JUMP)
+				for (final Operation operation : block.operations())
+					if ((operation.opcode == Opcode.ASSIGN) || operation.opcode.isArithmetic())
+						exit = operation.result();
+					else if ((operation.opcode == Opcode.READ) && (exit != null)
+					        && (operation.result().location() == exit.location()))
+						exit = null;
+
+			for (int i = 0, count = terminator.targetCount(); i < count; ++i) {
+				final BasicBlock successor = terminator.target(i);
+
+				if ((exit == null) || (exit.location() == Temp.NO_LOCATION))
+					unknown.add(successor);
+				else if (!exits.containsKey(successor))
+					exits.put(successor, exit);
+				else if (exits.get(successor).location() != exit.location())
+					unknown.add(successor);
+			}
+		}
+
+		exits.keySet().removeAll(unknown);
+		exits.remove(graph.entry());
+		entries.putAll(exits);
+	}
+
+	/*
+	 * Finds the Temporaries of a group of blocks that are used only once, by the
+	 * Operation right after the one that assigns them, and that Operation can
+	 * take them from the accumulator: as the value of an assignment, as the first
+	 * operand of an arithmetic Operation, or as the second if it is commutative.
+	 */
+	private static void findAccumulated(List<BasicBlock> blocks, Set<Temp> accumulated) {
+		final Map<Operand, Integer> uses = new HashMap<>();
+		for (final BasicBlock block : blocks) {
+			for (final Operation operation : block.operations())
+				for (int i = 0, count = operation.operandCount(); i < count; ++i)
+					uses.merge(operation.operand(i), 1, Integer::sum);
+
+			if (block.terminator() != null)
+				for (int i = 0, count = block.terminator().operandCount(); i < count; ++i)
+					uses.merge(block.terminator().operand(i), 1, Integer::sum);
+		}
+
+		for (final BasicBlock block : blocks) {
+			final List<Operation> operations = block.operations();
+			for (int i = 0; (i + 1) < operations.size(); ++i) {
+				final Operand   result = operations.get(i).result();
+				final Operation next   = operations.get(i + 1);
+
+				if (!(result instanceof Temp) || (uses.getOrDefault(result, 0) != 1))
+					continue;
+
+				final boolean first  = (next.operandCount() > 0) && (next.operand(0) == result);
+				final boolean second = (next.operandCount() > 1) && (next.operand(1) == result);
+
+				if (((next.opcode == Opcode.ASSIGN) && first) || (next.opcode.isArithmetic()
+				        && (first || (second && next.opcode.isCommutative()))))
+					accumulated.add((Temp) result);
+			}
+		}
+	}
+
+	private void add(Instruction instruction, Operand operand) {
+		compiler.addInstruction(instruction.opcode() + operand.location());
+	}
+
+	/* adds a jump that is completed immediately if the target is placed, or added to its chain */
+	private void jump(Instruction instruction, BasicBlock target) {
+		ensureCapacity(target.id);
+
+		final int address = addresses[target.id];
+		if (address != IRLowering.NONE) {
+			compiler.addInstruction(instruction.opcode() + address);
+			return;
+		}
+
+		final int location = compiler.addInstruction(instruction.opcode());
+		if (location >= links.length)
+			links = Arrays.copyOf(links, Math.max(2 * links.length, location + 1));
+
+		links[location] = chains[target.id];
+		chains[target.id] = location;
+		labels[target.id] = target.label;
+	}
+
+	/* the blocks of a graph that is still being built may have larger ids than expected */
+	private void ensureCapacity(int id) {
+		if (id < addresses.length)
+			return;
+
+		final int oldLength = addresses.length;
+		final int newLength = Math.max(2 * oldLength, id + 1);
+
+		addresses = Arrays.copyOf(addresses, newLength);
+		chains = Arrays.copyOf(chains, newLength);
+		labels = Arrays.copyOf(labels, newLength);
+
+		Arrays.fill(addresses, oldLength, newLength, IRLowering.NONE);
+		Arrays.fill(chains, oldLength, newLength, IRLowering.NONE);
+	}
+}
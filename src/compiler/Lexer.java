@@ -0,0 +1,360 @@
+package compiler;
+
+import compiler.postfix.Token;
+import compiler.symboltable.SymbolTable;
+import compiler.symboltable.SymbolType;
+
+/**
+ * A hand-written lexer for lines of high-level-language code. Each line is
+ * scanned once, from left to right, and split into tokens which are classified
+ * while they are found. The tokens are stored in arrays that are reused for
+ * every line, therefore the tokens of a line are only available until the next
+ * line is lexed.
+ * <p>
+ * Tokens are separated by whitespace, apart from operators, parentheses and
+ * conditions which are tokens by themselves. A comment ({@code //}) after the
+ * line number ends the line and nothing after it is lexed.
+ * <p>
+ * When a Lexer is constructed with a {@link SymbolTable}, the Variables,
+ * Constants and Labels are also interned to the ids of that table as they are
+ * found, so that later stages can look them up without using Strings.
+ *
+ * @author Alex Mandelias
+ */
+final class Lexer {
+
+	/** The different kinds of tokens that can be found in a line */
+	enum Kind {
+
+		/** The first token of a line, if it is a number */
+		LINE_NUMBER(null),
+
+		/** A condition, {@code =}, {@code jumpto} or {@code //} */
+		KEYWORD(null),
+
+		/** A Variable or the identifier of a Statement */
+		VARIABLE(SymbolType.VARIABLE),
+
+		/** A Constant */
+		CONSTANT(SymbolType.CONSTANT),
+
+		/** A Label */
+		LABEL(SymbolType.LABEL),
+
+		/** A mathematical operator or a parenthesis */
+		OPERATOR(null),
+
+		/** Anything else */
+		INVALID(null);
+
+		/** The type of the Symbol that tokens of this Kind are, if they are Symbols */
+		final SymbolType type;
+
+		Kind(SymbolType type) {
+			this.type = type;
+		}
+
+		/* the Kind of tokens that are Symbols of a type, INVALID if the type is null */
+		static Kind of(SymbolType type) {
+			if (type == null)
+				return INVALID;
+
+			switch (type) {
+			case VARIABLE:
+				return VARIABLE;
+			case CONSTANT:
+				return CONSTANT;
+			default:
+				return LABEL;
+			}
+		}
+	}
+
+	private static final String JUMPTO = "jumpto";
+	private static final String ASSIGN = "=";
+
+	private final SymbolTable symbolTable;
+
+	private String   line;
+	private String[] values;
+	private Kind[]   kinds;
+	private int[]    columns;
+	private int[]    ids;
+	private int      count;
+
+	/** Constructs a Lexer that doesn't intern symbols */
+	Lexer() {
+		this(null);
+	}
+
+	/**
+	 * Constructs a Lexer that interns symbols to the ids of a {@code SymbolTable}.
+	 *
+	 * @param symbolTable the Symbol Table, {@code null} to not intern symbols
+	 */
+	Lexer(SymbolTable symbolTable) {
+		this.symbolTable = symbolTable;
+		line = "";
+		values = new String[8];
+		kinds = new Kind[8];
+		columns = new int[8];
+		ids = new int[8];
+		count = 0;
+	}
+
+	/**
+	 * Splits a {@code line} into tokens, replacing the tokens of the previous line.
+	 *
+	 * @param line the line of high-level-language code
+	 */
+	void lex(String line) {
+		this.line = line;
+		count = 0;
+
+		for (int i = 0, length = line.length(); i < length;) {
+			final char c     = line.charAt(i);
+			final int  start = i;
+
+			switch (c) {
+			case '+':
+			case '-':
+			case '*':
+			case '^':
+			case '%':
+			case '(':
+			case ')':
+				add(Lexer.operator(c), Kind.OPERATOR, start);
+				++i;
+				break;
+
+			case '/':
+				if ((count == 1) && ((i + 1) < length) && (line.charAt(i + 1) == '/')) {
+					add(Statement.COMMENT.identifier, Kind.KEYWORD, start);
+					return;
+				}
+				add(Token.DIV.value, Kind.OPERATOR, start);
+				++i;
+				break;
+
+			case '<':
+			case '>':
+			case '=':
+			case '!':
+				// maximal munch: "<=" is one token, not "<" followed by "="
+				final boolean twoCharacters = ((i + 1) < length) && (line.charAt(i + 1) == '=');
+				final String  condition     = Lexer.condition(c, twoCharacters);
+
+				if (condition != null)
+					add(condition, Kind.KEYWORD, start);
+				else
+					add(line.substring(start, start + 1), Kind.INVALID, start);
+
+				i += twoCharacters ? 2 : 1;
+				break;
+
+			default:
+				if (Character.isWhitespace(c)) {
+					++i;
+					break;
+				}
+
+				while ((i < length) && !Lexer.endsWord(line.charAt(i)))
+					++i;
+
+				word(start, i);
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of tokens of the line.
+	 *
+	 * @return the number of tokens
+	 */
+	int count() {
+		return count;
+	}
+
+	/**
+	 * Returns the value of a token.
+	 *
+	 * @param index the index of the token
+	 *
+	 * @return the value
+	 */
+	String value(int index) {
+		return values[index];
+	}
+
+	/**
+	 * Returns the Kind of a token.
+	 *
+	 * @param index the index of the token
+	 *
+	 * @return the Kind
+	 */
+	Kind kind(int index) {
+		return kinds[index];
+	}
+
+	/**
+	 * Returns the type of the Symbol a token is.
+	 *
+	 * @param index the index of the token
+	 *
+	 * @return the type, or {@code null} if the token isn't a Symbol
+	 */
+	SymbolType type(int index) {
+		return kinds[index].type;
+	}
+
+	/**
+	 * Returns the id in the Symbol Table of a token that is a Symbol.
+	 *
+	 * @param index the index of the token
+	 *
+	 * @return the id, or {@link SymbolTable#NOT_FOUND} if the token isn't a Symbol
+	 *         or this Lexer doesn't intern symbols
+	 */
+	int id(int index) {
+		return ids[index];
+	}
+
+	/**
+	 * Returns the index in the line of the first character of a token.
+	 *
+	 * @param index the index of the token
+	 *
+	 * @return the column
+	 */
+	int column(int index) {
+		return columns[index];
+	}
+
+	/**
+	 * Returns the line that was lexed, with the tokens separated by exactly one
+	 * space and without a comment's text. Lines that differ only in whitespace or
+	 * comments have the same tokens and the same normalised form.
+	 *
+	 * @return the normalised line
+	 */
+	String normalised() {
+		final StringBuilder sb = new StringBuilder(line.length());
+		for (int i = 0; i < count; ++i) {
+			if (i > 0)
+				sb.append(' ');
+			sb.append(values[i]);
+		}
+
+		return sb.toString();
+	}
+
+	private void word(int start, int end) {
+		final Kind   kind;
+		final String value;
+
+		if ((count == 0) && Lexer.isNumber(line, start, end)) {
+			kind = Kind.LINE_NUMBER;
+			value = line.substring(start, end);
+		} else if (((end - start) == Lexer.JUMPTO.length())
+		        && line.startsWith(Lexer.JUMPTO, start)) {
+			kind = Kind.KEYWORD;
+			value = Lexer.JUMPTO;
+		} else {
+			kind = Kind.of(SymbolType.typeOf(line, start, end));
+			value = line.substring(start, end);
+		}
+
+		add(value, kind, start);
+	}
+
+	private void add(String value, Kind kind, int column) {
+		if (count == values.length) {
+			final int newLength = 2 * count;
+
+			final String[] newValues  = new String[newLength];
+			final Kind[]   newKinds   = new Kind[newLength];
+			final int[]    newColumns = new int[newLength];
+			final int[]    newIds     = new int[newLength];
+			System.arraycopy(values, 0, newValues, 0, count);
+			System.arraycopy(kinds, 0, newKinds, 0, count);
+			System.arraycopy(columns, 0, newColumns, 0, count);
+			System.arraycopy(ids, 0, newIds, 0, count);
+			values = newValues;
+			kinds = newKinds;
+			columns = newColumns;
+			ids = newIds;
+		}
+
+		values[count] = value;
+		kinds[count] = kind;
+		columns[count] = column;
+		ids[count] = (kind.type != null) && (symbolTable != null) ? symbolTable.intern(value)
+		        : SymbolTable.NOT_FOUND;
+		++count;
+	}
+
+	private static String operator(char c) {
+		switch (c) {
+		case '+':
+			return Token.ADD.value;
+		case '-':
+			return Token.SUB.value;
+		case '*':
+			return Token.MUL.value;
+		case '^':
+			return Token.POW.value;
+		case '%':
+			return Token.MOD.value;
+		case '(':
+			return Token.LEFT_PAREN.value;
+		default:
+			return Token.RIGHT_PAREN.value;
+		}
+	}
+
+	// returns null for '!' on its own, which isn't a token of the language
+	private static String condition(char c, boolean twoCharacters) {
+		switch (c) {
+		case '<':
+			return twoCharacters ? Condition.LE.value : Condition.LT.value;
+		case '>':
+			return twoCharacters ? Condition.GE.value : Condition.GT.value;
+		case '=':
+			return twoCharacters ? Condition.EQ.value : Lexer.ASSIGN;
+		default:
+			return twoCharacters ? Condition.NE.value : null;
+		}
+	}
+
+	private static boolean endsWord(char c) {
+		switch (c) {
+		case '+':
+		case '-':
+		case '*':
+		case '/':
+		case '^':
+		case '%':
+		case '(':
+		case ')':
+		case '<':
+		case '>':
+		case '=':
+		case '!':
+			return true;
+		default:
+			return Character.isWhitespace(c);
+		}
+	}
+
+	private static boolean isNumber(String line, int start, int end) {
+		for (int i = start; i < end; ++i) {
+			final char c = line.charAt(i);
+			if ((c < '0') || (c > '9'))
+				return false;
+		}
+
+		return true;
+	}
+}
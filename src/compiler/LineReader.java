@@ -0,0 +1,130 @@
+package compiler;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Reads the lines of a program from a {@code ReadableByteChannel} as they
+ * arrive, without storing more than a few of them at a time. The lines can
+ * optionally be read ahead by a separate thread, so that reading the program
+ * overlaps with compiling the lines that were already read.
+ * <p>
+ * The reading thread is never interrupted, since interrupting a thread that
+ * waits on an interruptible channel closes the channel, which may be standard
+ * input. When the LineReader is closed while the thread waits for a line, the
+ * thread stops after the line arrives, or when the channel ends.
+ *
+ * @author Alex Mandelias
+ */
+final class LineReader implements Closeable {
+
+	/* the number of lines the reading thread may read ahead */
+	private static final int capacity = 1024;
+
+	/* put in the queue after the last line */
+	private static final Object END = new Object();
+
+	private final BufferedReader        reader;
+	private final BlockingQueue<Object> queue;
+	private final Thread                thread;
+
+	/* set when the LineReader is closed, the reading thread then stops */
+	private volatile boolean closed;
+
+	/**
+	 * Constructs a LineReader that reads from a {@code channel}, either when a
+	 * line is requested or ahead of time on a separate thread.
+	 *
+	 * @param channel   the channel
+	 * @param pipelined {@code true} to read on a separate thread, {@code false}
+	 *                  otherwise
+	 */
+	LineReader(ReadableByteChannel channel, boolean pipelined) {
+		reader = new BufferedReader(Channels.newReader(channel, Charset.defaultCharset()));
+
+		if (!pipelined) {
+			queue = null;
+			thread = null;
+			return;
+		}
+
+		queue = new ArrayBlockingQueue<>(LineReader.capacity);
+		thread = new Thread(this::readAhead, "SML_Compiler line reader");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Returns the next line, waiting until it is read if necessary.
+	 *
+	 * @return the line, without any line terminators, or {@code null} if there are
+	 *         no more lines
+	 *
+	 * @throws IOException if the line couldn't be read
+	 */
+	String readLine() throws IOException {
+		if (queue == null)
+			return reader.readLine();
+
+		final Object next;
+		try {
+			next = queue.take();
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		}
+
+		if (next == LineReader.END) {
+			queue.offer(LineReader.END);
+			return null;
+		}
+
+		if (next instanceof IOException) {
+			queue.offer(next);
+			throw (IOException) next;
+		}
+
+		return (String) next;
+	}
+
+	/**
+	 * Stops the reading thread, if there is one, but doesn't close the channel.
+	 * The thread stops once the line it is reading, if any, is read.
+	 */
+	@Override
+	public void close() {
+		if (thread == null)
+			return;
+
+		closed = true;
+
+		// the thread may wait for room in the queue, it puts at most one more item
+		queue.clear();
+	}
+
+	/* runs on the reading thread, ends with END or the exception that stopped it */
+	private void readAhead() {
+		try {
+			try {
+				for (String line = reader.readLine(); (line != null) && !closed;
+				        line = reader.readLine())
+					queue.put(line);
+
+				if (!closed)
+					queue.put(LineReader.END);
+			} catch (final IOException e) {
+				if (!closed)
+					queue.put(e);
+			}
+		} catch (final InterruptedException e) {
+			// nobody interrupts the thread, but if anyone does there is no one to give the lines to
+		}
+	}
+}
@@ -0,0 +1,442 @@
+package compiler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Stack;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import compiler.ast.If;
+import compiler.ast.Invalid;
+import compiler.ast.Node;
+import compiler.ast.While;
+import compiler.blocks.IfBlock;
+import compiler.blocks.WhileBlock;
+import compiler.exceptions.CompilerException;
+import compiler.exceptions.InvalidLabelNameException;
+import compiler.exceptions.InvalidLineNameException;
+import compiler.exceptions.InvalidVariableNameException;
+import compiler.exceptions.NoBlockException;
+import compiler.exceptions.UnclosedBlockException;
+import compiler.exceptions.UnexpectedTokenException;
+import compiler.exceptions.UnexpectedTokensException;
+import compiler.symboltable.SymbolTable;
+
+/**
+ * Parses the lines of a high-level-language program to its abstract syntax
+ * tree, a list of {@link Node Nodes} for the statements outside of any block.
+ * The statements inside {@code if} and {@code while} blocks are nested in the
+ * Node of their block.
+ * <p>
+ * The Parser only checks the syntax of the program. A line with a syntax error
+ * is parsed to an {@link Invalid} Node and parsing continues with the next
+ * line, so that the errors can be reported later, in the order of the lines,
+ * together with the errors found when generating code.
+ * <p>
+ * The syntax of each line doesn't depend on the other lines, therefore the
+ * lines of a whole program are lexed and checked in parallel, each one to a
+ * {@link Line} that holds its Node or its error. Only putting the Nodes in
+ * their blocks happens sequentially, in the order of the lines. The Symbols of
+ * lines that are checked in parallel aren't interned, since the Symbol Table is
+ * only used by one thread.
+ * <p>
+ * A program can also be parsed one line at a time, as it is read, in which case
+ * the Nodes of the statements outside of any block are returned as soon as
+ * their last line is parsed.
+ *
+ * @author Alex Mandelias
+ */
+final class Parser {
+
+	/* a block that is being parsed and the statements found in it so far */
+	private static final class Frame {
+		public final Statement  statement;
+		public final Node       header;
+		public final List<Node> body;
+		public List<Node>       elseBody;
+
+		public Frame(Statement statement, Node header) {
+			this.statement = statement;
+			this.header = header;
+			body = new ArrayList<>();
+			elseBody = null;
+		}
+
+		public List<Node> nodes() {
+			return elseBody != null ? elseBody : body;
+		}
+	}
+
+	/* the syntax of a line, which is checked independently of the other lines */
+	private static final class Line {
+		public final int               lineIndex;
+		public final int               lineNumber; // NO_LINE_NUMBER if it isn't valid
+		public final Statement         statement;  // null if there is an error
+		public final Node              node;
+		public final CompilerException error;
+		public final String            token;      // where the error was found, or the last token checked
+		public final String            normalised;
+
+		public Line(int lineIndex, int lineNumber, Statement statement, Node node,
+		        CompilerException error, String token, String normalised) {
+			this.lineIndex = lineIndex;
+			this.lineNumber = lineNumber;
+			this.statement = statement;
+			this.node = node;
+			this.error = error;
+			this.token = token;
+			this.normalised = normalised;
+		}
+	}
+
+	/* checks the syntax of lines, one at a time, using its own Lexer */
+	private static final class Checker {
+		private final Lexer lexer;
+
+		private String line;
+		private int    lineNumber;
+		private String variable;
+
+		public Checker(Lexer lexer) {
+			this.lexer = lexer;
+		}
+
+		public Line check(String originalLine, int lineIndex) {
+			line = originalLine;
+			lineNumber = Parser.NO_LINE_NUMBER;
+			lexer.lex(line);
+
+			Statement         statement = null;
+			Node              node      = null;
+			CompilerException error     = null;
+			try {
+				statement = checkSyntax();
+				node = statement.parse(lexer, lineNumber, lineIndex);
+			} catch (final CompilerException e) {
+				statement = null;
+				error = e;
+			}
+
+			return new Line(lineIndex, lineNumber, statement, node, error, variable,
+			        lexer.normalised());
+		}
+
+		private Statement checkSyntax() throws CompilerException {
+			final int tokenCount = lexer.count();
+
+			// handle line number
+			variable = lexer.value(0);
+			if (lexer.kind(0) != Lexer.Kind.LINE_NUMBER)
+				throw new InvalidLineNameException(variable);
+
+			lineNumber = Integer.parseInt(variable);
+
+			// handle command
+			if (tokenCount == 1)
+				throw new UnexpectedTokenException("", "a statement");
+
+			final Statement statement = Statement.of(lexer.value(1));
+
+			if (statement.isConstructor) {
+				for (int i = 2; i < tokenCount; ++i) {
+					variable = lexer.value(i);
+
+					if (statement == Statement.LABEL) {
+						if (tokenCount > Statement.LABEL.length)
+							throw new UnexpectedTokensException(line.substring(find()));
+
+						if (lexer.kind(i) != Lexer.Kind.LABEL)
+							throw new InvalidLabelNameException(variable);
+					} else if (lexer.kind(i) != Lexer.Kind.VARIABLE)
+						throw new InvalidVariableNameException(variable);
+				}
+
+				if ((statement == Statement.LABEL) && (tokenCount < Statement.LABEL.length)) {
+					variable = lexer.value(tokenCount - 1);
+					throw new UnexpectedTokenException("", "more tokens");
+				}
+
+			} else if (statement != Statement.COMMENT) {
+				final int expectedCount = statement.length;
+
+				if (expectedCount != -1) {
+					if (expectedCount < tokenCount) {
+						variable = lexer.value(expectedCount);
+						throw new UnexpectedTokensException(line.substring(find()));
+					}
+					if (expectedCount > tokenCount) {
+						variable = lexer.value(tokenCount - 1);
+						throw new UnexpectedTokenException("", "more tokens");
+					}
+				}
+
+				for (int i = 2; i < tokenCount; ++i) {
+					variable = lexer.value(i);
+
+					if (lexer.kind(i) == Lexer.Kind.INVALID)
+						throw new UnexpectedTokenException(variable,
+						        "a variable, a constant or a label");
+				}
+			}
+
+			return statement;
+		}
+
+		private int find() {
+			return line.indexOf(variable, 2);
+		}
+	}
+
+	/* checks the lines of a range in parallel, splitting it in half while it is large */
+	private static final class CheckTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final List<String> originalLines;
+		private final Line[]       checked;
+		private final int          from, to;
+
+		public CheckTask(List<String> originalLines, Line[] checked, int from, int to) {
+			this.originalLines = originalLines;
+			this.checked = checked;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if ((to - from) <= Parser.linesPerTask) {
+				final Checker checker = new Checker(new Lexer());
+				for (int lineIndex = from; lineIndex < to; ++lineIndex)
+					checked[lineIndex] = checker.check(originalLines.get(lineIndex), lineIndex);
+				return;
+			}
+
+			final int middle = (from + to) >>> 1;
+			invokeAll(new CheckTask(originalLines, checked, from, middle),
+			        new CheckTask(originalLines, checked, middle, to));
+		}
+	}
+
+	private static final int NO_LINE_NUMBER = -1;
+
+	/* the lines of smaller programs are checked sequentially */
+	private static final int linesPerTask = 1024;
+
+	private final Checker      checker;
+	private final Stack<Frame> frames;
+	private final List<Node>   program;
+	private final List<String> lines;
+
+	private int lineNumber;
+
+	/**
+	 * Constructs a Parser that interns the symbols of the programs it parses one
+	 * line at a time to the ids of a {@code SymbolTable}.
+	 *
+	 * @param symbolTable the Symbol Table
+	 */
+	Parser(SymbolTable symbolTable) {
+		checker = new Checker(new Lexer(symbolTable));
+		frames = new Stack<>();
+		program = new ArrayList<>();
+		lines = new ArrayList<>();
+	}
+
+	/**
+	 * Parses the non-blank {@code lines} of a program. The syntax of the lines of
+	 * large programs is checked in parallel, if there are multiple processors, and
+	 * then the Symbols of the Nodes aren't interned.
+	 *
+	 * @param originalLines the lines
+	 *
+	 * @return the Nodes of the statements outside of any block
+	 */
+	List<Node> parse(List<String> originalLines) {
+		return parse(originalLines, (originalLines.size() > Parser.linesPerTask)
+		        && (Runtime.getRuntime().availableProcessors() > 1));
+	}
+
+	/**
+	 * Parses the non-blank {@code lines} of a program, checking their syntax in
+	 * parallel or sequentially. Both produce the same Nodes, in the same order,
+	 * except that the Symbols of the Nodes aren't interned in parallel.
+	 *
+	 * @param originalLines the lines
+	 * @param parallel      whether to check the syntax of the lines in parallel
+	 *
+	 * @return the Nodes of the statements outside of any block
+	 */
+	List<Node> parse(List<String> originalLines, boolean parallel) {
+		start();
+		lines.clear();
+
+		final int    lineCount = originalLines.size();
+		final Line[] checked   = new Line[lineCount];
+
+		if (parallel)
+			ForkJoinPool.commonPool().invoke(new CheckTask(originalLines, checked, 0, lineCount));
+		else
+			for (int lineIndex = 0; lineIndex < lineCount; ++lineIndex)
+				checked[lineIndex] = checker.check(originalLines.get(lineIndex), lineIndex);
+
+		final List<Node> nodes = new ArrayList<>();
+		for (final Line line : checked) {
+			nodes.addAll(add(line));
+			lines.add(line.normalised);
+		}
+
+		nodes.addAll(finish());
+		return nodes;
+	}
+
+	/** Prepares the Parser to parse a new program one line at a time */
+	void start() {
+		frames.clear();
+		program.clear();
+		lineNumber = 0;
+	}
+
+	/**
+	 * Parses the next non-blank {@code line} of a program.
+	 *
+	 * @param originalLine the line
+	 * @param lineIndex    the index of the line in the program
+	 *
+	 * @return the Nodes of the statements outside of any block that end at this
+	 *         line, usually none or one
+	 */
+	List<Node> parse(String originalLine, int lineIndex) {
+		return add(checker.check(originalLine, lineIndex));
+	}
+
+	/**
+	 * Ends the program that is parsed one line at a time.
+	 *
+	 * @return the Nodes of the blocks that weren't closed
+	 */
+	List<Node> finish() {
+		// blocks that aren't closed when the program ends are not an error
+		while (!frames.empty())
+			close(false);
+
+		return drain();
+	}
+
+	/**
+	 * Returns whether or not the line that was parsed most recently is inside a
+	 * block.
+	 *
+	 * @return {@code true} if it is, {@code false} otherwise
+	 */
+	boolean inBlock() {
+		return !frames.empty();
+	}
+
+	/**
+	 * Returns the normalised lines of the program that was parsed most recently
+	 * with {@link #parse(List)}.
+	 *
+	 * @return the normalised lines
+	 *
+	 * @see Lexer#normalised()
+	 */
+	List<String> lines() {
+		return new ArrayList<>(lines);
+	}
+
+	/**
+	 * Returns the line number of the last line of the program that was parsed most
+	 * recently, or of the last line before it that has a valid line number.
+	 *
+	 * @return the line number
+	 */
+	int lineNumber() {
+		return lineNumber;
+	}
+
+	/* puts the Node of a checked line in its block, or reports the line's error */
+	private List<Node> add(Line line) {
+		if (line.lineNumber != Parser.NO_LINE_NUMBER)
+			lineNumber = line.lineNumber;
+
+		try {
+			if (line.error != null)
+				throw line.error;
+
+			addToBlock(line.statement, line.node);
+		} catch (final CompilerException e) {
+			nodes().add(new Invalid(lineNumber, line.lineIndex, e, line.token));
+		}
+
+		return drain();
+	}
+
+	private void addToBlock(Statement statement, Node node) throws CompilerException {
+		// the innermost block is closed without an end so that 'end' is outside of it
+		if ((statement == Statement.END) && !frames.empty()) {
+			final Statement unclosed = frames.peek().statement;
+			close(false);
+			throw new UnclosedBlockException(
+			        unclosed == Statement.IF ? new IfBlock() : new WhileBlock());
+		}
+
+		switch (statement) {
+		case IF:
+		case WHILE:
+			frames.push(new Frame(statement, node));
+			break;
+		case ELSE:
+			if (frames.empty() || (frames.peek().statement != Statement.IF)
+			        || (frames.peek().elseBody != null))
+				throw new NoBlockException(new IfBlock());
+
+			frames.peek().elseBody = new ArrayList<>();
+			break;
+		case ENDIF:
+			if (frames.empty() || (frames.peek().statement != Statement.IF))
+				throw new NoBlockException(new IfBlock());
+
+			close(true);
+			break;
+		case ENDWHILE:
+			if (frames.empty() || (frames.peek().statement != Statement.WHILE))
+				throw new NoBlockException(new WhileBlock());
+
+			close(true);
+			break;
+		default:
+			if (node != null)
+				nodes().add(node);
+			break;
+		}
+	}
+
+	// the Nodes outside of any block that weren't returned yet
+	private List<Node> drain() {
+		if (program.isEmpty())
+			return Collections.emptyList();
+
+		final List<Node> nodes = new ArrayList<>(program);
+		program.clear();
+		return nodes;
+	}
+
+	// the list where the Nodes of the current line are added
+	private List<Node> nodes() {
+		return frames.empty() ? program : frames.peek().nodes();
+	}
+
+	// adds the Node of the innermost block, with its statements, to the enclosing one
+	private void close(boolean closed) {
+		final Frame frame = frames.pop();
+
+		final Node node;
+		if (frame.statement == Statement.IF)
+			node = ((If) frame.header).withBodies(frame.body, frame.elseBody, closed);
+		else
+			node = ((While) frame.header).withBody(frame.body, closed);
+
+		nodes().add(node);
+	}
+}
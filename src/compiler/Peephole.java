@@ -0,0 +1,303 @@
+package compiler;
+
+import java.util.Arrays;
+import java.util.List;
+
+import runtime.Instruction;
+
+/**
+ * Improves the machine code of a program by looking at a few consecutive
+ * instructions at a time, a window that slides over the code, and rewriting
+ * the ones that match a rule of a table, for example by removing a
+ * {@code LOAD} of the location that was just stored. The rules are applied
+ * until none of them matches, and then the code is compacted: the remaining
+ * instructions are moved to the start of the memory, and the operand of every
+ * branch instruction is changed to the new address of its target.
+ * <p>
+ * Removing an instruction is the same as replacing it with one that does
+ * nothing, since a jump to it continues to the instruction after it. An
+ * instruction that is the target of a jump may be executed with any value in
+ * the accumulator, therefore the rules that depend on the instruction before
+ * it don't remove it. Jumps to a {@code BRANCH} are changed to jump directly to
+ * its target, so that the {@code BRANCH} may no longer be the target of any
+ * jump and then be removed, if it can't be reached otherwise.
+ *
+ * @author Alex Mandelias
+ */
+final class Peephole {
+
+	/* rewrites the window of instructions that starts at an address and returns whether it did */
+	@FunctionalInterface
+	private interface Rule {
+		boolean apply(Peephole peephole, int address);
+	}
+
+	private static final int LOAD       = Instruction.LOAD.opcode();
+	private static final int STORE      = Instruction.STORE.opcode();
+	private static final int BRANCH     = Instruction.BRANCH.opcode();
+	private static final int BRANCHNEG  = Instruction.BRANCHNEG.opcode();
+	private static final int BRANCHZERO = Instruction.BRANCHZERO.opcode();
+	private static final int HALT       = Instruction.HALT.opcode();
+	private static final int NOOP       = Instruction.NOOP.opcode();
+
+	private static final List<Rule> rules = List.of(
+	        Peephole::noop,
+	        Peephole::branchToNext,
+	        Peephole::branchToBranch,
+	        Peephole::unreachable,
+	        Peephole::storeLoad,
+	        Peephole::loadStore,
+	        Peephole::loadLoad,
+	        Peephole::branchBeforeBranch,
+	        Peephole::repeatedBranch,
+	        Peephole::branchOrder);
+
+	private final int[]     code;
+	private final boolean[] removed;   // by address
+	private final boolean[] targeted;  // by address, whether a branch jumps there
+	private final int[]     addresses; // by address, the address after compacting
+
+	/**
+	 * Constructs a Peephole optimiser for the instructions of a program, which
+	 * start at address {@code 0}.
+	 *
+	 * @param code the instructions
+	 */
+	Peephole(int[] code) {
+		this.code = code.clone();
+		removed = new boolean[code.length];
+		targeted = new boolean[code.length + 1];
+		addresses = new int[code.length + 1];
+	}
+
+	/**
+	 * Applies the rules until none of them matches and compacts the code.
+	 *
+	 * @return the instructions that remain, with their branches relocated
+	 */
+	int[] optimise() {
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			findTargets();
+
+			for (int address = first(0); address < code.length; address = next(address))
+				for (final Rule rule : Peephole.rules)
+					changed |= (!removed[address]) && rule.apply(this, address);
+		}
+
+		return compact();
+	}
+
+	/**
+	 * Returns the address of an instruction after the code was compacted. The
+	 * address of an instruction that was removed is the address of the one after
+	 * it, and the address after the last instruction is the size of the code.
+	 *
+	 * @param address the address of the instruction before compacting
+	 *
+	 * @return the address after compacting
+	 */
+	int address(int address) {
+		return (address >= 0) && (address < addresses.length) ? addresses[address] : address;
+	}
+
+	// --- the rules ---
+
+	/* a NOOP does nothing */
+	private boolean noop(int address) {
+		if (opcode(address) != Peephole.NOOP)
+			return false;
+
+		removed[address] = true;
+		return true;
+	}
+
+	/* a branch to the next instruction does nothing, whether it jumps or not */
+	private boolean branchToNext(int address) {
+		if (!isBranch(address) || (first(operand(address)) != next(address)))
+			return false;
+
+		removed[address] = true;
+		return true;
+	}
+
+	/* BRANCHNEG L; ... L: BRANCH M -> BRANCHNEG M, it ends up there anyway, unless L loops forever */
+	private boolean branchToBranch(int address) {
+		if (!isBranch(address))
+			return false;
+
+		final int target = first(operand(address));
+		if ((target == code.length) || (opcode(target) != Peephole.BRANCH)
+		        || (operand(target) == operand(address)) || (first(operand(target)) == target))
+			return false;
+
+		code[address] = opcode(address) + operand(target);
+		return true;
+	}
+
+	/* the instruction after a BRANCH or a HALT is never executed, unless it is the target of a jump */
+	private boolean unreachable(int address) {
+		final int next = next(address);
+		if (((opcode(address) != Peephole.BRANCH) && (opcode(address) != Peephole.HALT))
+		        || (next == code.length) || isTarget(next))
+			return false;
+
+		removed[next] = true;
+		return true;
+	}
+
+	/* STORE x; LOAD x -> STORE x, the value is still in the accumulator */
+	private boolean storeLoad(int address) {
+		final int next = next(address);
+		if ((opcode(address) != Peephole.STORE) || !matches(next, Peephole.LOAD, operand(address)))
+			return false;
+
+		removed[next] = true;
+		return true;
+	}
+
+	/* LOAD x; STORE x -> LOAD x, x already has this value */
+	private boolean loadStore(int address) {
+		final int next = next(address);
+		if ((opcode(address) != Peephole.LOAD) || !matches(next, Peephole.STORE, operand(address)))
+			return false;
+
+		removed[next] = true;
+		return true;
+	}
+
+	/* LOAD x; LOAD y -> LOAD y, the first value is never used */
+	private boolean loadLoad(int address) {
+		final int next = next(address);
+		if ((opcode(address) != Peephole.LOAD) || (next == code.length) || isTarget(next)
+		        || (opcode(next) != Peephole.LOAD))
+			return false;
+
+		removed[address] = true;
+		return true;
+	}
+
+	/* BRANCHNEG L; BRANCH L -> BRANCH L, both go to the same place */
+	private boolean branchBeforeBranch(int address) {
+		final int next = next(address);
+		if (!isBranch(address) || (opcode(address) == Peephole.BRANCH) || (next == code.length)
+		        || (opcode(next) != Peephole.BRANCH)
+		        || (first(operand(address)) != first(operand(next))))
+			return false;
+
+		removed[address] = true;
+		return true;
+	}
+
+	/* BRANCHZERO L; BRANCHZERO L -> BRANCHZERO L, the second one never jumps */
+	private boolean repeatedBranch(int address) {
+		final int next = next(address);
+		if (!isBranch(address) || (opcode(address) == Peephole.BRANCH) || (next == code.length)
+		        || isTarget(next) || (opcode(next) != opcode(address))
+		        || (first(operand(address)) != first(operand(next))))
+			return false;
+
+		removed[next] = true;
+		return true;
+	}
+
+	/*
+	 * BRANCHZERO L; BRANCHNEG M -> BRANCHNEG M; BRANCHZERO L, they test the same
+	 * value and at most one of them jumps, so that the branches are always in the
+	 * same order and the rules above match the repeated ones.
+	 */
+	private boolean branchOrder(int address) {
+		final int next = next(address);
+		if ((opcode(address) != Peephole.BRANCHZERO) || (next == code.length) || isTarget(next)
+		        || (opcode(next) != Peephole.BRANCHNEG))
+			return false;
+
+		final int instruction = code[address];
+		code[address] = code[next];
+		code[next] = instruction;
+		return true;
+	}
+
+	// --- the window ---
+
+	/* the first instruction at or after an address that isn't removed, or the size of the code */
+	private int first(int address) {
+		int first = address;
+		while ((first < code.length) && removed[first])
+			++first;
+
+		return first;
+	}
+
+	/* the instruction after the one at an address that isn't removed, or the size of the code */
+	private int next(int address) {
+		return first(address + 1);
+	}
+
+	/* whether a branch jumps to an instruction, or to one that was removed right before it */
+	private boolean isTarget(int address) {
+		for (int i = address; i >= 0; --i) {
+			if ((i < address) && !removed[i])
+				return false;
+			if (targeted[i])
+				return true;
+		}
+
+		return false;
+	}
+
+	private void findTargets() {
+		Arrays.fill(targeted, false);
+
+		// the program starts at the first instruction
+		targeted[0] = true;
+
+		for (int address = 0; address < code.length; ++address)
+			if (!removed[address] && isBranch(address) && (operand(address) <= code.length))
+				targeted[operand(address)] = true;
+	}
+
+	private boolean matches(int address, int opcode, int operand) {
+		return (address < code.length) && !isTarget(address) && (opcode(address) == opcode)
+		        && (operand(address) == operand);
+	}
+
+	private boolean isBranch(int address) {
+		final int opcode = opcode(address);
+		return (opcode == Peephole.BRANCH) || (opcode == Peephole.BRANCHNEG)
+		        || (opcode == Peephole.BRANCHZERO);
+	}
+
+	private int opcode(int address) {
+		return code[address] - operand(address);
+	}
+
+	private int operand(int address) {
+		return code[address] % 0x100;
+	}
+
+	/* moves the instructions that remain to the start and relocates the branches */
+	private int[] compact() {
+		int size = 0;
+		for (int address = 0; address < code.length; ++address) {
+			addresses[address] = size;
+			if (!removed[address])
+				++size;
+		}
+		addresses[code.length] = size;
+
+		final int[] compacted = new int[size];
+		for (int address = 0; address < code.length; ++address) {
+			if (removed[address])
+				continue;
+
+			final int instruction = code[address];
+			compacted[addresses[address]] = isBranch(address)
+			        ? (instruction - operand(address)) + address(operand(address))
+			        : instruction;
+		}
+
+		return compacted;
+	}
+}
@@ -1,8 +1,6 @@
 package compiler;
 
-import static compiler.Statement.COMMENT;
 import static compiler.Statement.INT;
-import static compiler.Statement.LET;
 import static compiler.symboltable.SymbolType.CONSTANT;
 import static compiler.symboltable.SymbolType.LABEL;
 import static compiler.symboltable.SymbolType.VARIABLE;
@@ -16,33 +14,34 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintStream;
+import java.io.Serializable;
+import java.net.URISyntaxException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
-import java.util.EmptyStackException;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Scanner;
-import java.util.Stack;
 import java.util.StringTokenizer;
+import java.util.stream.Stream;
 
-import compiler.blocks.Block;
+import compiler.ast.Node;
 import compiler.exceptions.CompilerException;
-import compiler.exceptions.InvalidLabelNameException;
-import compiler.exceptions.InvalidLineNameException;
-import compiler.exceptions.InvalidVariableNameException;
-import compiler.exceptions.LabelAlreadyDeclaredException;
 import compiler.exceptions.LabelNotDeclaredException;
-import compiler.exceptions.UnclosedBlockException;
-import compiler.exceptions.UnexpectedTokenException;
-import compiler.exceptions.UnexpectedTokensException;
-import compiler.exceptions.VariableAlreadyDeclaredException;
-import compiler.exceptions.VariableNotDeclaredException;
-import compiler.postfix.InfixToPostfix;
-import compiler.postfix.Token;
-import compiler.symboltable.SymbolInfo;
+import compiler.ir.Constant;
+import compiler.ir.ControlFlowGraph;
+import compiler.ir.LoopInvariants;
+import compiler.ir.Propagation;
+import compiler.ir.SSA;
+import compiler.ir.ValueNumbering;
 import compiler.symboltable.SymbolTable;
 import compiler.symboltable.SymbolType;
 import memory.CodeWriter;
@@ -50,15 +49,20 @@ import memory.Memory;
 import requirement.requirements.AbstractRequirement;
 import requirement.requirements.StringType;
 import requirement.util.Requirements;
+import utility.ContentCache;
+import utility.Digest;
 import utility.StreamSet;
 
 /**
- * A Compiler for the high-level language. It defines the {@code static} method
- * {@link #compile} which generates machine code instructions for a high-level
- * language program. The Compiler is {@code stateless} meaning that no
- * information is stored between compilations and that an instance of a Compiler
- * is not necessary to compile a program. Each call to {@code compile} creates a
- * new Compiler instance therefore there aren't any synchronisation issues.
+ * A Compiler for the high-level language. Its method {@link #compile} generates
+ * machine code instructions for a high-level language program. Each instance
+ * keeps the state of the program it compiled most recently: its memory, its
+ * Symbol Table and the graph and checkpoints that an {@code incremental}
+ * compilation reuses. A compilation that isn't incremental starts by calling
+ * {@link #reset()}, which discards that state, therefore an instance can be
+ * reused for any number of programs. An instance is not thread-safe and must
+ * not be shared between threads; programs that are compiled concurrently, as
+ * with {@code batch}, each need their own instance.
  * <p>
  * The compilation uses {@link requirement.requirements.AbstractRequirement
  * Requirements} in order to specify different parameters. They can be obtained
@@ -86,39 +90,94 @@ public class SML_Compiler {
 	        + "      show all output, not only error messages\n"
 	        + "  -st\n"
 	        + "      show the Symbol Table at the end of compilation\n"
+	        + "  --cache <directory or 'memory' or 'none'>\n"
+	        + "      where to look for and store previously compiled programs\n"
+	        + "  -incremental\n"
+	        + "      only build the statements that changed since the previous compilation;\n"
+	        + "      the whole program is still parsed, optimised and turned into code\n"
+	        + "  -stream\n"
+	        + "      compile the program while it is read, without storing all of it\n"
+	        + "  -pipeline\n"
+	        + "      with -stream, read the program on a separate thread\n"
+	        + "  -batch\n"
+	        + "      compile every program in the --input directory or list file, in parallel,\n"
+	        + "      to the --output directory\n"
+	        + "  -optimise\n"
+	        + "      generate faster and smaller code\n"
 	        + "\n"
 	        + "Compiling with no options is equivalent to:\n"
 	        + "  java --class-path bin;lib\\requirement.jar compiler.SML_Compiler --input stdin --output out.txt\n";
 
-	private static final Collection<String> keywords = new HashSet<>();
-
-	static {
-		SML_Compiler.keywords.addAll(Arrays.asList(Token.ADD.value, Token.SUB.value,
-		        Token.MUL.value, Token.DIV.value, Token.POW.value, Token.MOD.value, "="));
-
-		for (final Condition s : Condition.values())
-			SML_Compiler.keywords.add(s.value);
+	/*
+	 * The caches of compiled programs, one for each value of the 'cache'
+	 * requirement, shared by all Compilers. The key of a program also contains a
+	 * digest of the classes of the Compiler, so that programs compiled by a
+	 * different build, which may generate different code, are not found in a
+	 * cache directory. Increment the version whenever the generated code or the
+	 * CompiledProgram changes, for builds whose classes can't be read.
+	 */
+	private static final Map<String, ContentCache<CompiledProgram>> caches        = new HashMap<>();
+	private static final int                                        cacheVersion  = 2;
+	private static final long                                       cacheCapacity = 16 << 20;
 
-		SML_Compiler.keywords.add("jumpto");
-	}
+	private InputStream inputStream;
+	private PrintStream outputStream, errorStream;
 
-	private final InputStream inputStream;
-	private final PrintStream outputStream, errorStream;
+	private final SymbolTable      symbolTable;
+	private final CodeWriter       memory;
+	private final StringBuilder    program;
+	private final Parser           parser;
+	private final IRBuilder        builder;
+	private final IRLowering       lowering;
+	private final List<Checkpoint> checkpoints;
+	private final List<String>     previousLines;
 
-	private final SymbolTable          symbolTable;
-	private final CodeWriter           memory;
-	private final StringBuilder        program;
-	private final Map<Integer, String> labelFlags;
-	private final Stack<Block>         blockStack;
+	private boolean optimise;
 
 	private static class CompilationData {
 		public String  inputFileName;
 		public String  originalLine;
 		public int     lineNumber;
-		public String  variable;
+		public int     reusedLines;
 		public boolean success;
 	}
 
+	/* the digest of the classes, computed only once and only if a cache is used */
+	private static final class Build {
+		private static final String digest = SML_Compiler.classesDigest();
+	}
+
+	/* what is stored in a cache for every successfully compiled program */
+	private static class CompiledProgram implements Serializable {
+		private static final long serialVersionUID = 1L;
+
+		public final int[]  image;
+		public final String symbolTable;
+
+		public CompiledProgram(int[] image, String symbolTable) {
+			this.image = image;
+			this.symbolTable = symbolTable;
+		}
+
+		public long size() {
+			return (4L * image.length) + (2L * symbolTable.length());
+		}
+	}
+
+	/*
+	 * The state of the compilation right before a statement outside of any block
+	 * was compiled. Compilation can be resumed from any Checkpoint, as if the
+	 * statements before it were just compiled, by restoring the state. The
+	 * machine code is always generated again for the whole graph.
+	 */
+	private static class Checkpoint {
+		public int             lineIndex;
+		public IRBuilder.State builderState;
+		public int             dataCounter;
+		public int             symbolCount;
+		public boolean         success;
+	}
+
 	/** Constructs a Compiler with the "standard" in, out and error streams */
 	public SML_Compiler() {
 		this(new StreamSet());
@@ -151,8 +210,56 @@ public class SML_Compiler {
 		symbolTable = new SymbolTable();
 		memory = new Memory(256);
 		program = new StringBuilder();
-		labelFlags = new HashMap<>();
-		blockStack = new Stack<>();
+		parser = new Parser(symbolTable);
+		builder = new IRBuilder(this);
+		lowering = new IRLowering(this);
+		checkpoints = new ArrayList<>();
+		previousLines = new ArrayList<>();
+	}
+
+	/**
+	 * Resets the Compiler to the state it was when it was constructed, discarding
+	 * the program that was compiled most recently. The Compiler continues to use
+	 * the same streams. The time it takes doesn't depend on the size of the
+	 * memory, only on the number of symbols of the program.
+	 * <p>
+	 * A compilation that isn't {@code incremental} always resets the Compiler
+	 * first, therefore an instance can be reused for any number of compilations,
+	 * for example by keeping it in a {@link utility.Pool Pool}.
+	 */
+	public void reset() {
+		memory.clear();
+		memory.initializeForWriting();
+		symbolTable.clear();
+		parser.start();
+		builder.clear();
+		checkpoints.clear();
+		previousLines.clear();
+	}
+
+	/**
+	 * Resets the Compiler, as with {@link #reset()}, and changes the streams it
+	 * uses, so that an instance can be reused for a different compilation.
+	 *
+	 * @param streamset the set of Streams that the Compiler will use
+	 *
+	 * @see StreamSet
+	 */
+	public void reset(StreamSet streamset) {
+		inputStream = streamset.in;
+		outputStream = streamset.out;
+		errorStream = streamset.err;
+
+		reset();
+	}
+
+	/**
+	 * Returns whether or not the code that is generated is optimised.
+	 *
+	 * @return {@code true} if it is, {@code false} otherwise
+	 */
+	boolean optimising() {
+		return optimise;
 	}
 
 	/**
@@ -202,8 +309,89 @@ public class SML_Compiler {
 	 * | screen  | false   | output to stdout too | -            |
 	 * | st      | false   | output SymbolTable   | -            |
 	 * | verbose | false   | output all messages  | -            |
+	 * | cache   | none    | "memory" or dirname  | --           |
+	 * | incr... | false   | incremental compile  | -            |
+	 * | stream  | false   | compile while read   | -            |
+	 * | pipel...| false   | read on other thread | -            |
+	 * | batch   | false   | compile many files   | -            |
+	 * | optim...| false   | optimise the code    | -            |
 	 * </pre>
 	 *
+	 * With a {@code cache}, the Compiler looks up the program in a cache of
+	 * previously compiled programs before compiling it and stores it there after
+	 * compiling it. The cache is either kept only in memory or also in a
+	 * directory, so that it can be shared between different runs.
+	 * <p>
+	 * With {@code incremental}, the Compiler only compiles the statements starting
+	 * from the one that contains the first line that is different from the
+	 * program it compiled previously, where a whole {@code if} or {@code while}
+	 * block counts as one statement. Only the graph of the statements before it
+	 * is reused: they are not built again and their errors, if any, are not
+	 * reported again, therefore the previous program is only reused if it had no
+	 * errors in these statements. The whole program is still lexed and parsed,
+	 * and the whole graph is converted to SSA form, optimised and lowered to
+	 * machine code again.
+	 * <p>
+	 * With {@code stream}, the Compiler reads the program one line at a time and
+	 * generates the code for each statement outside of any block as soon as its
+	 * last line is read, so that only the lines of the current block are stored.
+	 * The program is read from the input as-is, therefore the lines must have
+	 * their line numbers even when reading from stdin. The {@code cache} and
+	 * {@code incremental} Requirements are ignored, since they need the whole
+	 * program. With {@code pipeline} as well, the lines are read ahead on a
+	 * separate thread while the previous lines are being compiled.
+	 * <p>
+	 * With {@code batch}, the {@code input} is either a directory, whose
+	 * {@code .sml} files are compiled including the ones in its subdirectories, or
+	 * a file that lists the programs to compile, one per line. The programs are
+	 * compiled in parallel, each by its own Compiler with the rest of the
+	 * Requirements, and the {@code output} is the directory where the machine code
+	 * of each program is written, at the same relative path as the program but
+	 * with the extension {@code .txt}, or {@code stdout}. The messages of each
+	 * program are output together, in the order of the programs, after all of
+	 * them are compiled.
+	 * <p>
+	 * With {@code optimise}, the Compiler generates code that executes fewer
+	 * instructions and uses less memory, which computes the same results as the
+	 * code generated without it:
+	 * <ul>
+	 * <li>the operations of expressions whose operands are Constants are
+	 * calculated while compiling, exactly as the machine would calculate them,
+	 * and only their result is stored in memory</li>
+	 * <li>the Constants and the copies of Variables are propagated from where
+	 * they are assigned to where they are used, across statements and blocks,
+	 * the Comparisons that are always true or always false are decided, and the
+	 * code that is never executed or whose result is never used is removed. This
+	 * isn't done for a {@code stream}, whose code is generated before the rest of
+	 * the program is read</li>
+	 * <li>an operation that was already calculated, with operands that weren't
+	 * assigned since, isn't calculated again, within a statement or in the
+	 * statements that are always executed after it. This isn't done for a
+	 * {@code stream} either</li>
+	 * <li>an operation of a loop, such as a {@code while} block, whose operands
+	 * aren't assigned in the loop is calculated once before the loop instead of
+	 * on every iteration, unless it is a division by a Variable. This isn't done
+	 * for a {@code stream} either</li>
+	 * <li>the locations of the intermediate results of expressions are reused
+	 * once the results are no longer needed, also by other statements</li>
+	 * <li>the operands of expressions are evaluated in the order that stores the
+	 * fewest intermediate results, and a result that is used right away is kept
+	 * in the accumulator instead of being stored and loaded again</li>
+	 * <li>a value that is already in the accumulator, because it was just stored
+	 * or loaded, isn't loaded again, also at the start of a block when every
+	 * jump to it leaves the same value there. This isn't done across blocks for
+	 * a {@code stream}</li>
+	 * <li>the machine code is rewritten by looking at a few consecutive
+	 * instructions at a time, for example removing a {@code LOAD} right after a
+	 * {@code STORE} of the same location, a {@code NOOP} or a branch to the next
+	 * instruction, and then moved to the start of the memory</li>
+	 * <li>jumps to a {@code BRANCH} jump directly to its target, and the
+	 * instructions that can no longer be reached are removed</li>
+	 * <li>the instructions of a Comparison are the shortest of the ways to test
+	 * its Condition, given the value in the accumulator and the blocks that
+	 * follow, and a {@code 0} isn't subtracted</li>
+	 * </ul>
+	 *
 	 * @return the Requirements
 	 */
 	public static Requirements getRequirements() {
@@ -214,12 +402,24 @@ public class SML_Compiler {
 		reqs.add("screen");
 		reqs.add("st");
 		reqs.add("verbose");
+		reqs.add("cache", StringType.ANY);
+		reqs.add("incremental");
+		reqs.add("stream");
+		reqs.add("pipeline");
+		reqs.add("batch");
+		reqs.add("optimise");
 
 		reqs.fulfil("input", "stdin");
 		reqs.fulfil("output", "out.txt");
 		reqs.fulfil("screen", false);
 		reqs.fulfil("st", false);
 		reqs.fulfil("verbose", false);
+		reqs.fulfil("cache", "none");
+		reqs.fulfil("incremental", false);
+		reqs.fulfil("stream", false);
+		reqs.fulfil("pipeline", false);
+		reqs.fulfil("batch", false);
+		reqs.fulfil("optimise", false);
 
 		return reqs;
 	}
@@ -257,6 +457,11 @@ public class SML_Compiler {
 			return;
 		}
 
+		if ((boolean) requirements.getValue("batch")) {
+			compileBatch(requirements);
+			return;
+		}
+
 		final CompilationData data = new CompilationData();
 
 		final String  input   = (String) requirements.getValue("input");
@@ -264,21 +469,50 @@ public class SML_Compiler {
 		final boolean screen  = (boolean) requirements.getValue("screen");
 		final boolean st      = (boolean) requirements.getValue("st");
 		final boolean verbose = (boolean) requirements.getValue("verbose");
+		final String  cache   = (String) requirements.getValue("cache");
+		final boolean incr    = (boolean) requirements.getValue("incremental");
+		final boolean stream  = (boolean) requirements.getValue("stream");
+		final boolean pipe    = (boolean) requirements.getValue("pipeline");
+		final boolean opt     = (boolean) requirements.getValue("optimise");
+
+		final ContentCache<CompiledProgram> compiledPrograms = SML_Compiler.cache(cache);
+		CompiledProgram                     compiledProgram  = null;
+		String                              key              = null;
 
 		data.inputFileName = input.equals("stdin") ? "<stdin>" : input;
 		data.success = true;
 
+		// the previous program can't be reused when it was compiled differently
+		if (opt != optimise)
+			reset();
+		optimise = opt;
+
 		if (!verbose) {
 
 			// === SILENT COMPILATION ===
 
-			if (input.equals("stdin"))
-				loadProgramFromStdin();
-			else
-				loadProgramFromFile(new File(input));
+			if (stream)
+				compileStream(data, input, pipe);
+			else {
+				if (input.equals("stdin"))
+					loadProgramFromStdin();
+				else
+					loadProgramFromFile(new File(input));
+
+				if (compiledPrograms != null) {
+					key = SML_Compiler.cacheKey(program, optimise);
+					compiledProgram = compiledPrograms.get(key);
+				}
 
-			pass1(data);
-			pass2(data);
+				if (compiledProgram != null)
+					loadCompiledProgram(compiledProgram);
+				else {
+					pass1(data, incr);
+
+					if (data.success && (compiledPrograms != null))
+						compiledPrograms.put(key, compiledProgram());
+				}
+			}
 
 			if (data.success) {
 				if (output.equals("stdout")) {
@@ -296,30 +530,54 @@ public class SML_Compiler {
 			}
 
 			if (st)
-				out("Symbol Table:%n%s", symbolTable);
+				out("Symbol Table:%n%s",
+				        compiledProgram != null ? compiledProgram.symbolTable : symbolTable);
 
 		} else {
 
 			// === VERBOSE COMPILATION ===
 
-			if (input.equals("stdin")) {
-				out("Loading program from Standard Input");
-				out("The line number for each statement will be printed");
-				out("Type 'end' to stop inputting code");
-				loadProgramFromStdin();
+			if (stream) {
+				out("Loading and compiling program from %s",
+				        input.equals("stdin") ? "Standard Input" : "file: " + input);
+				compileStream(data, input, pipe);
+				out("Compilation ended");
 			} else {
-				out("Loading program from file: %s", input);
-				loadProgramFromFile(new File(input));
-			}
-			out("Progarm loading completed");
+				if (input.equals("stdin")) {
+					out("Loading program from Standard Input");
+					out("The line number for each statement will be printed");
+					out("Type 'end' to stop inputting code");
+					loadProgramFromStdin();
+				} else {
+					out("Loading program from file: %s", input);
+					loadProgramFromFile(new File(input));
+				}
+				out("Progarm loading completed");
+
+				if (compiledPrograms != null) {
+					out("Looking up program in cache: %s", cache);
+					key = SML_Compiler.cacheKey(program, optimise);
+					compiledProgram = compiledPrograms.get(key);
+				}
 
-			out("Compilation started");
-			pass1(data);
+				if (compiledProgram != null) {
+					out("Program found in cache, skipping compilation");
+					loadCompiledProgram(compiledProgram);
+				} else {
+					out("Compilation started");
+					pass1(data, incr);
 
-			out("Completing goto instructions");
-			pass2(data);
+					if (data.reusedLines > 0)
+						out("Reused the first %d lines of the previous compilation",
+						        data.reusedLines);
+					out("Compilation ended");
 
-			out("Compilation ended");
+					if (data.success && (compiledPrograms != null)) {
+						out("Storing compiled program in cache: %s", cache);
+						compiledPrograms.put(key, compiledProgram());
+					}
+				}
+			}
 
 			if (data.success) {
 				if (output.equals("stdout")) {
@@ -337,7 +595,8 @@ public class SML_Compiler {
 			}
 
 			if (st)
-				out("Symbol Table:%n%s", symbolTable);
+				out("Symbol Table:%n%s",
+				        compiledProgram != null ? compiledProgram.symbolTable : symbolTable);
 
 			if (data.success)
 				out("Compilation succeeded :)");
@@ -346,179 +605,357 @@ public class SML_Compiler {
 		}
 	}
 
-	/* Does everything apart from completing 'jump' instructions */
-	private void pass1(CompilationData data) {
-
-		memory.initializeForWriting();
+	/*
+	 * Builds the control-flow graph of the program, converts a copy of it to SSA
+	 * form, optimises the copy if requested and generates its machine code. The
+	 * 'jump' instructions are completed while the code is generated, and the
+	 * machine code is optimised after that if requested.
+	 */
+	private void pass1(CompilationData data, boolean incremental) {
 
+		final List<String>    originalLines = new ArrayList<>();
 		final StringTokenizer lineTokenizer = new StringTokenizer(program.toString(),
 		        System.lineSeparator());
 
-		String    line = "";
-		String[]  tokens;
-		Statement statement;
+		while (lineTokenizer.hasMoreTokens()) {
+			final String originalLine = lineTokenizer.nextToken();
 
-		next_line: while (lineTokenizer.hasMoreTokens())
-			try {
+			if (!originalLine.isBlank())
+				originalLines.add(originalLine);
+		}
 
-				// get line and remove extra whitespace
-				data.originalLine = lineTokenizer.nextToken();
-				line = data.originalLine.strip().replaceAll("\\s+", " ");
+		final int firstLine = incremental ? restoreCheckpoint(originalLines) : 0;
+		if (firstLine == 0)
+			reset();
 
-				if (line.isBlank())
-					continue next_line;
+		data.reusedLines = firstLine;
 
-				tokens = line.split(" ");
+		// the code of the previous compilation, if any, is generated again, and new data may take its place
+		for (int i = 0, end = memory.getInstructionCounter(); i < end; ++i)
+			memory.write(i, 0);
 
-				// handle line number
-				final String lineNo = tokens[0];
-				data.variable = lineNo;
-				if (!SML_Compiler.isLine(lineNo))
-					throw new InvalidLineNameException(lineNo);
+		memory.setInstructionCounter(0);
 
-				data.lineNumber = Integer.parseInt(lineNo);
+		final List<Node> nodes = parser.parse(originalLines);
 
-				// handle command
-				if (tokens.length == 1)
-					throw new UnexpectedTokenException("", "a statement");
+		previousLines.clear();
+		previousLines.addAll(parser.lines());
 
-				statement = Statement.of(tokens[1]);
+		// errors found after all statements are compiled are reported at the last line
+		data.lineNumber = parser.lineNumber();
+		data.originalLine = originalLines.isEmpty() ? "" : originalLines.get(originalLines.size() - 1);
 
-				// handle constructors (int etc. declarations)
-				if (statement.isConstructor) {
-					for (int i = 2, count = tokens.length; i < count; ++i) {
-						final String var = tokens[i];
-						data.variable = var;
+		final IRBuilder.ErrorHandler handler = (node, token, e) -> {
+			err("at: %s:%02d:%02d: %s", data.inputFileName, node.lineNumber,
+			        SML_Compiler.find(originalLines.get(node.lineIndex), token), e.getMessage());
+			data.success = false;
+		};
 
-						if (statement == Statement.LABEL) {
-							if (tokens.length > Statement.LABEL.length)
-								throw new UnexpectedTokensException(
-								        data.originalLine.substring(SML_Compiler.find(data)));
+		for (final Node node : nodes)
+			if (node.lineIndex >= firstLine) {
+				saveCheckpoint(node.lineIndex, data);
+				builder.build(node, handler);
+			}
 
-							if (!SML_Compiler.isLabelName(var))
-								throw new InvalidLabelNameException(var);
+		// the graph of the builder is kept as it is so that it can be restored
+		final ControlFlowGraph graph = builder.graph().copy();
+		SSA.construct(graph);
 
-							if (labelDeclared(var))
-								throw new LabelAlreadyDeclaredException(var);
-						} else {
-							if (!SML_Compiler.isVariableName(var))
-								throw new InvalidVariableNameException(var);
+		// the code of a program with errors isn't written, and labels that aren't declared are errors
+		if (optimise && data.success && graph.isComplete()) {
+			Propagation.propagate(graph, this::constant);
+			ValueNumbering.number(graph);
+			LoopInvariants.hoist(graph);
+		}
 
-							if (variableDeclared(var))
-								throw new VariableAlreadyDeclaredException(var);
-						}
-					}
+		reportUndeclaredLabels(lowering.lower(graph), data);
 
-					statement.evaluate(line, this);
-					continue next_line;
-				}
-				if (!statement.equals(COMMENT)) {
-					final int expectedCount = statement.length;
-
-					if (expectedCount != -1) {
-						if (expectedCount < tokens.length) {
-							data.variable = tokens[expectedCount];
-							throw new UnexpectedTokensException(
-							        data.originalLine.substring(SML_Compiler.find(data)));
-						}
-						if (expectedCount > tokens.length) {
-							data.variable = tokens[tokens.length - 1];
-							throw new UnexpectedTokenException("", "more tokens");
-						}
-					}
+		if (optimise && data.success)
+			peephole();
+	} // end of pass1
 
-					// obtain tokens to scan according to statement (LET or otherwise)
-
-					final String[] tokensToScan;
-					if (statement.equals(LET)) {
-						final List<Token> infixTokens = InfixToPostfix
-						        .convertToPostfix(line.split("=")[1]);
-						infixTokens.removeIf(Token::isOperatorOrParenthesis);
-
-						tokensToScan = new String[infixTokens.size()];
-						int i = 0;
-						for (final Token token : infixTokens) {
-							tokensToScan[i] = token.value;
-							++i;
-						}
-					} else {
-						tokensToScan = new String[tokens.length - 2];
-						System.arraycopy(tokens, 2, tokensToScan, 0, tokensToScan.length);
-					}
+	/*
+	 * Does the same as pass1 for a program that is read one line at a time,
+	 * except that the graph is lowered directly, without converting it to SSA
+	 * form. The code for each statement outside of any block is generated as
+	 * soon as its last line is read, so only the lines of that statement are
+	 * kept, in order to report errors.
+	 */
+	private void compileStream(CompilationData data, String input, boolean pipelined) {
+		reset();
+		lowering.start(builder.graph());
+
+		final List<String> lines     = new ArrayList<>();
+		final int[]        firstLine = { 0 };
+
+		final IRBuilder.ErrorHandler handler = (node, token, e) -> {
+			err("at: %s:%02d:%02d: %s", data.inputFileName, node.lineNumber,
+			        SML_Compiler.find(lines.get(node.lineIndex - firstLine[0]), token), e.getMessage());
+			data.success = false;
+		};
+
+		final boolean stdin     = input.equals("stdin");
+		String        lastLine  = "";
+		int           lineIndex = 0;
+
+		try {
+			final ReadableByteChannel channel = stdin ? Channels.newChannel(inputStream)
+			        : FileChannel.open(Paths.get(input));
 
-					next_token: for (int i = 0, count = tokensToScan.length; i < count; ++i) {
-						final String var = tokensToScan[i];
-						data.variable = var;
-
-						if (SML_Compiler.keywords.contains(var))
-							continue next_token;
-
-						final SymbolType type = SymbolType.typeOf(var);
-
-						// declare constants, assert variables and labels are declared
-						switch (type) {
-						case CONSTANT:
-							if (!constantDeclared(var))
-								declareConstant(var, INT.identifier);
-							break;
-						case VARIABLE:
-							if (!variableDeclared(var))
-								throw new VariableNotDeclaredException(var);
-							break;
-						case LABEL:
-							/*
-							 * because goto instructions may jump to a label further down the
-							 * program, it is not necessary for labels to be declared
-							 */
-							break;
-						default:
-							break;
-						}
+			try (LineReader reader = new LineReader(channel, pipelined)) {
+				for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+					if (line.isBlank())
+						continue;
+
+					lines.add(line);
+					lastLine = line;
+
+					for (final Node node : parser.parse(line, lineIndex++))
+						builder.build(node, handler);
+
+					if (!parser.inBlock()) {
+						lines.clear();
+						firstLine[0] = lineIndex;
 					}
+
+					// the last block may still get more Operations
+					lowering.lower(builder.graph().blocks().size() - 1);
 				}
+			} finally {
+				if (!stdin)
+					channel.close();
+			}
+
+		} catch (final NoSuchFileException e) {
+			err("Couldn't find file: %s", input);
+		} catch (final IOException e) {
+			err("Unexpected error while reading from file: %s", input);
+		}
 
-				// at this point are variables and constants are declared
+		for (final Node node : parser.finish())
+			builder.build(node, handler);
 
-				// statement-specific checks
-				if ((statement == Statement.END) && !blockStack.empty())
-					throw new UnclosedBlockException(blockStack.pop());
+		// errors found after all statements are compiled are reported at the last line
+		data.lineNumber = parser.lineNumber();
+		data.originalLine = lastLine;
 
-				// actually write machine code for each command
-				statement.checkSyntax(line);
-				statement.evaluate(line, this);
+		reportUndeclaredLabels(lowering.finish(), data);
 
-			} // end try (one statement / one line)
-			catch (final CompilerException e) {
-				err("at: %s:%02d:%02d: %s", data.inputFileName, data.lineNumber,
-				        SML_Compiler.find(data), e.getMessage());
-				data.success = false;
-			} catch (final EmptyStackException e1) {
+		if (optimise && data.success)
+			peephole();
+	}
 
-			}
-	} // end of pass1
+	/* the jumps that weren't completed go to labels that were never declared */
+	private void reportUndeclaredLabels(List<Integer> labels, CompilationData data) {
+		for (final int label : labels) {
+			final String            symbol = symbolTable.symbol(label);
+			final CompilerException e      = new LabelNotDeclaredException(symbol);
 
-	private void pass2(CompilationData data) {
-		for (final Entry<Integer, String> entry : labelFlags.entrySet()) {
+			err("at: %s:%02d:%02d: %s", data.inputFileName, data.lineNumber,
+			        SML_Compiler.find(data.originalLine, symbol), e.getMessage());
+			data.success = false;
+		}
+	}
 
-			final int    instructionAddress = entry.getKey();
-			final String labelToJump        = entry.getValue();
+	/*
+	 * Rewrites the code with a Peephole optimiser, moves it to the start of the
+	 * memory and relocates the labels. Code that overflowed into the data is left
+	 * as it is.
+	 */
+	private void peephole() {
+		final int size = memory.getInstructionCounter();
+		if (size > (memory.getDataCounter() + 1))
+			return;
 
-			try {
-				data.variable = labelToJump;
+		final Peephole peephole  = new Peephole(code());
+		final int[]    optimised = peephole.optimise();
 
-				if (!labelDeclared(labelToJump))
-					throw new LabelNotDeclaredException(labelToJump);
+		for (int i = 0; i < size; ++i)
+			memory.write(i, i < optimised.length ? optimised[i] : 0);
 
-				final int location    = getLabel(labelToJump).location;
-				final int instruction = memory.read(instructionAddress);
-				memory.write(instructionAddress, instruction + location);
+		memory.setInstructionCounter(optimised.length);
+		symbolTable.relocate(LABEL, peephole::address);
+	}
 
-			} catch (final CompilerException e) {
-				err("at: %s:%02d:%02d: %s", data.inputFileName, data.lineNumber,
-				        SML_Compiler.find(data), e.getMessage());
-				data.success = false;
-			}
+	/* compiles every program of the batch and outputs the results in order */
+	private void compileBatch(Requirements requirements) {
+		final String  input   = (String) requirements.getValue("input");
+		final String  output  = (String) requirements.getValue("output");
+		final boolean verbose = (boolean) requirements.getValue("verbose");
+
+		final List<Path> sources;
+		try {
+			sources = BatchCompiler.sources(input);
+		} catch (final IOException e) {
+			err("Couldn't read programs from: %s", input);
+			return;
+		}
+
+		if (verbose)
+			out("Compiling %d programs from: %s", sources.size(), input);
+
+		final Path                       base    = Files.isDirectory(Paths.get(input)) ? Paths.get(input) : null;
+		final List<BatchCompiler.Result> results = new BatchCompiler(requirements, output).compile(sources,
+		        base);
+
+		int failed = 0;
+		for (final BatchCompiler.Result result : results) {
+			outputStream.print(result.out);
+			errorStream.print(result.err);
+
+			if (!result.success())
+				++failed;
+		}
+
+		if (verbose)
+			out("Compiled %d programs: %d succeeded, %d failed", results.size(),
+			        results.size() - failed, failed);
+	}
+
+	// --- 2 methods for incremental compilation ---
+
+	private void saveCheckpoint(int lineIndex, CompilationData data) {
+		final Checkpoint checkpoint = new Checkpoint();
+
+		checkpoint.lineIndex = lineIndex;
+		checkpoint.builderState = builder.save();
+		checkpoint.dataCounter = memory.getDataCounter();
+		checkpoint.symbolCount = symbolTable.size();
+		checkpoint.success = data.success;
+
+		checkpoints.add(checkpoint);
+	}
+
+	/*
+	 * Restores the state right before the last statement outside of any block
+	 * that starts before the first line that is different from the previous
+	 * compilation and returns the index of its line. Statements before it consist
+	 * only of lines that didn't change. If nothing can be reused, 0 is returned
+	 * and the Compiler must be reset.
+	 */
+	private int restoreCheckpoint(List<String> originalLines) {
+		final Lexer lexer = new Lexer();
+
+		int first = 0;
+		for (int count = Math.min(originalLines.size(), previousLines.size()); first < count; ++first) {
+			lexer.lex(originalLines.get(first));
+			if (!lexer.normalised().equals(previousLines.get(first)))
+				break;
+		}
+
+		int last = checkpoints.size() - 1;
+		while ((last >= 0) && (checkpoints.get(last).lineIndex > first))
+			--last;
+
+		if ((last <= 0) || !checkpoints.get(last).success)
+			return 0;
+
+		// the data of the statements before it is lost if the previous code was written over it
+		if (memory.getInstructionCounter() > (memory.getDataCounter() + 1))
+			return 0;
+
+		final Checkpoint checkpoint = checkpoints.get(last);
+
+		for (int i = checkpoint.dataCounter, end = memory.getDataCounter(); i > end; --i)
+			memory.write(i, 0);
+
+		memory.setDataCounter(checkpoint.dataCounter);
+		symbolTable.truncate(checkpoint.symbolCount);
+		builder.restore(checkpoint.builderState);
+
+		checkpoints.subList(last, checkpoints.size()).clear();
+		return checkpoint.lineIndex;
+	}
+
+	// --- 5 methods for caching compiled programs ---
+
+	private static ContentCache<CompiledProgram> cache(String cache) {
+		if (cache.equals("none"))
+			return null;
+
+		synchronized (SML_Compiler.caches) {
+			return SML_Compiler.caches.computeIfAbsent(cache,
+			        c -> new ContentCache<>(SML_Compiler.cacheCapacity, CompiledProgram::size,
+			                c.equals("memory") ? null : new File(c), CompiledProgram.class));
+		}
+	}
+
+	private static String cacheKey(CharSequence program, boolean optimise) {
+		return SML_Compiler.cacheKey(program, optimise, SML_Compiler.cacheVersion, Build.digest);
+	}
+
+	/**
+	 * Returns the key of a program in a cache of compiled programs. Compilation
+	 * only depends on the tokens of each line, not on whitespace or comments, and
+	 * on the Compiler that compiles the program.
+	 *
+	 * @param program  the program
+	 * @param optimise whether the program is optimised
+	 * @param version  the version of the cache
+	 * @param build    the digest of the classes of the Compiler
+	 *
+	 * @return the key
+	 */
+	static String cacheKey(CharSequence program, boolean optimise, int version, String build) {
+		final Lexer           lexer         = new Lexer();
+		final StringBuilder   normalised    = new StringBuilder(program.length());
+		final StringTokenizer lineTokenizer = new StringTokenizer(program.toString(),
+		        System.lineSeparator());
+
+		while (lineTokenizer.hasMoreTokens()) {
+			lexer.lex(lineTokenizer.nextToken());
+			if (lexer.count() > 0)
+				normalised.append(lexer.normalised()).append('\n');
+		}
+
+		return new Digest().add(version).add(build).add(optimise ? 1 : 0)
+		        .add(normalised.toString()).toString();
+	}
+
+	/* the digest of the class files in the directory or the jar where the Compiler was loaded from */
+	private static String classesDigest() {
+		final Digest     digest = new Digest();
+		final CodeSource source = SML_Compiler.class.getProtectionDomain().getCodeSource();
+		if (source == null)
+			return digest.toString();
+
+		try {
+			final Path       location = Paths.get(source.getLocation().toURI());
+			final List<Path> files    = new ArrayList<>();
+
+			if (Files.isDirectory(location))
+				try (Stream<Path> walk = Files.walk(location)) {
+					walk.filter(file -> file.toString().endsWith(".class")).sorted()
+					        .forEach(files::add);
+				}
+			else
+				files.add(location);
+
+			for (final Path file : files)
+				digest.add(location.relativize(file).toString()).add(Files.readAllBytes(file));
+
+		} catch (IOException | URISyntaxException | IllegalArgumentException e) {
+			// the programs of different builds are then only told apart by the version
 		}
+
+		return digest.toString();
+	}
+
+	private CompiledProgram compiledProgram() {
+		final int[] image = new int[memory.size()];
+		for (int i = 0, size = image.length; i < size; ++i)
+			image[i] = memory.read(i);
+
+		return new CompiledProgram(image, symbolTable.toString());
+	}
+
+	private void loadCompiledProgram(CompiledProgram compiledProgram) {
+		// the state of the Compiler doesn't correspond to the image any more
+		reset();
+
+		final int[] image = compiledProgram.image;
+		for (int i = 0, size = image.length; i < size; ++i)
+			memory.write(i, image[i]);
 	}
 
 	// --- 5 methods for input, output and reset ---
@@ -583,7 +1020,7 @@ public class SML_Compiler {
 		errorStream.printf("Compilation Error: %s%n", String.format(format, args));
 	}
 
-	// --- 3 memory wrapper-delegate methods
+	// --- 5 memory wrapper-delegate methods
 
 	/**
 	 * Adds an instruction to the memory.
@@ -608,161 +1045,208 @@ public class SML_Compiler {
 	}
 
 	/**
-	 * <b>Warning:</b> this method is public due to bad design and should not be
-	 * called
-	 * <p>
 	 * Allocates an address for a variable.
 	 *
 	 * @return the address of the variable
 	 */
-	public int addVariable() {
+	int addVariable() {
 		return memory.assignPlaceForVariable();
 	}
 
-	// --- 11 symbolt table wrapper-delegate methods ---
+	/**
+	 * Returns the location in memory where the next instruction will be placed.
+	 *
+	 * @return the location of the next instruction
+	 */
+	int instructionCounter() {
+		return memory.getInstructionCounter();
+	}
+
+	/**
+	 * Returns the instructions that have been added to the memory.
+	 *
+	 * @return a copy of the instructions, in order
+	 */
+	int[] code() {
+		final int[] code = new int[memory.getInstructionCounter()];
+		for (int i = 0; i < code.length; ++i)
+			code[i] = memory.read(i);
+
+		return code;
+	}
+
+	// --- 13 symbolt table wrapper-delegate methods ---
+
+	/**
+	 * Delegate method.
+	 *
+	 * @param symbol the symbol
+	 *
+	 * @return the id of the symbol
+	 *
+	 * @see compiler.symboltable.SymbolTable#intern(String) SymbolTable.intern(String)
+	 */
+	int intern(String symbol) {
+		return symbolTable.intern(symbol);
+	}
 
 	/**
-	 * Declares a variable of a specific {@code varType} for a {@code symbol} by
-	 * allocating an address for it in memory and creating an Entry in the Symbol
-	 * Table.
+	 * Declares a variable of a specific {@code varType} for the symbol with an
+	 * {@code id} by allocating an address for it in memory and creating an Entry
+	 * in the Symbol Table.
 	 *
-	 * @param symbol  the variable's symbol
+	 * @param id      the id of the variable's symbol
 	 * @param varType the variable's varType (int, string etc.)
 	 *
 	 * @return the location of the declared variable in memory
 	 */
-	int declareVariable(String symbol, String varType) {
+	int declareVariable(int id, String varType) {
 		final int location = addVariable();
-		symbolTable.addEntry(symbol, VARIABLE, location, varType);
+		symbolTable.addEntry(id, VARIABLE, location, varType);
 		return location;
 	}
 
 	/**
-	 * Declares a constant of a specific {@code varType} for a {@code symbol} by
-	 * storing it an address for it in memory and creating an Entry in the Symbol
-	 * Table.
+	 * Declares a constant of a specific {@code varType} for the symbol with an
+	 * {@code id} by storing it an address for it in memory and creating an Entry in
+	 * the Symbol Table.
 	 *
-	 * @param symbol  the constant's symbol
+	 * @param id      the id of the constant's symbol
 	 * @param varType the constant's varType (int, string etc.)
 	 *
 	 * @return the location of the declared constant in memory
 	 */
-	int declareConstant(String symbol, String varType) {
-		final int location = addConstant(Integer.parseInt(symbol));
-		symbolTable.addEntry(symbol, CONSTANT, location, varType);
+	int declareConstant(int id, String varType) {
+		final int location = addConstant(Integer.parseInt(symbolTable.symbol(id)));
+		symbolTable.addEntry(id, CONSTANT, location, varType);
 		return location;
 	}
 
 	/**
-	 * Declares a label by creating an Entry in the Symbol Table.
+	 * Returns the Constant with a {@code value}, which is declared if it isn't
+	 * already.
 	 *
-	 * @param symbol the label's symbol
+	 * @param value the value of the Constant
 	 *
-	 * @return the location of the declared label in memory, the location of the
-	 *         first instruction corresponding to this label
+	 * @return the Constant
 	 */
-	int declareLabel(String symbol) {
-		final int location = memory.getInstructionCounter();
-		symbolTable.addEntry(symbol, LABEL, location, "");
-		return location;
+	Constant constant(int value) {
+		final int id = intern(String.valueOf(value));
+
+		if (!constantDeclared(id))
+			declareConstant(id, INT.identifier);
+
+		return new Constant(value, symbolLocation(id));
 	}
 
 	/**
-	 * Delegate method.
+	 * Declares a label by creating an Entry in the Symbol Table. Its location is
+	 * set later, when the first instruction corresponding to this label is placed
+	 * in memory.
 	 *
-	 * @param symbol the symbol
+	 * @param id the id of the label's symbol
 	 *
-	 * @return {@code true} if it exists, {@code false} othewise
+	 * @see #setLabelLocation(int, int)
+	 */
+	void declareLabel(int id) {
+		symbolTable.addEntry(id, LABEL, 0, "");
+	}
+
+	/**
+	 * Sets the location of a declared label in memory, the location of the first
+	 * instruction corresponding to this label.
 	 *
-	 * @see compiler.symboltable.SymbolTable#existsSymbol(String, SymbolType)
-	 *      SymbolTable.existsSymbol(String, VARIABLE)
+	 * @param id       the id of the label's symbol
+	 * @param location the location of the label
 	 */
-	boolean variableDeclared(String symbol) {
-		return symbolTable.existsSymbol(symbol, VARIABLE);
+	void setLabelLocation(int id, int location) {
+		symbolTable.setLocation(id, LABEL, location);
 	}
 
 	/**
 	 * Delegate method.
 	 *
-	 * @param symbol the symbol
+	 * @param id the id of the symbol
 	 *
 	 * @return {@code true} if it exists, {@code false} othewise
 	 *
-	 * @see compiler.symboltable.SymbolTable#existsSymbol(String, SymbolType)
-	 *      SymbolTable.existsSymbol(String, CONSTANT)
+	 * @see compiler.symboltable.SymbolTable#existsSymbol(int, SymbolType)
+	 *      SymbolTable.existsSymbol(int, VARIABLE)
 	 */
-	boolean constantDeclared(String symbol) {
-		return symbolTable.existsSymbol(symbol, CONSTANT);
+	boolean variableDeclared(int id) {
+		return symbolTable.existsSymbol(id, VARIABLE);
 	}
 
 	/**
 	 * Delegate method.
 	 *
-	 * @param symbol the symbol
+	 * @param id the id of the symbol
 	 *
 	 * @return {@code true} if it exists, {@code false} othewise
 	 *
-	 * @see compiler.symboltable.SymbolTable#existsSymbol(String, SymbolType)
-	 *      SymbolTable.existsSymbol(String, LINE)
+	 * @see compiler.symboltable.SymbolTable#existsSymbol(int, SymbolType)
+	 *      SymbolTable.existsSymbol(int, CONSTANT)
 	 */
-	boolean labelDeclared(String symbol) {
-		return symbolTable.existsSymbol(symbol, LABEL);
+	boolean constantDeclared(int id) {
+		return symbolTable.existsSymbol(id, CONSTANT);
 	}
 
 	/**
 	 * Delegate method.
 	 *
-	 * @param symbol the symbol
+	 * @param id the id of the symbol
 	 *
-	 * @return information about the symbol
+	 * @return {@code true} if it exists, {@code false} othewise
 	 *
-	 * @see compiler.symboltable.SymbolTable#getSymbol(String, SymbolType...)
-	 *      SymbolTable.getSymbol(String, VARIABLE)
+	 * @see compiler.symboltable.SymbolTable#existsSymbol(int, SymbolType)
+	 *      SymbolTable.existsSymbol(int, LABEL)
 	 */
-	SymbolInfo getVariable(String symbol) {
-		return symbolTable.getSymbol(symbol, VARIABLE);
+	boolean labelDeclared(int id) {
+		return symbolTable.existsSymbol(id, LABEL);
 	}
 
 	/**
 	 * Delegate method.
 	 *
-	 * @param symbol the symbol
+	 * @param id the id of the symbol
 	 *
-	 * @return information about the symbol
+	 * @return the location of the variable, or {@code SymbolTable.NOT_FOUND}
 	 *
-	 * @see compiler.symboltable.SymbolTable#getSymbol(String, SymbolType...)
-	 *      SymbolTable.getSymbol(String, CONSTANT)
+	 * @see compiler.symboltable.SymbolTable#location(int, SymbolType)
+	 *      SymbolTable.location(int, VARIABLE)
 	 */
-	SymbolInfo getConstant(String symbol) {
-		return symbolTable.getSymbol(symbol, CONSTANT);
+	int variableLocation(int id) {
+		return symbolTable.location(id, VARIABLE);
 	}
 
 	/**
-	 * Delegate method.
+	 * Returns the location of the variable or, if there is no such variable, the
+	 * constant with an {@code id}.
 	 *
-	 * @param symbol the symbol
+	 * @param id the id of the symbol
 	 *
-	 * @return information about the symbol
+	 * @return the location of the symbol, or {@code SymbolTable.NOT_FOUND}
 	 *
-	 * @see compiler.symboltable.SymbolTable#getSymbol(String)
-	 *      SymbolTable.getSymbol(String, LINE)
+	 * @see compiler.symboltable.SymbolTable#location(int, SymbolType)
 	 */
-	SymbolInfo getLabel(String symbol) {
-		return symbolTable.getSymbol(symbol, LABEL);
+	int symbolLocation(int id) {
+		final int location = symbolTable.location(id, VARIABLE);
+		return location != SymbolTable.NOT_FOUND ? location : symbolTable.location(id, CONSTANT);
 	}
 
 	/**
-	 * Delegate method.
+	 * Returns the varType of the variable or, if there is no such variable, the
+	 * constant with an {@code id}.
 	 *
-	 * @param symbol the symbol
+	 * @param id the id of the symbol
 	 *
-	 * @return information about the symbol
+	 * @return the varType of the symbol, or {@code null}
 	 *
-	 * @see compiler.symboltable.SymbolTable#getSymbol(String, SymbolType...)
-	 *      SymbolTable.getSymbol(String, VARIABLE, CONSTANT)
+	 * @see compiler.symboltable.SymbolTable#varType(int, SymbolType)
 	 */
-	SymbolInfo getSymbol(String symbol) {
-		return symbolTable.getSymbol(symbol, VARIABLE, CONSTANT);
+	String symbolVarType(int id) {
+		final String varType = symbolTable.varType(id, VARIABLE);
+		return varType != null ? varType : symbolTable.varType(id, CONSTANT);
 	}
 
 	/**
@@ -775,7 +1259,7 @@ public class SML_Compiler {
 		return symbolTable;
 	}
 
-	// --- 2 methods for handling branch instructions ---
+	// --- 1 method for handling branch instructions ---
 
 	/**
 	 * Sets the {@code address} in memory where the a branch instruction will jump
@@ -788,59 +1272,9 @@ public class SML_Compiler {
 		memory.write(location, memory.read(location) + address);
 	}
 
-	/**
-	 * Sets the {@code label} in the high-level-program where the a branch
-	 * instruction will jump to. The instruction is located at the {@code location}
-	 * in memory. This method does NOT complete the actual branch instruction. It
-	 * acts merely marks the label so that later, when the address of that label in
-	 * the machine code is known, the branch instruction can be completed.
-	 *
-	 * @param location    the address of the instruction.
-	 * @param labelToJump the label to jump
-	 */
-	void setLabelToJump(int location, String labelToJump) {
-		labelFlags.put(location, labelToJump);
-	}
-
-	// --- 2 method for handling the stack of blocks ---
-
-	/**
-	 * Pushes a new {@code Block} to the stack.
-	 *
-	 * @param block the block
-	 */
-	void pushBlock(Block block) {
-		blockStack.push(block);
-	}
-
-	/**
-	 * Retrieves the most recently added {@code Block} from the stack.
-	 *
-	 * @return the block
-	 *
-	 * @throws EmptyStackException if the stack of Blocks is empty
-	 */
-	Block popBlock() {
-		return blockStack.pop();
-	}
-
-	// --- 3 methods for defining variables, constants and labels ---
-
-	private static boolean isVariableName(String var) {
-		return (SymbolType.typeOf(var) == VARIABLE) && !SML_Compiler.keywords.contains(var);
-	}
-
-	private static boolean isLabelName(String var) {
-		return (SymbolType.typeOf(var) == LABEL) && !SML_Compiler.keywords.contains(var);
-	}
-
-	private static boolean isLine(String con) {
-		return con.matches("\\d+");
-	}
-
 	// --- idk really ---
 
-	private static int find(CompilationData data) {
-		return data.originalLine.indexOf(data.variable, 2);
+	private static int find(String line, String token) {
+		return line.indexOf(token, 2);
 	}
 }
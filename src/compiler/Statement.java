@@ -1,31 +1,40 @@
 package compiler;
 
-import java.util.EmptyStackException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-
-import compiler.blocks.Block;
-import compiler.blocks.IfBlock;
-import compiler.blocks.WhileBlock;
+import java.util.Stack;
+
+import compiler.ast.BinaryExpression;
+import compiler.ast.Comparison;
+import compiler.ast.Declare;
+import compiler.ast.Dump;
+import compiler.ast.End;
+import compiler.ast.Expression;
+import compiler.ast.Goto;
+import compiler.ast.If;
+import compiler.ast.IfGoto;
+import compiler.ast.Input;
+import compiler.ast.Label;
+import compiler.ast.Let;
+import compiler.ast.Node;
+import compiler.ast.Noop;
+import compiler.ast.Print;
+import compiler.ast.Symbol;
+import compiler.ast.While;
 import compiler.exceptions.CompilerException;
-import compiler.exceptions.InvalidConditionException;
 import compiler.exceptions.InvalidStatementException;
-import compiler.exceptions.NoBlockException;
 import compiler.exceptions.UnexpectedTokenException;
 import compiler.postfix.InfixToPostfix;
-import compiler.postfix.PostfixEvaluator;
 import compiler.postfix.Token;
-import compiler.symboltable.SymbolInfo;
-import compiler.symboltable.SymbolTable;
 import compiler.symboltable.SymbolType;
-import runtime.Instruction;
 
 /**
  * A collection of the different statements that are supported by the high-level
  * language. Each statement checks a line of high-level code for its syntax and
- * also evaluates it assuming both that it is syntactically correct and that all
- * variables and constants are correctly declared.
+ * also parses it to the {@link Node} of the abstract syntax tree that
+ * represents it.
  *
  * @author Alex Mandelias
  */
@@ -34,567 +43,167 @@ enum Statement {
 	/** Comment */
 	COMMENT("//", -1, false) {
 		@Override
-		public void evaluate(String line, SML_Compiler compiler) throws CompilerException {
-
-		}
-
-		@Override
-		public void checkSyntax(String line) throws CompilerException {
-
+		public Node parse(Lexer tokens, int lineNumber, int lineIndex) throws CompilerException {
+			return null;
 		}
 	},
 
 	/** Declaration of integer variables */
 	INT("int", -1, true) {
 		@Override
-		public void evaluate(String line, SML_Compiler compiler) throws CompilerException {
-			for (String var : vars(line))
-				compiler.declareVariable(var, identifier);
-		}
-
-		@Override
-		public void checkSyntax(String line) throws CompilerException {
-			for (String var : vars(line))
-				SymbolType.assertType(var, SymbolType.VARIABLE);
-		}
+		public Node parse(Lexer tokens, int lineNumber, int lineIndex) throws CompilerException {
+			for (int i = 2, count = tokens.count(); i < count; ++i)
+				SymbolType.assertType(tokens.value(i), tokens.type(i), SymbolType.VARIABLE);
 
-		private String[] vars(String line) {
-			String[] tokens = line.split(" ");
-			String[] vars   = new String[tokens.length - 2];
-			System.arraycopy(tokens, 2, vars, 0, vars.length);
-			return vars;
+			return new Declare(lineNumber, lineIndex, Statement.symbols(tokens, 2));
 		}
 	},
 
 	/** Prompt the user for input */
 	INPUT("input", -1, false) {
 		@Override
-		public void evaluate(String line, SML_Compiler compiler) throws CompilerException {
-			for (final String var : vars(line)) {
-				final int location = compiler.getVariable(var).location;
-				compiler.addInstruction(Instruction.READ_INT.opcode() + location);
-			}
-		}
-
-		@Override
-		public void checkSyntax(String line) throws CompilerException {
-			for (String var : vars(line))
-				SymbolType.assertType(var, SymbolType.VARIABLE);
-		}
+		public Node parse(Lexer tokens, int lineNumber, int lineIndex) throws CompilerException {
+			for (int i = 2, count = tokens.count(); i < count; ++i)
+				SymbolType.assertType(tokens.value(i), tokens.type(i), SymbolType.VARIABLE);
 
-		public String[] vars(String line) {
-			String[] tokens = line.split(" ");
-			String[] vars   = new String[tokens.length - 2];
-			System.arraycopy(tokens, 2, vars, 0, vars.length);
-			return vars;
+			return new Input(lineNumber, lineIndex, Statement.symbols(tokens, 2));
 		}
 	},
 
 	/** Evaluate an expression and assign to variable */
 	LET("let", -1, false) {
 		@Override
-		public void evaluate(String line, SML_Compiler compiler) throws CompilerException {
-			// generate postfix
-			final String      infix   = infix(line);
-			final List<Token> postfix = InfixToPostfix.convertToPostfix(infix);
-			final SymbolTable symbolTable = compiler.getSymbolTable();
-			final List<Integer> instructions = PostfixEvaluator.evaluatePostfix(postfix,
-					symbolTable, compiler);
-
-			// write instructions for evaluating postfix
-			for (final int instruction : instructions)
-				compiler.addInstruction(instruction);
-
-			// store result of postfix that is loaded after the last instruction of evaluation
-			final String var   = var(line);
-			final int location = compiler.getVariable(var).location;
-
-			compiler.addInstruction(Instruction.STORE.opcode() + location);
-		}
-
-		@Override
-		public void checkSyntax(String line) throws CompilerException {
-			String[] tokens = line.split(" ");
+		public Node parse(Lexer tokens, int lineNumber, int lineIndex) throws CompilerException {
+			if (tokens.count() < 5)
+				throw new UnexpectedTokenException("", "more tokens");
 
-			SymbolType.assertType(tokens[2], SymbolType.VARIABLE);
+			SymbolType.assertType(tokens.value(2), tokens.type(2), SymbolType.VARIABLE);
 
-			if (!tokens[3].equals("="))
-				throw new UnexpectedTokenException(tokens[3], "'='");
+			if (!tokens.value(3).equals("="))
+				throw new UnexpectedTokenException(tokens.value(3), "'='");
 
-			final List<Token> postfix = InfixToPostfix.convertToPostfix(infix(line));
+			for (int i = 4, count = tokens.count(); i < count; ++i) {
+				if (tokens.kind(i) == Lexer.Kind.KEYWORD)
+					throw new UnexpectedTokenException(tokens.value(i), "an expression");
 
-			for (Token token : postfix) {
-				if (!token.isOperatorOrParenthesis())
-					SymbolType.assertTypeNot(token.value, SymbolType.LABEL);
+				SymbolType.assertTypeNot(tokens.value(i), tokens.type(i), SymbolType.LABEL);
 			}
-		}
 
-		private String var(String line) {
-			return line.split(" ")[2];
-		}
-
-		private String infix(String line) {
-			return line.split("=")[1];
+			return new Let(lineNumber, lineIndex, Statement.symbol(tokens, 2),
+			        Statement.expression(tokens, 4));
 		}
 	},
 
 	/** Print the value of a variable to the screen */
 	PRINT("print", -1, false) {
 		@Override
-		public void evaluate(String line, SML_Compiler compiler) throws CompilerException {
-			for (final String var : vars(line)) {
-				final SymbolInfo info = compiler.getSymbol(var);
-
-				final String varType  = info.varType;
-				final int    location = info.location;
-
-				if (varType.equals(INT.identifier))
-					compiler.addInstruction(Instruction.WRITE_NL.opcode() + location);
-			}
-		}
-
-		@Override
-		public void checkSyntax(String line) throws CompilerException {
-			for (String var : vars(line))
-				SymbolType.assertTypeNot(var, SymbolType.LABEL);
-		}
+		public Node parse(Lexer tokens, int lineNumber, int lineIndex) throws CompilerException {
+			for (int i = 2, count = tokens.count(); i < count; ++i)
+				Statement.assertOperand(tokens, i);
 
-		private String[] vars(String line) {
-			String[] tokens = line.split(" ");
-			String[] vars   = new String[tokens.length - 2];
-			System.arraycopy(tokens, 2, vars, 0, vars.length);
-			return vars;
+			return new Print(lineNumber, lineIndex, Statement.symbols(tokens, 2));
 		}
 	},
 
 	/** Define a label (location to jump to) */
 	LABEL("label", 3, true) {
 		@Override
-		public void evaluate(String line, SML_Compiler compiler) throws CompilerException {
-			compiler.declareLabel(labelToJump(line));
-		}
+		public Node parse(Lexer tokens, int lineNumber, int lineIndex) throws CompilerException {
+			SymbolType.assertType(tokens.value(2), tokens.type(2), SymbolType.LABEL);
 
-		@Override
-		public void checkSyntax(String line) throws CompilerException {
-			SymbolType.assertType(labelToJump(line), SymbolType.LABEL);
-		}
-
-		private String labelToJump(String line) {
-			return line.split(" ")[2];
+			return new Label(lineNumber, lineIndex, Statement.symbol(tokens, 2));
 		}
 	},
 
 	/** Unconditional jump to line */
 	GOTO("goto", 3, false) {
 		@Override
-		public void evaluate(String line, SML_Compiler compiler) throws CompilerException {
-			final int location = compiler.addInstruction(Instruction.BRANCH.opcode());
-			final String labelToJump = labelToJump(line);
-
-			compiler.setLabelToJump(location, labelToJump);
-		}
-
-		@Override
-		public void checkSyntax(String line) throws CompilerException {
-			SymbolType.assertType(labelToJump(line), SymbolType.LABEL);
-		}
+		public Node parse(Lexer tokens, int lineNumber, int lineIndex) throws CompilerException {
+			SymbolType.assertType(tokens.value(2), tokens.type(2), SymbolType.LABEL);
 
-		private String labelToJump(String line) {
-			return line.split(" ")[2];
+			return new Goto(lineNumber, lineIndex, Statement.symbol(tokens, 2));
 		}
 	},
 
 	/** Conditional jump to line */
 	IFGOTO("ifg", 7, false) {
 		@Override
-		public void evaluate(String line, SML_Compiler compiler) throws CompilerException {
+		public Node parse(Lexer tokens, int lineNumber, int lineIndex) throws CompilerException {
+			Statement.assertOperand(tokens, 2);
+			Statement.assertOperand(tokens, 4);
+			SymbolType.assertType(tokens.value(6), tokens.type(6), SymbolType.LABEL);
 
-			int       loc1, loc2;
-			Condition condition;
-			String labelToJump;
+			final Comparison comparison = Statement.comparison(tokens);
 
-			loc1 = compiler.getSymbol(op1(line)).location;
-
-			try {
-				condition = Condition.of(condition(line));
-			} catch (InvalidConditionException e) {
-				// checkSyntax was called, this should never throw
-				throw new RuntimeException(e);
-			}
-
-			loc2 = compiler.getSymbol(op2(line)).location;
-
-			labelToJump = labelToJump(line);
-
-			int location;
-			switch (condition) {
-			case LT:
-				compiler.addInstruction(Instruction.LOAD.opcode() + loc1);
-				compiler.addInstruction(Instruction.SUBTRACT.opcode() + loc2);
-				location = compiler.addInstruction(Instruction.BRANCHNEG.opcode());
-				compiler.setLabelToJump(location, labelToJump);
-				break;
-			case GT:
-				compiler.addInstruction(Instruction.LOAD.opcode() + loc2);
-				compiler.addInstruction(Instruction.SUBTRACT.opcode() + loc1);
-				location = compiler.addInstruction(Instruction.BRANCHNEG.opcode());
-				compiler.setLabelToJump(location, labelToJump);
-				break;
-			case LE:
-				compiler.addInstruction(Instruction.LOAD.opcode() + loc1);
-				compiler.addInstruction(Instruction.SUBTRACT.opcode() + loc2);
-				location = compiler.addInstruction(Instruction.BRANCHNEG.opcode());
-				compiler.setLabelToJump(location, labelToJump);
-				location = compiler.addInstruction(Instruction.BRANCHZERO.opcode());
-				compiler.setLabelToJump(location, labelToJump);
-				break;
-			case GE:
-				compiler.addInstruction(Instruction.LOAD.opcode() + loc2);
-				compiler.addInstruction(Instruction.SUBTRACT.opcode() + loc1);
-				location = compiler.addInstruction(Instruction.BRANCHNEG.opcode());
-				compiler.setLabelToJump(location, labelToJump);
-				location = compiler.addInstruction(Instruction.BRANCHZERO.opcode());
-				compiler.setLabelToJump(location, labelToJump);
-				break;
-			case EQ:
-				compiler.addInstruction(Instruction.LOAD.opcode() + loc1);
-				compiler.addInstruction(Instruction.SUBTRACT.opcode() + loc2);
-				location = compiler.addInstruction(Instruction.BRANCHZERO.opcode());
-				compiler.setLabelToJump(location, labelToJump);
-				break;
-			case NE:
-				compiler.addInstruction(Instruction.LOAD.opcode() + loc1);
-				compiler.addInstruction(Instruction.SUBTRACT.opcode() + loc2);
-				location = compiler.addInstruction(Instruction.BRANCHZERO.opcode());
-				compiler.setLabelToJump(location, labelToJump);
-				location = compiler.addInstruction(Instruction.BRANCH.opcode());
-				compiler.setLabelToJump(location, labelToJump);
-				break;
-			default:
-				break;
-			}
-		}
-
-		@Override
-		public void checkSyntax(String line) throws CompilerException {
-			SymbolType.assertTypeNot(op1(line), SymbolType.LABEL);
-			SymbolType.assertTypeNot(op2(line), SymbolType.LABEL);
-			SymbolType.assertType(labelToJump(line), SymbolType.LABEL);
-			Condition.of(condition(line));
-
-			String jumpto = line.split(" ")[5];
+			String jumpto = tokens.value(5);
 			if (!jumpto.equals("jumpto"))
 				throw new UnexpectedTokenException(jumpto, "jumpto");
-		}
 
-		private String op1(String line) {
-			return line.split(" ")[2];
-		}
-
-		private String condition(String line) {
-			return line.split(" ")[3];
-		}
-
-		private String op2(String line) {
-			return line.split(" ")[4];
-		}
-
-		private String labelToJump(String line) {
-			return line.split(" ")[6];
+			return new IfGoto(lineNumber, lineIndex, comparison, Statement.symbol(tokens, 6));
 		}
 	},
 
 	/** Beginning of {@code if} block */
 	IF("if", 5, false) {
 		@Override
-		public void evaluate(String line, SML_Compiler compiler) throws CompilerException {
-
-			final IfBlock block = new IfBlock();
-
-			int       loc1, loc2;
-			Condition condition;
-
-			loc1 = compiler.getSymbol(op1(line)).location;
-
-			try {
-				condition = Condition.of(condition(line));
-			} catch (InvalidConditionException e) {
-				// checkSyntax was called, this should never throw
-				throw new RuntimeException(e);
-			}
-
-			loc2 = compiler.getSymbol(op2(line)).location;
-
-			int location = 0;
-			switch (condition) {
-			case LT:
-				compiler.addInstruction(Instruction.LOAD.opcode() + loc1);
-				location = compiler.addInstruction(Instruction.SUBTRACT.opcode() + loc2);
-				compiler.addInstruction(Instruction.BRANCHNEG.opcode() + location + 3);
-				location = compiler.addInstruction(Instruction.BRANCH.opcode());
-				break;
-			case GT:
-				compiler.addInstruction(Instruction.LOAD.opcode() + loc2);
-				location = compiler.addInstruction(Instruction.SUBTRACT.opcode() + loc1);
-				compiler.addInstruction(Instruction.BRANCHNEG.opcode() + location + 3);
-				location = compiler.addInstruction(Instruction.BRANCH.opcode());
-				break;
-			case LE:
-				compiler.addInstruction(Instruction.LOAD.opcode() + loc2);
-				compiler.addInstruction(Instruction.SUBTRACT.opcode() + loc1);
-				location = compiler.addInstruction(Instruction.BRANCHNEG.opcode());
-				break;
-			case GE:
-				compiler.addInstruction(Instruction.LOAD.opcode() + loc1);
-				compiler.addInstruction(Instruction.SUBTRACT.opcode() + loc2);
-				location = compiler.addInstruction(Instruction.BRANCHNEG.opcode());
-				break;
-			case EQ:
-				compiler.addInstruction(Instruction.LOAD.opcode() + loc1);
-				location = compiler.addInstruction(Instruction.SUBTRACT.opcode() + loc2);
-				compiler.addInstruction(Instruction.BRANCHZERO.opcode() + location + 3);
-				location = compiler.addInstruction(Instruction.BRANCH.opcode());
-				break;
-			case NE:
-				compiler.addInstruction(Instruction.LOAD.opcode() + loc1);
-				compiler.addInstruction(Instruction.SUBTRACT.opcode() + loc2);
-				location = compiler.addInstruction(Instruction.BRANCHZERO.opcode());
-				break;
-			default:
-				break;
-			}
-			block.locationOfBranchToEndOfBlock = location;
-			compiler.pushBlock(block);
-		}
-
-		@Override
-		public void checkSyntax(String line) throws CompilerException {
-			SymbolType.assertTypeNot(op1(line), SymbolType.LABEL);
-			SymbolType.assertTypeNot(op2(line), SymbolType.LABEL);
-			Condition.of(condition(line));
-		}
-
-		private String op1(String line) {
-			return line.split(" ")[2];
-		}
-
-		private String condition(String line) {
-			return line.split(" ")[3];
-		}
-
-		private String op2(String line) {
-			return line.split(" ")[4];
+		public Node parse(Lexer tokens, int lineNumber, int lineIndex) throws CompilerException {
+			return new If(lineNumber, lineIndex, Statement.comparison(tokens));
 		}
 	},
 
 	/** Beginning of {@code else} block and end of {@code if} block */
 	ELSE("else", 2, false) {
 		@Override
-		public void evaluate(String line, SML_Compiler compiler) throws CompilerException {
-			final IfBlock oldBlock;
-			try {
-				oldBlock = (IfBlock) compiler.popBlock();
-			} catch (ClassCastException e) {
-				throw new NoBlockException(new IfBlock());
-
-			} catch (EmptyStackException e) {
-				throw new NoBlockException(new IfBlock());
-			}
-
-			final int locationOfBranchToEnd = oldBlock.locationOfBranchToEndOfBlock;
-			final int locationOfEnd         = compiler.addInstruction(Instruction.BRANCH.opcode());
-
-			final Block block = new IfBlock();
-			block.locationOfBranchToEndOfBlock = locationOfEnd;
-			compiler.pushBlock(block);
-
-			compiler.setBranchLocation(locationOfBranchToEnd, locationOfEnd + 1);
-		}
-
-		@Override
-		public void checkSyntax(String line) throws CompilerException {
-
+		public Node parse(Lexer tokens, int lineNumber, int lineIndex) throws CompilerException {
+			return null;
 		}
 	},
 
 	/** End of {@code if} or {@code else} block */
 	ENDIF("endif", 2, false) {
 		@Override
-		public void evaluate(String line, SML_Compiler compiler) throws CompilerException {
-
-			final IfBlock block;
-			try {
-				block = (IfBlock) compiler.popBlock();
-			} catch (ClassCastException e) {
-				throw new NoBlockException(new IfBlock());
-
-			} catch (EmptyStackException e) {
-				throw new NoBlockException(new IfBlock());
-			}
-
-			final int     locationOfBranchToEnd = block.locationOfBranchToEndOfBlock;
-
-			// dummy command just to get the location of endif
-			final int locationOfEnd = compiler.addInstruction(Instruction.NOOP.opcode());
-			compiler.setBranchLocation(locationOfBranchToEnd, locationOfEnd + 1);
-		}
-
-		@Override
-		public void checkSyntax(String line) throws CompilerException {
-
+		public Node parse(Lexer tokens, int lineNumber, int lineIndex) throws CompilerException {
+			return null;
 		}
 	},
 
 	/** Start of {@code while} block */
 	WHILE("while", 5, false) {
 		@Override
-		public void evaluate(String line, SML_Compiler compiler) throws CompilerException {
-
-			final WhileBlock block = new WhileBlock();
-
-			int       loc1, loc2;
-			Condition condition;
-
-			loc1 = compiler.getSymbol(op1(line)).location;
-
-			try {
-				condition = Condition.of(condition(line));
-			} catch (InvalidConditionException e) {
-				// checkSyntax was called, this should never throw
-				throw new RuntimeException(e);
-			}
-
-			loc2 = compiler.getSymbol(op2(line)).location;
-
-			int start    = 0;
-			int location = 0;
-			switch (condition) {
-			case LT:
-				start = compiler.addInstruction(Instruction.LOAD.opcode() + loc1);
-				location = compiler.addInstruction(Instruction.SUBTRACT.opcode() + loc2);
-				compiler.addInstruction(Instruction.BRANCHNEG.opcode() + location + 3);
-				location = compiler.addInstruction(Instruction.BRANCH.opcode());
-				break;
-			case GT:
-				start = compiler.addInstruction(Instruction.LOAD.opcode() + loc2);
-				location = compiler.addInstruction(Instruction.SUBTRACT.opcode() + loc1);
-				compiler.addInstruction(Instruction.BRANCHNEG.opcode() + location + 3);
-				location = compiler.addInstruction(Instruction.BRANCH.opcode());
-				break;
-			case LE:
-				start = compiler.addInstruction(Instruction.LOAD.opcode() + loc2);
-				compiler.addInstruction(Instruction.SUBTRACT.opcode() + loc1);
-				location = compiler.addInstruction(Instruction.BRANCHNEG.opcode());
-				break;
-			case GE:
-				start = compiler.addInstruction(Instruction.LOAD.opcode() + loc1);
-				compiler.addInstruction(Instruction.SUBTRACT.opcode() + loc2);
-				location = compiler.addInstruction(Instruction.BRANCHNEG.opcode());
-				break;
-			case EQ:
-				start = compiler.addInstruction(Instruction.LOAD.opcode() + loc1);
-				location = compiler.addInstruction(Instruction.SUBTRACT.opcode() + loc2);
-				compiler.addInstruction(Instruction.BRANCHZERO.opcode() + location + 3);
-				location = compiler.addInstruction(Instruction.BRANCH.opcode());
-				break;
-			case NE:
-				start = compiler.addInstruction(Instruction.LOAD.opcode() + loc1);
-				compiler.addInstruction(Instruction.SUBTRACT.opcode() + loc2);
-				location = compiler.addInstruction(Instruction.BRANCHZERO.opcode());
-				break;
-			default:
-				break;
-			}
-			block.locationOfFirstInstruction = start;
-			block.locationOfBranchToEndOfBlock = location;
-			compiler.pushBlock(block);
-		}
-
-		@Override
-		public void checkSyntax(String line) throws CompilerException {
-			SymbolType.assertTypeNot(op1(line), SymbolType.LABEL);
-			SymbolType.assertTypeNot(op2(line), SymbolType.LABEL);
-			Condition.of(condition(line));
-		}
-
-		private String op1(String line) {
-			return line.split(" ")[2];
-		}
-
-		private String condition(String line) {
-			return line.split(" ")[3];
-		}
-
-		private String op2(String line) {
-			return line.split(" ")[4];
+		public Node parse(Lexer tokens, int lineNumber, int lineIndex) throws CompilerException {
+			return new While(lineNumber, lineIndex, Statement.comparison(tokens));
 		}
 	},
 
 	/** End of while block */
 	ENDWHILE("endwhile", 2, false) {
 		@Override
-		public void evaluate(String line, SML_Compiler compiler) throws CompilerException {
-
-			final WhileBlock block;
-			try {
-				block = (WhileBlock) compiler.popBlock();
-			} catch (ClassCastException e) {
-				throw new NoBlockException(new WhileBlock());
-
-			} catch (EmptyStackException e) {
-				throw new NoBlockException(new WhileBlock());
-			}
-
-			final int whileStartLocation = block.locationOfFirstInstruction;
-			final int whileEndLocation = compiler.addInstruction(Instruction.BRANCH.opcode() + whileStartLocation);
-
-
-			final int locationOfBranchToEnd = block.locationOfBranchToEndOfBlock;
-			compiler.setBranchLocation(locationOfBranchToEnd, whileEndLocation + 1);
-		}
-
-		@Override
-		public void checkSyntax(String line) throws CompilerException {
-
+		public Node parse(Lexer tokens, int lineNumber, int lineIndex) throws CompilerException {
+			return null;
 		}
 	},
 
 	/** End of program */
 	END("end", 2, false) {
 		@Override
-		public void evaluate(String line, SML_Compiler compiler) throws CompilerException {
-			compiler.addInstruction(Instruction.HALT.opcode());
-		}
-
-		@Override
-		public void checkSyntax(String line) throws CompilerException {
-
+		public Node parse(Lexer tokens, int lineNumber, int lineIndex) throws CompilerException {
+			return new End(lineNumber, lineIndex);
 		}
 	},
 
 	/** No-operation */
 	NOOP("noop", 2, false) {
 		@Override
-		public void evaluate(String line, SML_Compiler compiler) throws CompilerException {
-			compiler.addInstruction(Instruction.NOOP.opcode());
-		}
-
-		@Override
-		public void checkSyntax(String line) throws CompilerException {
-
+		public Node parse(Lexer tokens, int lineNumber, int lineIndex) throws CompilerException {
+			return new Noop(lineNumber, lineIndex);
 		}
 	},
 
 	/** Dump memory contents to screen */
 	DUMP("dump", 2, false) {
 		@Override
-		public void evaluate(String line, SML_Compiler compiler) throws CompilerException {
-			compiler.addInstruction(Instruction.DUMP.opcode());
-		}
-
-		@Override
-		public void checkSyntax(String line) throws CompilerException {
-
+		public Node parse(Lexer tokens, int lineNumber, int lineIndex) throws CompilerException {
+			return new Dump(lineNumber, lineIndex);
 		}
 	};
 
@@ -625,25 +234,22 @@ enum Statement {
 	}
 
 	/**
-	 * Uses an {@code SML_Compiler} to generate machine code for a line of
-	 * high-level code for the {@code compiler}.
+	 * Checks if the syntax of the line, given as its {@code tokens}, is correct for
+	 * this Statement and returns the {@code Node} that represents it. The Nodes of
+	 * {@code if} and {@code while} statements don't contain any statements yet.
+	 * Statements that only end blocks and comments don't have a Node and
+	 * {@code null} is returned for them instead.
 	 *
-	 * @param line     a line of high-level code
-	 * @param compiler the compiler for which to generate machine code
-	 * @throws CompilerException TODO
-	 */
-	public abstract void evaluate(String line, SML_Compiler compiler) throws CompilerException;
-
-	/**
-	 * Checks if the syntax of the {@code line} is correct for this Statement. This
-	 * method should be called before the {@code evaluate} method since it assumes
-	 * that the syntax is correct.
+	 * @param tokens     the tokens of the line of high-level-language code
+	 * @param lineNumber the line number of the line
+	 * @param lineIndex  the index of the line in the program
 	 *
-	 * @param line the line of high-level-language code
+	 * @return the Node, or {@code null} if this Statement doesn't have one
 	 *
 	 * @throws CompilerException if the syntax is not correct
 	 */
-	public abstract void checkSyntax(String line) throws CompilerException;
+	public abstract Node parse(Lexer tokens, int lineNumber, int lineIndex)
+	        throws CompilerException;
 
 	/**
 	 * Returns the {@code Statement} that has the given {@code identifier}.
@@ -664,6 +270,65 @@ enum Statement {
 		return statement;
 	}
 
+	/* operands of Statements are either Variables or Constants */
+	private static void assertOperand(Lexer tokens, int index) throws CompilerException {
+		SymbolType.assertTypeNot(tokens.value(index), tokens.type(index), SymbolType.LABEL);
+
+		if (tokens.type(index) == null)
+			throw new UnexpectedTokenException(tokens.value(index), "a variable or a constant");
+	}
+
+	private static Symbol symbol(Lexer tokens, int index) {
+		return new Symbol(tokens.value(index), tokens.id(index), tokens.type(index));
+	}
+
+	private static List<Symbol> symbols(Lexer tokens, int from) {
+		final List<Symbol> symbols = new ArrayList<>(tokens.count() - from);
+		for (int i = from, count = tokens.count(); i < count; ++i)
+			symbols.add(Statement.symbol(tokens, i));
+
+		return symbols;
+	}
+
+	/* the Comparison of the operands at indexes 2 and 4 with the condition at 3 */
+	private static Comparison comparison(Lexer tokens) throws CompilerException {
+		Statement.assertOperand(tokens, 2);
+		Statement.assertOperand(tokens, 4);
+
+		return new Comparison(Statement.symbol(tokens, 2), Condition.of(tokens.value(3)),
+		        Statement.symbol(tokens, 4));
+	}
+
+	/*
+	 * Builds the tree of the expression that starts at an index. The operands
+	 * appear in the postfix expression in the same order as in the line, so they
+	 * are matched to the Symbols of the line in that order.
+	 */
+	private static Expression expression(Lexer tokens, int from) throws UnexpectedTokenException {
+		final List<Token>  infix    = new ArrayList<>(tokens.count() - from);
+		final List<Symbol> operands = new ArrayList<>();
+		for (int i = from, count = tokens.count(); i < count; ++i) {
+			final Token token = Token.of(tokens.value(i));
+			infix.add(token);
+
+			if (!token.isOperatorOrParenthesis())
+				operands.add(Statement.symbol(tokens, i));
+		}
+
+		final Stack<Expression> stack = new Stack<>();
+		int                     next  = 0;
+
+		for (final Token token : InfixToPostfix.convertToPostfix(infix))
+			if (token.isOperator()) {
+				final Expression right = stack.pop();
+				final Expression left  = stack.pop();
+				stack.push(new BinaryExpression(token, left, right));
+			} else
+				stack.push(operands.get(next++));
+
+		return stack.pop();
+	}
+
 	Statement(String identifier, int length, boolean isConstructor) {
 		this.identifier = identifier;
 		this.length = length;
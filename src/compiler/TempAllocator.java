@@ -0,0 +1,181 @@
+package compiler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import compiler.ir.BasicBlock;
+import compiler.ir.Operand;
+import compiler.ir.Operation;
+import compiler.ir.Temp;
+import compiler.ir.Terminator;
+
+/**
+ * Allocates the locations of {@link Temp Temporaries} from a pool of locations
+ * of an {@code SML_Compiler}, so that a location is reused as soon as the value
+ * of its Temporary is no longer needed, instead of allocating a new location
+ * for every Temporary. Therefore the number of locations is the largest number
+ * of Temporaries whose values are needed at the same time, which is usually
+ * the depth of the deepest expression of the program.
+ * <p>
+ * The Temporaries whose values are needed at the same time are found by
+ * computing which Temporaries are live at the end of each block, iterating
+ * backwards until nothing changes, and then walking backwards through the
+ * Operations of each block. Two such Temporaries interfere and get different
+ * locations, which are assigned greedily, in the order the Temporaries are
+ * assigned in the program.
+ * <p>
+ * Blocks are allocated in groups, for example the blocks that are lowered
+ * together, and the locations of the pool are shared by all groups. The values
+ * of the Temporaries of a group must not be needed after it.
+ *
+ * @author Alex Mandelias
+ */
+final class TempAllocator {
+
+	private final SML_Compiler  compiler;
+	private final List<Integer> pool;
+
+	/**
+	 * Constructs an Allocator with an empty pool that allocates locations of a
+	 * {@code compiler}.
+	 *
+	 * @param compiler the compiler whose locations are allocated
+	 */
+	TempAllocator(SML_Compiler compiler) {
+		this.compiler = compiler;
+		pool = new ArrayList<>();
+	}
+
+	/** Empties the pool, whose locations may no longer be allocated */
+	void clear() {
+		pool.clear();
+	}
+
+	/**
+	 * Sets the location of every Temporary of a group of blocks, apart from the
+	 * ones that are never stored, to a location of the pool, which is extended if
+	 * needed.
+	 *
+	 * @param blocks   the blocks
+	 * @param unstored the Temporaries that don't need a location
+	 */
+	void allocate(List<BasicBlock> blocks, Set<Temp> unstored) {
+		final Map<Temp, Set<Temp>> interference = TempAllocator.interference(blocks);
+		final Map<Temp, Integer>   slots        = new HashMap<>();
+
+		for (final Map.Entry<Temp, Set<Temp>> entry : interference.entrySet()) {
+			if (unstored.contains(entry.getKey()))
+				continue;
+
+			final Set<Integer> taken = new HashSet<>();
+			for (final Temp other : entry.getValue())
+				if (slots.containsKey(other))
+					taken.add(slots.get(other));
+
+			int slot = 0;
+			while (taken.contains(slot))
+				++slot;
+
+			if (slot == pool.size())
+				pool.add(compiler.addVariable());
+
+			slots.put(entry.getKey(), slot);
+			entry.getKey().setLocation(pool.get(slot));
+		}
+	}
+
+	/* the Temporaries that interfere with each Temporary, in the order they are assigned */
+	private static Map<Temp, Set<Temp>> interference(List<BasicBlock> blocks) {
+		final Map<BasicBlock, Set<Temp>> liveOut = TempAllocator.liveOut(blocks);
+		final Map<Temp, Set<Temp>>       graph   = new HashMap<>();
+
+		for (final BasicBlock block : blocks) {
+			final Set<Temp> live = new HashSet<>(liveOut.get(block));
+			TempAllocator.use(block.terminator(), live);
+
+			final List<Operation> operations = block.operations();
+			for (int i = operations.size() - 1; i >= 0; --i) {
+				final Operation operation = operations.get(i);
+
+				if (operation.result() instanceof Temp) {
+					final Temp temp = (Temp) operation.result();
+					live.remove(temp);
+
+					graph.computeIfAbsent(temp, t -> new HashSet<>()).addAll(live);
+					for (final Temp other : live)
+						graph.computeIfAbsent(other, t -> new HashSet<>()).add(temp);
+				}
+
+				TempAllocator.use(operation, live);
+			}
+		}
+
+		// the Temporaries are allocated in the order they are assigned
+		final Map<Temp, Set<Temp>> ordered = new LinkedHashMap<>();
+		for (final BasicBlock block : blocks)
+			for (final Operation operation : block.operations())
+				if (operation.result() instanceof Temp)
+					ordered.put((Temp) operation.result(), graph.get(operation.result()));
+
+		return ordered;
+	}
+
+	/* the Temporaries that are live at the end of each block, none are live after the group */
+	private static Map<BasicBlock, Set<Temp>> liveOut(List<BasicBlock> blocks) {
+		final Map<BasicBlock, Set<Temp>> liveIn  = new HashMap<>();
+		final Map<BasicBlock, Set<Temp>> liveOut = new HashMap<>();
+
+		for (final BasicBlock block : blocks) {
+			liveIn.put(block, new HashSet<>());
+			liveOut.put(block, new HashSet<>());
+		}
+
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+
+			for (int i = blocks.size() - 1; i >= 0; --i) {
+				final BasicBlock block = blocks.get(i);
+				final Set<Temp>  out   = liveOut.get(block);
+
+				for (final BasicBlock successor : block.successors())
+					if (liveIn.containsKey(successor))
+						out.addAll(liveIn.get(successor));
+
+				final Set<Temp> in = new HashSet<>(out);
+				TempAllocator.use(block.terminator(), in);
+
+				final List<Operation> operations = block.operations();
+				for (int j = operations.size() - 1; j >= 0; --j) {
+					in.remove(operations.get(j).result());
+					TempAllocator.use(operations.get(j), in);
+				}
+
+				changed |= liveIn.get(block).addAll(in);
+			}
+		}
+
+		return liveOut;
+	}
+
+	private static void use(Operation operation, Set<Temp> live) {
+		for (int i = 0, count = operation.operandCount(); i < count; ++i)
+			TempAllocator.use(operation.operand(i), live);
+	}
+
+	private static void use(Terminator terminator, Set<Temp> live) {
+		if (terminator != null)
+			for (int i = 0, count = terminator.operandCount(); i < count; ++i)
+				TempAllocator.use(terminator.operand(i), live);
+	}
+
+	private static void use(Operand operand, Set<Temp> live) {
+		if (operand instanceof Temp)
+			live.add((Temp) operand);
+	}
+}
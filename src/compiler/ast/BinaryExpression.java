@@ -0,0 +1,60 @@
+package compiler.ast;
+
+import java.util.Deque;
+import java.util.List;
+
+import compiler.exceptions.CompilerException;
+import compiler.postfix.Token;
+
+/**
+ * An Expression that applies a mathematical operator to two Expressions.
+ *
+ * @author Alex Mandelias
+ */
+public final class BinaryExpression extends Expression {
+
+	/** The operator */
+	public final Token operator;
+
+	/** The left operand */
+	public final Expression left;
+
+	/** The right operand */
+	public final Expression right;
+
+	/**
+	 * Constructs a BinaryExpression.
+	 *
+	 * @param operator the operator
+	 * @param left     the left operand
+	 * @param right    the right operand
+	 */
+	public BinaryExpression(Token operator, Expression left, Expression right) {
+		this.operator = operator;
+		this.left = left;
+		this.right = right;
+	}
+
+	@Override
+	void pushOperands(Deque<Expression> pending, ExpressionVisitor<?> visitor) {
+		final boolean rightFirst = visitor.rightFirst(this);
+
+		pending.push(rightFirst ? right : left);
+		pending.push(rightFirst ? left : right);
+	}
+
+	@Override
+	<R> R visit(ExpressionVisitor<R> visitor, List<R> results) throws CompilerException {
+		// the operand that was visited last is at the end
+		final R last  = results.remove(results.size() - 1);
+		final R first = results.remove(results.size() - 1);
+
+		return visitor.rightFirst(this) ? visitor.visit(this, last, first)
+		        : visitor.visit(this, first, last);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("(%s %s %s)", left, operator, right);
+	}
+}
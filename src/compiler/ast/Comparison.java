@@ -0,0 +1,39 @@
+package compiler.ast;
+
+import compiler.Condition;
+
+/**
+ * The comparison of two Symbols with a {@link Condition}, found in the
+ * statements that jump conditionally.
+ *
+ * @author Alex Mandelias
+ */
+public final class Comparison {
+
+	/** The first operand */
+	public final Symbol op1;
+
+	/** The Condition */
+	public final Condition condition;
+
+	/** The second operand */
+	public final Symbol op2;
+
+	/**
+	 * Constructs a Comparison.
+	 *
+	 * @param op1       the first operand
+	 * @param condition the Condition
+	 * @param op2       the second operand
+	 */
+	public Comparison(Symbol op1, Condition condition, Symbol op2) {
+		this.op1 = op1;
+		this.condition = condition;
+		this.op2 = op2;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s %s %s", op1, condition.value, op2);
+	}
+}
@@ -0,0 +1,33 @@
+package compiler.ast;
+
+import java.util.List;
+
+import compiler.exceptions.CompilerException;
+
+/**
+ * The declaration of integer Variables.
+ *
+ * @author Alex Mandelias
+ */
+public final class Declare extends Node {
+
+	/** The declared Variables */
+	public final List<Symbol> variables;
+
+	/**
+	 * Constructs a Declare Node.
+	 *
+	 * @param lineNumber the line number of the statement
+	 * @param lineIndex  the index of the line of the statement
+	 * @param variables  the declared Variables
+	 */
+	public Declare(int lineNumber, int lineIndex, List<Symbol> variables) {
+		super(lineNumber, lineIndex);
+		this.variables = List.copyOf(variables);
+	}
+
+	@Override
+	public void accept(NodeVisitor visitor) throws CompilerException {
+		visitor.visit(this);
+	}
+}
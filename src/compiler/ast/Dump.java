@@ -0,0 +1,26 @@
+package compiler.ast;
+
+import compiler.exceptions.CompilerException;
+
+/**
+ * A dump of the contents of the memory to the screen.
+ *
+ * @author Alex Mandelias
+ */
+public final class Dump extends Node {
+
+	/**
+	 * Constructs a Dump Node.
+	 *
+	 * @param lineNumber the line number of the statement
+	 * @param lineIndex  the index of the line of the statement
+	 */
+	public Dump(int lineNumber, int lineIndex) {
+		super(lineNumber, lineIndex);
+	}
+
+	@Override
+	public void accept(NodeVisitor visitor) throws CompilerException {
+		visitor.visit(this);
+	}
+}
@@ -0,0 +1,26 @@
+package compiler.ast;
+
+import compiler.exceptions.CompilerException;
+
+/**
+ * The end of the program.
+ *
+ * @author Alex Mandelias
+ */
+public final class End extends Node {
+
+	/**
+	 * Constructs an End Node.
+	 *
+	 * @param lineNumber the line number of the statement
+	 * @param lineIndex  the index of the line of the statement
+	 */
+	public End(int lineNumber, int lineIndex) {
+		super(lineNumber, lineIndex);
+	}
+
+	@Override
+	public void accept(NodeVisitor visitor) throws CompilerException {
+		visitor.visit(this);
+	}
+}
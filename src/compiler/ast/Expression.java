@@ -0,0 +1,76 @@
+package compiler.ast;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import compiler.exceptions.CompilerException;
+
+/**
+ * An arithmetic expression of a {@link Let} statement, represented as a tree
+ * whose leaves are {@link Symbol Symbols} and whose inner nodes are
+ * {@link BinaryExpression BinaryExpressions}.
+ *
+ * @author Alex Mandelias
+ */
+public abstract class Expression {
+
+	/**
+	 * Visits every part of this Expression with a {@code visitor}, each
+	 * BinaryExpression after its operands, and returns the result of visiting
+	 * this Expression. The tree is walked with explicit stacks instead of
+	 * recursion, so that Expressions of any depth can be visited.
+	 *
+	 * @param <R>     the type of the result of the visitor
+	 * @param visitor the visitor
+	 *
+	 * @return the result of the visitor
+	 *
+	 * @throws CompilerException if the visitor throws
+	 */
+	public final <R> R accept(ExpressionVisitor<R> visitor) throws CompilerException {
+
+		// every Expression comes before its operands, the one visited last first
+		final List<Expression>  order   = new ArrayList<>();
+		final Deque<Expression> pending = new ArrayDeque<>();
+
+		pending.push(this);
+		while (!pending.isEmpty()) {
+			final Expression expression = pending.pop();
+			order.add(expression);
+			expression.pushOperands(pending, visitor);
+		}
+
+		// the results of the operands that haven't been passed to their expression
+		final List<R> results = new ArrayList<>();
+		for (int i = order.size() - 1; i >= 0; --i)
+			results.add(order.get(i).visit(visitor, results));
+
+		return results.get(0);
+	}
+
+	/**
+	 * Pushes the operands of this Expression, the one that is visited first
+	 * pushed first.
+	 *
+	 * @param pending the stack of Expressions that haven't been ordered yet
+	 * @param visitor the visitor that decides the order of the operands
+	 */
+	abstract void pushOperands(Deque<Expression> pending, ExpressionVisitor<?> visitor);
+
+	/**
+	 * Calls the method of the {@code visitor} that corresponds to the type of this
+	 * Expression, with the results of its operands, which are removed from the end
+	 * of the {@code results}.
+	 *
+	 * @param <R>     the type of the result of the visitor
+	 * @param visitor the visitor
+	 * @param results the results of the Expressions that were visited
+	 *
+	 * @return the result of the visitor
+	 *
+	 * @throws CompilerException if the visitor throws
+	 */
+	abstract <R> R visit(ExpressionVisitor<R> visitor, List<R> results) throws CompilerException;
+}
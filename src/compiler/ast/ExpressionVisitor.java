@@ -0,0 +1,55 @@
+package compiler.ast;
+
+import compiler.exceptions.CompilerException;
+
+/**
+ * An operation that is performed on every part of an {@link Expression} and
+ * produces a result, with a different method for each type of Expression. The
+ * operands of a {@link BinaryExpression} are visited before it and their
+ * results are passed to it.
+ *
+ * @param <R> the type of the result
+ *
+ * @author Alex Mandelias
+ *
+ * @see Expression#accept(ExpressionVisitor)
+ */
+public interface ExpressionVisitor<R> {
+
+	/**
+	 * Visits a Symbol.
+	 *
+	 * @param symbol the Symbol
+	 *
+	 * @return the result of the operation
+	 *
+	 * @throws CompilerException if the operation fails for the Symbol
+	 */
+	R visit(Symbol symbol) throws CompilerException;
+
+	/**
+	 * Visits a BinaryExpression, after both of its operands were visited.
+	 *
+	 * @param expression the BinaryExpression
+	 * @param left       the result of visiting its left operand
+	 * @param right      the result of visiting its right operand
+	 *
+	 * @return the result of the operation
+	 *
+	 * @throws CompilerException if the operation fails for the BinaryExpression
+	 */
+	R visit(BinaryExpression expression, R left, R right) throws CompilerException;
+
+	/**
+	 * Returns whether the right operand of a BinaryExpression is visited before
+	 * its left operand. By default the operands are visited from left to right.
+	 *
+	 * @param expression the BinaryExpression
+	 *
+	 * @return {@code true} if the right operand is visited first, {@code false}
+	 *         otherwise
+	 */
+	default boolean rightFirst(BinaryExpression expression) {
+		return false;
+	}
+}
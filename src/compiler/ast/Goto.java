@@ -0,0 +1,31 @@
+package compiler.ast;
+
+import compiler.exceptions.CompilerException;
+
+/**
+ * An unconditional jump to a Label.
+ *
+ * @author Alex Mandelias
+ */
+public final class Goto extends Node {
+
+	/** The Label */
+	public final Symbol label;
+
+	/**
+	 * Constructs a Goto Node.
+	 *
+	 * @param lineNumber the line number of the statement
+	 * @param lineIndex  the index of the line of the statement
+	 * @param label      the Label
+	 */
+	public Goto(int lineNumber, int lineIndex, Symbol label) {
+		super(lineNumber, lineIndex);
+		this.label = label;
+	}
+
+	@Override
+	public void accept(NodeVisitor visitor) throws CompilerException {
+		visitor.visit(this);
+	}
+}
@@ -0,0 +1,71 @@
+package compiler.ast;
+
+import java.util.List;
+
+import compiler.exceptions.CompilerException;
+
+/**
+ * An {@code if} block, optionally followed by an {@code else} block. The Node
+ * is found at the line of the {@code if} statement and contains the Nodes of
+ * the statements inside the blocks.
+ * <p>
+ * A program may end without closing a block. Such a block is not
+ * {@link #closed} and its {@code endif} statement is missing.
+ *
+ * @author Alex Mandelias
+ */
+public final class If extends Node {
+
+	/** The Comparison that decides which block is executed */
+	public final Comparison comparison;
+
+	/** The statements of the {@code if} block */
+	public final List<Node> thenBody;
+
+	/** The statements of the {@code else} block, {@code null} if there isn't one */
+	public final List<Node> elseBody;
+
+	/** Whether or not the block is closed with an {@code endif} statement */
+	public final boolean closed;
+
+	/**
+	 * Constructs an If Node for an {@code if} statement, without any statements
+	 * inside it yet.
+	 *
+	 * @param lineNumber the line number of the statement
+	 * @param lineIndex  the index of the line of the statement
+	 * @param comparison the Comparison
+	 */
+	public If(int lineNumber, int lineIndex, Comparison comparison) {
+		this(lineNumber, lineIndex, comparison, List.of(), null, false);
+	}
+
+	private If(int lineNumber, int lineIndex, Comparison comparison, List<Node> thenBody,
+	        List<Node> elseBody, boolean closed) {
+		super(lineNumber, lineIndex);
+		this.comparison = comparison;
+		this.thenBody = List.copyOf(thenBody);
+		this.elseBody = elseBody == null ? null : List.copyOf(elseBody);
+		this.closed = closed;
+	}
+
+	/**
+	 * Returns an If Node for the same statement as this Node with different
+	 * statements inside it.
+	 *
+	 * @param thenBody the statements of the {@code if} block
+	 * @param elseBody the statements of the {@code else} block, {@code null} if
+	 *                 there isn't one
+	 * @param closed   whether or not the block is closed
+	 *
+	 * @return the If Node
+	 */
+	public If withBodies(List<Node> thenBody, List<Node> elseBody, boolean closed) {
+		return new If(lineNumber, lineIndex, comparison, thenBody, elseBody, closed);
+	}
+
+	@Override
+	public void accept(NodeVisitor visitor) throws CompilerException {
+		visitor.visit(this);
+	}
+}
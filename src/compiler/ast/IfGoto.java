@@ -0,0 +1,36 @@
+package compiler.ast;
+
+import compiler.exceptions.CompilerException;
+
+/**
+ * A jump to a Label that only happens when a Comparison is true.
+ *
+ * @author Alex Mandelias
+ */
+public final class IfGoto extends Node {
+
+	/** The Comparison */
+	public final Comparison comparison;
+
+	/** The Label */
+	public final Symbol label;
+
+	/**
+	 * Constructs an IfGoto Node.
+	 *
+	 * @param lineNumber the line number of the statement
+	 * @param lineIndex  the index of the line of the statement
+	 * @param comparison the Comparison
+	 * @param label      the Label
+	 */
+	public IfGoto(int lineNumber, int lineIndex, Comparison comparison, Symbol label) {
+		super(lineNumber, lineIndex);
+		this.comparison = comparison;
+		this.label = label;
+	}
+
+	@Override
+	public void accept(NodeVisitor visitor) throws CompilerException {
+		visitor.visit(this);
+	}
+}
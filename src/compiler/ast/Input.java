@@ -0,0 +1,33 @@
+package compiler.ast;
+
+import java.util.List;
+
+import compiler.exceptions.CompilerException;
+
+/**
+ * A prompt to the user for the values of Variables.
+ *
+ * @author Alex Mandelias
+ */
+public final class Input extends Node {
+
+	/** The Variables whose values are read */
+	public final List<Symbol> variables;
+
+	/**
+	 * Constructs an Input Node.
+	 *
+	 * @param lineNumber the line number of the statement
+	 * @param lineIndex  the index of the line of the statement
+	 * @param variables  the Variables whose values are read
+	 */
+	public Input(int lineNumber, int lineIndex, List<Symbol> variables) {
+		super(lineNumber, lineIndex);
+		this.variables = List.copyOf(variables);
+	}
+
+	@Override
+	public void accept(NodeVisitor visitor) throws CompilerException {
+		visitor.visit(this);
+	}
+}
@@ -0,0 +1,38 @@
+package compiler.ast;
+
+import compiler.exceptions.CompilerException;
+
+/**
+ * A line that couldn't be parsed. The Node keeps the error that was found so
+ * that it can be reported in the same order as the errors found later, while
+ * the rest of the program is parsed normally.
+ *
+ * @author Alex Mandelias
+ */
+public final class Invalid extends Node {
+
+	/** The error found in the line */
+	public final CompilerException error;
+
+	/** The token of the line where the error was found */
+	public final String token;
+
+	/**
+	 * Constructs an Invalid Node.
+	 *
+	 * @param lineNumber the line number of the statement
+	 * @param lineIndex  the index of the line of the statement
+	 * @param error      the error found in the line
+	 * @param token      the token where the error was found
+	 */
+	public Invalid(int lineNumber, int lineIndex, CompilerException error, String token) {
+		super(lineNumber, lineIndex);
+		this.error = error;
+		this.token = token;
+	}
+
+	@Override
+	public void accept(NodeVisitor visitor) throws CompilerException {
+		visitor.visit(this);
+	}
+}
@@ -0,0 +1,31 @@
+package compiler.ast;
+
+import compiler.exceptions.CompilerException;
+
+/**
+ * The definition of a Label, a location in the program where jumps may go.
+ *
+ * @author Alex Mandelias
+ */
+public final class Label extends Node {
+
+	/** The Label */
+	public final Symbol label;
+
+	/**
+	 * Constructs a Label Node.
+	 *
+	 * @param lineNumber the line number of the statement
+	 * @param lineIndex  the index of the line of the statement
+	 * @param label      the Label
+	 */
+	public Label(int lineNumber, int lineIndex, Symbol label) {
+		super(lineNumber, lineIndex);
+		this.label = label;
+	}
+
+	@Override
+	public void accept(NodeVisitor visitor) throws CompilerException {
+		visitor.visit(this);
+	}
+}
@@ -0,0 +1,36 @@
+package compiler.ast;
+
+import compiler.exceptions.CompilerException;
+
+/**
+ * The assignment of the value of an Expression to a Variable.
+ *
+ * @author Alex Mandelias
+ */
+public final class Let extends Node {
+
+	/** The Variable that is assigned */
+	public final Symbol variable;
+
+	/** The Expression whose value is assigned */
+	public final Expression expression;
+
+	/**
+	 * Constructs a Let Node.
+	 *
+	 * @param lineNumber the line number of the statement
+	 * @param lineIndex  the index of the line of the statement
+	 * @param variable   the Variable that is assigned
+	 * @param expression the Expression whose value is assigned
+	 */
+	public Let(int lineNumber, int lineIndex, Symbol variable, Expression expression) {
+		super(lineNumber, lineIndex);
+		this.variable = variable;
+		this.expression = expression;
+	}
+
+	@Override
+	public void accept(NodeVisitor visitor) throws CompilerException {
+		visitor.visit(this);
+	}
+}
@@ -0,0 +1,41 @@
+package compiler.ast;
+
+import compiler.exceptions.CompilerException;
+
+/**
+ * A Node of the abstract syntax tree of a high-level-language program. Each Node
+ * corresponds to a statement of the program and knows the line where the
+ * statement was found. Nodes are immutable and are processed by a
+ * {@link NodeVisitor}.
+ *
+ * @author Alex Mandelias
+ */
+public abstract class Node {
+
+	/** The line number of the statement, as it is written in the program */
+	public final int lineNumber;
+
+	/** The index of the line of the statement among the non-blank lines */
+	public final int lineIndex;
+
+	/**
+	 * Constructs a Node for a statement found at a line.
+	 *
+	 * @param lineNumber the line number of the statement
+	 * @param lineIndex  the index of the line of the statement
+	 */
+	protected Node(int lineNumber, int lineIndex) {
+		this.lineNumber = lineNumber;
+		this.lineIndex = lineIndex;
+	}
+
+	/**
+	 * Calls the method of the {@code visitor} that corresponds to the type of this
+	 * Node.
+	 *
+	 * @param visitor the visitor
+	 *
+	 * @throws CompilerException if the visitor throws
+	 */
+	public abstract void accept(NodeVisitor visitor) throws CompilerException;
+}
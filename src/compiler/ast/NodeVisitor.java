@@ -0,0 +1,131 @@
+package compiler.ast;
+
+import compiler.exceptions.CompilerException;
+
+/**
+ * An operation that is performed on the {@link Node Nodes} of an abstract syntax
+ * tree, with a different method for each type of Node. The Nodes nested in
+ * {@link If} and {@link While} Nodes are not visited automatically; it is up to
+ * each visitor to visit them.
+ *
+ * @author Alex Mandelias
+ */
+public interface NodeVisitor {
+
+	/**
+	 * Visits a Declare Node.
+	 *
+	 * @param node the Node
+	 *
+	 * @throws CompilerException if the operation fails for the Node
+	 */
+	void visit(Declare node) throws CompilerException;
+
+	/**
+	 * Visits an Input Node.
+	 *
+	 * @param node the Node
+	 *
+	 * @throws CompilerException if the operation fails for the Node
+	 */
+	void visit(Input node) throws CompilerException;
+
+	/**
+	 * Visits a Let Node.
+	 *
+	 * @param node the Node
+	 *
+	 * @throws CompilerException if the operation fails for the Node
+	 */
+	void visit(Let node) throws CompilerException;
+
+	/**
+	 * Visits a Print Node.
+	 *
+	 * @param node the Node
+	 *
+	 * @throws CompilerException if the operation fails for the Node
+	 */
+	void visit(Print node) throws CompilerException;
+
+	/**
+	 * Visits a Label Node.
+	 *
+	 * @param node the Node
+	 *
+	 * @throws CompilerException if the operation fails for the Node
+	 */
+	void visit(Label node) throws CompilerException;
+
+	/**
+	 * Visits a Goto Node.
+	 *
+	 * @param node the Node
+	 *
+	 * @throws CompilerException if the operation fails for the Node
+	 */
+	void visit(Goto node) throws CompilerException;
+
+	/**
+	 * Visits an IfGoto Node.
+	 *
+	 * @param node the Node
+	 *
+	 * @throws CompilerException if the operation fails for the Node
+	 */
+	void visit(IfGoto node) throws CompilerException;
+
+	/**
+	 * Visits an If Node.
+	 *
+	 * @param node the Node
+	 *
+	 * @throws CompilerException if the operation fails for the Node
+	 */
+	void visit(If node) throws CompilerException;
+
+	/**
+	 * Visits a While Node.
+	 *
+	 * @param node the Node
+	 *
+	 * @throws CompilerException if the operation fails for the Node
+	 */
+	void visit(While node) throws CompilerException;
+
+	/**
+	 * Visits an End Node.
+	 *
+	 * @param node the Node
+	 *
+	 * @throws CompilerException if the operation fails for the Node
+	 */
+	void visit(End node) throws CompilerException;
+
+	/**
+	 * Visits a Noop Node.
+	 *
+	 * @param node the Node
+	 *
+	 * @throws CompilerException if the operation fails for the Node
+	 */
+	void visit(Noop node) throws CompilerException;
+
+	/**
+	 * Visits a Dump Node.
+	 *
+	 * @param node the Node
+	 *
+	 * @throws CompilerException if the operation fails for the Node
+	 */
+	void visit(Dump node) throws CompilerException;
+
+	/**
+	 * Visits an Invalid Node.
+	 *
+	 * @param node the Node
+	 *
+	 * @throws CompilerException if the operation fails for the Node
+	 */
+	void visit(Invalid node) throws CompilerException;
+}
@@ -0,0 +1,26 @@
+package compiler.ast;
+
+import compiler.exceptions.CompilerException;
+
+/**
+ * A statement that does nothing.
+ *
+ * @author Alex Mandelias
+ */
+public final class Noop extends Node {
+
+	/**
+	 * Constructs a Noop Node.
+	 *
+	 * @param lineNumber the line number of the statement
+	 * @param lineIndex  the index of the line of the statement
+	 */
+	public Noop(int lineNumber, int lineIndex) {
+		super(lineNumber, lineIndex);
+	}
+
+	@Override
+	public void accept(NodeVisitor visitor) throws CompilerException {
+		visitor.visit(this);
+	}
+}
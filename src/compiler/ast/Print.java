@@ -0,0 +1,33 @@
+package compiler.ast;
+
+import java.util.List;
+
+import compiler.exceptions.CompilerException;
+
+/**
+ * The printing of the values of Variables and Constants.
+ *
+ * @author Alex Mandelias
+ */
+public final class Print extends Node {
+
+	/** The Variables and Constants whose values are printed */
+	public final List<Symbol> symbols;
+
+	/**
+	 * Constructs a Print Node.
+	 *
+	 * @param lineNumber the line number of the statement
+	 * @param lineIndex  the index of the line of the statement
+	 * @param symbols    the Variables and Constants whose values are printed
+	 */
+	public Print(int lineNumber, int lineIndex, List<Symbol> symbols) {
+		super(lineNumber, lineIndex);
+		this.symbols = List.copyOf(symbols);
+	}
+
+	@Override
+	public void accept(NodeVisitor visitor) throws CompilerException {
+		visitor.visit(this);
+	}
+}
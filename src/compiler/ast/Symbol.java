@@ -0,0 +1,53 @@
+package compiler.ast;
+
+import java.util.Deque;
+import java.util.List;
+
+import compiler.exceptions.CompilerException;
+import compiler.symboltable.SymbolType;
+
+/**
+ * A Symbol found in a statement: a Variable or a Constant, which are also the
+ * simplest Expressions, or a Label.
+ *
+ * @author Alex Mandelias
+ */
+public final class Symbol extends Expression {
+
+	/** The Symbol, as it is written in the program */
+	public final String name;
+
+	/** The id of the Symbol in the Symbol Table */
+	public final int id;
+
+	/** The Type of the Symbol */
+	public final SymbolType type;
+
+	/**
+	 * Constructs a Symbol.
+	 *
+	 * @param name the Symbol
+	 * @param id   the id of the Symbol
+	 * @param type the Type of the Symbol
+	 */
+	public Symbol(String name, int id, SymbolType type) {
+		this.name = name;
+		this.id = id;
+		this.type = type;
+	}
+
+	@Override
+	void pushOperands(Deque<Expression> pending, ExpressionVisitor<?> visitor) {
+		// a Symbol has no operands
+	}
+
+	@Override
+	<R> R visit(ExpressionVisitor<R> visitor, List<R> results) throws CompilerException {
+		return visitor.visit(this);
+	}
+
+	@Override
+	public String toString() {
+		return name;
+	}
+}
@@ -0,0 +1,64 @@
+package compiler.ast;
+
+import java.util.List;
+
+import compiler.exceptions.CompilerException;
+
+/**
+ * A {@code while} block. The Node is found at the line of the {@code while}
+ * statement and contains the Nodes of the statements inside the block.
+ * <p>
+ * A program may end without closing a block. Such a block is not
+ * {@link #closed} and its {@code endwhile} statement is missing.
+ *
+ * @author Alex Mandelias
+ */
+public final class While extends Node {
+
+	/** The Comparison that decides whether the block is executed again */
+	public final Comparison comparison;
+
+	/** The statements of the block */
+	public final List<Node> body;
+
+	/** Whether or not the block is closed with an {@code endwhile} statement */
+	public final boolean closed;
+
+	/**
+	 * Constructs a While Node for a {@code while} statement, without any
+	 * statements inside it yet.
+	 *
+	 * @param lineNumber the line number of the statement
+	 * @param lineIndex  the index of the line of the statement
+	 * @param comparison the Comparison
+	 */
+	public While(int lineNumber, int lineIndex, Comparison comparison) {
+		this(lineNumber, lineIndex, comparison, List.of(), false);
+	}
+
+	private While(int lineNumber, int lineIndex, Comparison comparison, List<Node> body,
+	        boolean closed) {
+		super(lineNumber, lineIndex);
+		this.comparison = comparison;
+		this.body = List.copyOf(body);
+		this.closed = closed;
+	}
+
+	/**
+	 * Returns a While Node for the same statement as this Node with different
+	 * statements inside it.
+	 *
+	 * @param body   the statements of the block
+	 * @param closed whether or not the block is closed
+	 *
+	 * @return the While Node
+	 */
+	public While withBody(List<Node> body, boolean closed) {
+		return new While(lineNumber, lineIndex, comparison, body, closed);
+	}
+
+	@Override
+	public void accept(NodeVisitor visitor) throws CompilerException {
+		visitor.visit(this);
+	}
+}
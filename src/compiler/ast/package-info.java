@@ -0,0 +1,12 @@
+/**
+ * Defines the {@link compiler.ast.Node Nodes} of the abstract syntax tree of a
+ * high-level-language program. The tree is built by the parser of the
+ * Compiler, one Node for each statement, with the statements inside
+ * {@code if} and {@code while} blocks nested in the Node of the block, and it
+ * is then used to generate machine code.
+ *
+ * @author Alex Mandelias
+ *
+ * @see compiler.ast.NodeVisitor
+ */
+package compiler.ast;
@@ -0,0 +1,140 @@
+package compiler.ir;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A sequence of {@link Operation Operations} that are always executed together,
+ * followed by a {@link Terminator} that decides the block that is executed
+ * next. Only the first Operation of a block can be the target of a jump. The
+ * {@link Opcode#PHI PHI} Operations of a block, if any, come before all other
+ * Operations.
+ * <p>
+ * A block may also be the location of a Label of the program. Such a block is
+ * created when the Label is first referenced, which may be before it is
+ * defined.
+ *
+ * @author Alex Mandelias
+ */
+public final class BasicBlock {
+
+	/** The value of {@link #label} for blocks that aren't the location of a Label */
+	public static final int NO_LABEL = -1;
+
+	/** The id of the block, unique within its graph */
+	public final int id;
+
+	/** The id of the symbol of the Label at this block, or {@link #NO_LABEL} */
+	public final int label;
+
+	private final List<Operation>  operations;
+	private final List<BasicBlock> predecessors;
+	private Terminator             terminator;
+
+	/**
+	 * Constructs an empty block.
+	 *
+	 * @param id    the id of the block
+	 * @param label the id of the Label at this block, or {@link #NO_LABEL}
+	 */
+	BasicBlock(int id, int label) {
+		this.id = id;
+		this.label = label;
+		operations = new ArrayList<>();
+		predecessors = new ArrayList<>();
+		terminator = null;
+	}
+
+	/**
+	 * Returns the Operations of this block, in a list that can be modified.
+	 *
+	 * @return the Operations
+	 */
+	public List<Operation> operations() {
+		return operations;
+	}
+
+	/**
+	 * Returns the Terminator of this block.
+	 *
+	 * @return the Terminator, or {@code null} if the block doesn't have one yet or
+	 *         it is the last block and the program ends after it
+	 */
+	public Terminator terminator() {
+		return terminator;
+	}
+
+	/**
+	 * Sets the Terminator of this block.
+	 *
+	 * @param terminator the Terminator
+	 */
+	public void setTerminator(Terminator terminator) {
+		this.terminator = terminator;
+	}
+
+	/**
+	 * Returns the blocks that may be executed after this block, that is the
+	 * targets of its Terminator. A block may appear more than once.
+	 *
+	 * @return the successors
+	 */
+	public List<BasicBlock> successors() {
+		if (terminator == null)
+			return Collections.emptyList();
+
+		final List<BasicBlock> successors = new ArrayList<>(terminator.targetCount());
+		for (int i = 0, count = terminator.targetCount(); i < count; ++i)
+			successors.add(terminator.target(i));
+
+		return successors;
+	}
+
+	/**
+	 * Returns the blocks that may be executed right before this block, as they
+	 * were last {@link ControlFlowGraph#computePredecessors() computed}. A block
+	 * appears once for each of its targets that is this block.
+	 *
+	 * @return the predecessors
+	 */
+	public List<BasicBlock> predecessors() {
+		return Collections.unmodifiableList(predecessors);
+	}
+
+	/**
+	 * Returns a short name for this block, to refer to it when printing.
+	 *
+	 * @return the name
+	 */
+	public String name() {
+		return "B" + id;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder(name()).append(':').append(System.lineSeparator());
+
+		for (final Operation operation : operations)
+			sb.append("    ").append(operation).append(System.lineSeparator());
+
+		if (terminator != null)
+			sb.append("    ").append(terminator).append(System.lineSeparator());
+
+		return sb.toString();
+	}
+
+	void addPredecessor(BasicBlock block) {
+		predecessors.add(block);
+	}
+
+	void clearPredecessors() {
+		predecessors.clear();
+	}
+
+	/* removes the Operations after the first ones and the Terminator */
+	void truncate(int operationCount) {
+		operations.subList(operationCount, operations.size()).clear();
+		terminator = null;
+	}
+}
@@ -0,0 +1,35 @@
+package compiler.ir;
+
+/**
+ * A Constant of the program, which is stored in memory before the program runs.
+ *
+ * @author Alex Mandelias
+ */
+public final class Constant extends Operand {
+
+	/** The value of the Constant */
+	public final int value;
+
+	private final int location;
+
+	/**
+	 * Constructs a Constant.
+	 *
+	 * @param value    the value
+	 * @param location the location where the value is stored
+	 */
+	public Constant(int value, int location) {
+		this.value = value;
+		this.location = location;
+	}
+
+	@Override
+	public int location() {
+		return location;
+	}
+
+	@Override
+	public String toString() {
+		return String.valueOf(value);
+	}
+}
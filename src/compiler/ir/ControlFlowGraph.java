@@ -0,0 +1,246 @@
+package compiler.ir;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The control-flow graph of a program: its {@link BasicBlock BasicBlocks} and
+ * the edges between them, which are defined by the {@link Terminator
+ * Terminators} of the blocks. The graph is constructed block by block, and
+ * blocks are {@link #place(BasicBlock) placed} in the order in which their code
+ * appears in memory. A block whose Terminator jumps to the block placed right
+ * after it simply continues to it.
+ * <p>
+ * The first block, the {@link #entry() entry}, is always empty and there are no
+ * jumps to it, so that it is executed exactly once, before anything else.
+ * <p>
+ * Blocks can be created before they are placed, so that they can be the target
+ * of jumps, for example to a Label that is defined later. A block that is never
+ * placed doesn't have any code.
+ *
+ * @author Alex Mandelias
+ */
+public final class ControlFlowGraph {
+
+	private final List<BasicBlock> blocks;
+	private int                    blockCount;
+
+	/** Constructs a graph with only the entry block */
+	public ControlFlowGraph() {
+		blocks = new ArrayList<>();
+		blockCount = 0;
+
+		place(newBlock());
+	}
+
+	/**
+	 * Creates a new block without placing it.
+	 *
+	 * @return the block
+	 */
+	public BasicBlock newBlock() {
+		return newBlock(BasicBlock.NO_LABEL);
+	}
+
+	/**
+	 * Creates a new block for a Label without placing it.
+	 *
+	 * @param label the id of the symbol of the Label
+	 *
+	 * @return the block
+	 */
+	public BasicBlock newBlock(int label) {
+		return new BasicBlock(blockCount++, label);
+	}
+
+	/**
+	 * Places a block after the blocks that are already placed.
+	 *
+	 * @param block the block
+	 */
+	public void place(BasicBlock block) {
+		blocks.add(block);
+	}
+
+	/**
+	 * Returns the entry block.
+	 *
+	 * @return the entry block
+	 */
+	public BasicBlock entry() {
+		return blocks.get(0);
+	}
+
+	/**
+	 * Returns the placed blocks in the order they are placed, in a list that can
+	 * be modified in order to remove or reorder blocks.
+	 *
+	 * @return the blocks
+	 */
+	public List<BasicBlock> blocks() {
+		return blocks;
+	}
+
+	/**
+	 * Returns the number of blocks that were created.
+	 *
+	 * @return the number of blocks
+	 */
+	public int blockCount() {
+		return blockCount;
+	}
+
+	/**
+	 * Removes the blocks placed after the first {@code placed} blocks and forgets
+	 * the blocks created after the first {@code created} ones. The last block that
+	 * remains loses the Operations after its first {@code operations} and its
+	 * Terminator, and the removed blocks that were created before lose all their
+	 * contents, so that the graph is the same as it was when it had these sizes.
+	 *
+	 * @param placed     the number of placed blocks to keep
+	 * @param created    the number of created blocks to keep
+	 * @param operations the number of Operations of the last block to keep
+	 */
+	public void truncate(int placed, int created, int operations) {
+		for (int i = blocks.size() - 1; i >= placed; --i)
+			blocks.remove(i).truncate(0);
+
+		blocks.get(placed - 1).truncate(operations);
+		blockCount = created;
+	}
+
+	/**
+	 * Returns whether or not every block that is the target of a placed block is
+	 * also placed, which isn't the case when there are jumps to Labels that are
+	 * never declared.
+	 *
+	 * @return {@code true} if it is, {@code false} otherwise
+	 */
+	public boolean isComplete() {
+		final Set<BasicBlock> placed = new HashSet<>(blocks);
+
+		for (final BasicBlock block : blocks)
+			for (final BasicBlock successor : block.successors())
+				if (!placed.contains(successor))
+					return false;
+
+		return true;
+	}
+
+	/**
+	 * Computes the predecessors of every block that is placed or is the target of
+	 * a placed block.
+	 */
+	public void computePredecessors() {
+		for (final BasicBlock block : blocks) {
+			block.clearPredecessors();
+			for (final BasicBlock successor : block.successors())
+				successor.clearPredecessors();
+		}
+
+		for (final BasicBlock block : blocks)
+			for (final BasicBlock successor : block.successors())
+				successor.addPredecessor(block);
+	}
+
+	/**
+	 * Returns the blocks that can be reached from the entry in reverse postorder,
+	 * an order in which every block comes before its successors, apart from the
+	 * ones it is reached from through a loop.
+	 *
+	 * @return the reachable blocks in reverse postorder
+	 */
+	public List<BasicBlock> reversePostorder() {
+		final List<BasicBlock> postorder = new ArrayList<>();
+		final Set<BasicBlock>  visited   = new HashSet<>();
+
+		// iterative depth-first search, a stack of blocks and the index of their next successor
+		final List<BasicBlock>       stack = new ArrayList<>();
+		final List<List<BasicBlock>> next  = new ArrayList<>();
+		final List<Integer>          index = new ArrayList<>();
+
+		visited.add(entry());
+		stack.add(entry());
+		next.add(entry().successors());
+		index.add(0);
+
+		while (!stack.isEmpty()) {
+			final int              top        = stack.size() - 1;
+			final List<BasicBlock> successors = next.get(top);
+			final int              i          = index.get(top);
+
+			if (i < successors.size()) {
+				index.set(top, i + 1);
+
+				final BasicBlock successor = successors.get(i);
+				if (visited.add(successor)) {
+					stack.add(successor);
+					next.add(successor.successors());
+					index.add(0);
+				}
+			} else {
+				postorder.add(stack.remove(top));
+				next.remove(top);
+				index.remove(top);
+			}
+		}
+
+		Collections.reverse(postorder);
+		return postorder;
+	}
+
+	/**
+	 * Returns a copy of this graph, with copies of its blocks and their
+	 * Operations, that can be transformed without affecting this graph. The
+	 * operands are shared.
+	 *
+	 * @return the copy
+	 */
+	public ControlFlowGraph copy() {
+		final ControlFlowGraph            copy   = new ControlFlowGraph();
+		final Map<BasicBlock, BasicBlock> copies = new HashMap<>();
+
+		copy.blocks.clear();
+		copy.blockCount = blockCount;
+
+		final List<BasicBlock> all = new ArrayList<>(blocks);
+		for (final BasicBlock block : blocks)
+			for (final BasicBlock successor : block.successors())
+				if (!copies.containsKey(successor))
+					copies.put(successor, null);
+		for (final BasicBlock block : copies.keySet())
+			if (!blocks.contains(block))
+				all.add(block);
+
+		for (final BasicBlock block : all)
+			copies.put(block, new BasicBlock(block.id, block.label));
+
+		for (final BasicBlock block : all) {
+			final BasicBlock blockCopy = copies.get(block);
+			for (final Operation operation : block.operations())
+				blockCopy.operations().add(operation.copy());
+
+			if (block.terminator() != null)
+				blockCopy.setTerminator(block.terminator().copy(copies));
+		}
+
+		for (final BasicBlock block : blocks)
+			copy.blocks.add(copies.get(block));
+
+		return copy;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder();
+		for (final BasicBlock block : blocks)
+			sb.append(block);
+
+		return sb.toString();
+	}
+}
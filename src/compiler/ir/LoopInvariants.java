@@ -0,0 +1,183 @@
+package compiler.ir;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Moves the arithmetic Operations of the loops of a graph in {@link SSA} form
+ * whose operands don't change while the loop is executed out of the loop, so
+ * that they are calculated once before the loop instead of on every iteration.
+ * <p>
+ * A loop consists of a header, the block that is executed first, and the
+ * blocks from which a jump back to the header can be reached without going
+ * through it, as in a {@code while} block. An operand doesn't change in a loop
+ * if it is a Constant, a version of a Variable that is assigned outside of the
+ * loop, or the result of an Operation that is moved out of it. Only the
+ * Operations of the blocks that are executed on every iteration are moved, so
+ * that the ones that are executed on some iterations, for example in an
+ * {@code if} block, aren't calculated when they aren't needed. The Operations
+ * are moved to the end of the preheader, the only block outside of the loop
+ * that jumps to its header, which must not jump anywhere else. Inner loops are
+ * handled first, so that an Operation may be moved out of several loops.
+ * <p>
+ * The Operations are calculated even if the loop is never executed, therefore
+ * a division or a remainder is only moved if its divisor is a Constant other
+ * than {@code 0}, since otherwise the machine might stop with an error.
+ *
+ * @author Alex Mandelias
+ */
+public final class LoopInvariants {
+
+	private LoopInvariants() {}
+
+	/**
+	 * Moves the Operations of the loops of a graph in SSA form that calculate the
+	 * same value on every iteration to the preheaders of the loops. The graph
+	 * must be complete, and stays in SSA form.
+	 *
+	 * @param graph the graph
+	 */
+	public static void hoist(ControlFlowGraph graph) {
+		final List<BasicBlock>            order = graph.reversePostorder();
+		final Map<BasicBlock, BasicBlock> idom  = SSA.dominators(order);
+
+		final Map<BasicBlock, List<BasicBlock>> predecessors = new HashMap<>();
+		for (final BasicBlock block : order)
+			for (final BasicBlock successor : block.successors())
+				predecessors.computeIfAbsent(successor, b -> new ArrayList<>()).add(block);
+
+		// the blocks of the loop of each header, and the blocks that jump back to it
+		final Map<BasicBlock, Set<BasicBlock>>  loops   = new HashMap<>();
+		final Map<BasicBlock, List<BasicBlock>> latches = new HashMap<>();
+		for (final BasicBlock block : order)
+			for (final BasicBlock successor : block.successors())
+				if (LoopInvariants.dominates(successor, block, idom)) {
+					LoopInvariants.addLoop(successor, block, predecessors, loops);
+					latches.computeIfAbsent(successor, h -> new ArrayList<>()).add(block);
+				}
+
+		final List<BasicBlock> headers = new ArrayList<>(loops.keySet());
+		headers.sort(Comparator.comparingInt(header -> loops.get(header).size()));
+
+		for (final BasicBlock header : headers) {
+			// in reverse postorder, so that an Operation is moved after the ones it uses
+			final Set<BasicBlock>  loop   = new LinkedHashSet<>();
+			final List<BasicBlock> always = new ArrayList<>();
+			for (final BasicBlock block : order)
+				if (loops.get(header).contains(block)) {
+					loop.add(block);
+					if (latches.get(header).stream()
+					        .allMatch(latch -> LoopInvariants.dominates(block, latch, idom)))
+						always.add(block);
+				}
+
+			final BasicBlock preheader = LoopInvariants.preheader(header, loop, predecessors, graph);
+			if (preheader != null)
+				LoopInvariants.hoist(loop, always, preheader);
+		}
+	}
+
+	/* adds the blocks that can reach a block that jumps back to a header without going through it */
+	private static void addLoop(BasicBlock header, BasicBlock latch,
+	        Map<BasicBlock, List<BasicBlock>> predecessors, Map<BasicBlock, Set<BasicBlock>> loops) {
+		final Set<BasicBlock>   loop  = loops.computeIfAbsent(header, h -> new HashSet<>());
+		final Deque<BasicBlock> stack = new ArrayDeque<>();
+
+		loop.add(header);
+		if (loop.add(latch))
+			stack.push(latch);
+
+		while (!stack.isEmpty())
+			for (final BasicBlock predecessor : predecessors.getOrDefault(stack.pop(), new ArrayList<>()))
+				if (loop.add(predecessor))
+					stack.push(predecessor);
+	}
+
+	/* the only block outside of a loop that jumps to its header, if it doesn't jump anywhere else */
+	private static BasicBlock preheader(BasicBlock header, Set<BasicBlock> loop,
+	        Map<BasicBlock, List<BasicBlock>> predecessors, ControlFlowGraph graph) {
+		BasicBlock preheader = null;
+
+		for (final BasicBlock predecessor : predecessors.get(header)) {
+			if (loop.contains(predecessor))
+				continue;
+			if ((preheader != null) && (preheader != predecessor))
+				return null;
+
+			preheader = predecessor;
+		}
+
+		// the entry is always empty
+		if ((preheader == null) || (preheader == graph.entry())
+		        || (preheader.terminator().kind != Terminator.Kind.JUMP))
+			return null;
+
+		return preheader;
+	}
+
+	/* moves the Operations of the blocks of a loop that are always executed whose operands don't change in it */
+	private static void hoist(Set<BasicBlock> loop, List<BasicBlock> always, BasicBlock preheader) {
+		final Set<Operand> changed = new HashSet<>();
+		for (final BasicBlock block : loop)
+			for (final Operation operation : block.operations())
+				if (operation.result() != null)
+					changed.add(operation.result());
+
+		for (final BasicBlock block : always) {
+			final List<Operation> operations = block.operations();
+
+			for (int i = 0; i < operations.size(); ++i) {
+				final Operation operation = operations.get(i);
+
+				if (!LoopInvariants.movable(operation, changed))
+					continue;
+
+				operations.remove(i--);
+				preheader.operations().add(operation);
+				changed.remove(operation.result());
+			}
+		}
+	}
+
+	/* whether an arithmetic Operation with a Temporary result has operands that don't change in the loop */
+	private static boolean movable(Operation operation, Set<Operand> changed) {
+		if (!operation.opcode.isArithmetic() || !(operation.result() instanceof Temp))
+			return false;
+
+		for (int i = 0, count = operation.operandCount(); i < count; ++i)
+			if (changed.contains(operation.operand(i)))
+				return false;
+
+		switch (operation.opcode) {
+		case DIVIDE:
+		case MOD:
+			final Operand divisor = operation.operand(1);
+			return (divisor instanceof Constant) && (((Constant) divisor).value != 0);
+		default:
+			return true;
+		}
+	}
+
+	/* whether a block dominates another, every path from the entry to the other goes through it */
+	private static boolean dominates(BasicBlock dominator, BasicBlock block,
+	        Map<BasicBlock, BasicBlock> idom) {
+		BasicBlock current = block;
+		while (current != dominator) {
+			final BasicBlock parent = idom.get(current);
+			if ((parent == null) || (parent == current))
+				return false;
+
+			current = parent;
+		}
+
+		return true;
+	}
+}
@@ -0,0 +1,136 @@
+package compiler.ir;
+
+import compiler.postfix.Token;
+
+/**
+ * The different kinds of {@link Operation Operations}.
+ *
+ * @author Alex Mandelias
+ */
+public enum Opcode {
+
+	/** Assigns its operand to its result */
+	ASSIGN("="),
+
+	/** Adds its operands */
+	ADD("+"),
+
+	/** Subtracts its second operand from its first */
+	SUBTRACT("-"),
+
+	/** Multiplies its operands */
+	MULTIPLY("*"),
+
+	/** Divides its first operand by its second */
+	DIVIDE("/"),
+
+	/** Calculates the remainder of the division of its first operand by its second */
+	MOD("%"),
+
+	/** Raises its first operand to the power of its second */
+	POW("^"),
+
+	/** Reads a value from the user to its result */
+	READ("read"),
+
+	/** Writes its operand to the screen */
+	WRITE("write"),
+
+	/** Selects one of its operands depending on the predecessor that was executed */
+	PHI("phi"),
+
+	/** Does nothing */
+	NOOP("noop"),
+
+	/** Dumps the contents of memory to the screen */
+	DUMP("dump");
+
+	/** The symbol of this Opcode, as it appears when Operations are printed */
+	public final String symbol;
+
+	Opcode(String symbol) {
+		this.symbol = symbol;
+	}
+
+	/**
+	 * Returns whether or not this Opcode is one of the arithmetic operators.
+	 *
+	 * @return {@code true} if it is, {@code false} otherwise
+	 */
+	public boolean isArithmetic() {
+		return (compareTo(ADD) >= 0) && (compareTo(POW) <= 0);
+	}
+
+	/**
+	 * Returns whether or not this Opcode is an arithmetic operator whose operands
+	 * can be swapped without changing its result.
+	 *
+	 * @return {@code true} if it is, {@code false} otherwise
+	 */
+	public boolean isCommutative() {
+		return (this == ADD) || (this == MULTIPLY);
+	}
+
+	/**
+	 * Calculates the result of an arithmetic Opcode exactly as the machine does:
+	 * with 32-bit integers that overflow silently, division and remainder that
+	 * truncate towards zero, and a power that is calculated with {@code double}s
+	 * and then truncated to an integer.
+	 *
+	 * @param x the first operand
+	 * @param y the second operand
+	 *
+	 * @return the result
+	 *
+	 * @throws ArithmeticException  if the second operand of a division or a
+	 *                               remainder is 0, since the machine stops with
+	 *                               an error instead
+	 * @throws IllegalStateException if this Opcode isn't arithmetic
+	 *
+	 * @see #isArithmetic()
+	 */
+	public int evaluate(int x, int y) {
+		switch (this) {
+		case ADD:
+			return x + y;
+		case SUBTRACT:
+			return x - y;
+		case MULTIPLY:
+			return x * y;
+		case DIVIDE:
+			if (y == 0)
+				throw new ArithmeticException("Division By 0");
+			return x / y;
+		case MOD:
+			if (y == 0)
+				throw new ArithmeticException("Division By 0");
+			return x % y;
+		case POW:
+			return (int) Math.pow(x, y);
+		default:
+			throw new IllegalStateException(String.format("%s isn't arithmetic", this));
+		}
+	}
+
+	/**
+	 * Returns the arithmetic {@code Opcode} for a mathematical operator.
+	 *
+	 * @param operator the Token of the operator
+	 *
+	 * @return the Opcode
+	 */
+	public static Opcode of(Token operator) {
+		// Token is class, not enum, can't use switch
+		if (operator == Token.ADD)
+			return ADD;
+		if (operator == Token.SUB)
+			return SUBTRACT;
+		if (operator == Token.MUL)
+			return MULTIPLY;
+		if (operator == Token.DIV)
+			return DIVIDE;
+		if (operator == Token.MOD)
+			return MOD;
+		return POW;
+	}
+}
@@ -0,0 +1,17 @@
+package compiler.ir;
+
+/**
+ * An operand of an {@link Operation} or a {@link Terminator}. Every operand is
+ * kept at a location in memory, from where the machine code reads it.
+ *
+ * @author Alex Mandelias
+ */
+public abstract class Operand {
+
+	/**
+	 * Returns the location in memory of this Operand.
+	 *
+	 * @return the location
+	 */
+	public abstract int location();
+}
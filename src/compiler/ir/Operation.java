@@ -0,0 +1,112 @@
+package compiler.ir;
+
+import java.util.Arrays;
+
+/**
+ * An Operation of a {@link BasicBlock}: an {@link Opcode} with its operands and,
+ * for the Opcodes that produce a value, the Variable or Temporary where the
+ * value is stored. The operands and the result can be replaced, so that the
+ * Operation can be transformed in place.
+ * <p>
+ * The operands of a {@link Opcode#PHI PHI} Operation correspond, in order, to
+ * the predecessors of its block.
+ *
+ * @author Alex Mandelias
+ */
+public final class Operation {
+
+	/** The Opcode of this Operation */
+	public final Opcode opcode;
+
+	private Operand         result;
+	private final Operand[] operands;
+
+	/**
+	 * Constructs an Operation.
+	 *
+	 * @param opcode   the Opcode
+	 * @param result   the result, {@code null} if the Opcode doesn't produce one
+	 * @param operands the operands
+	 */
+	public Operation(Opcode opcode, Operand result, Operand... operands) {
+		this.opcode = opcode;
+		this.result = result;
+		this.operands = operands.clone();
+	}
+
+	/**
+	 * Returns the result of this Operation.
+	 *
+	 * @return the result, or {@code null} if there isn't one
+	 */
+	public Operand result() {
+		return result;
+	}
+
+	/**
+	 * Replaces the result of this Operation.
+	 *
+	 * @param result the new result
+	 */
+	public void setResult(Operand result) {
+		this.result = result;
+	}
+
+	/**
+	 * Returns the number of operands of this Operation.
+	 *
+	 * @return the number of operands
+	 */
+	public int operandCount() {
+		return operands.length;
+	}
+
+	/**
+	 * Returns an operand of this Operation.
+	 *
+	 * @param index the index of the operand
+	 *
+	 * @return the operand
+	 */
+	public Operand operand(int index) {
+		return operands[index];
+	}
+
+	/**
+	 * Replaces an operand of this Operation.
+	 *
+	 * @param index   the index of the operand
+	 * @param operand the new operand
+	 */
+	public void setOperand(int index, Operand operand) {
+		operands[index] = operand;
+	}
+
+	/**
+	 * Returns a copy of this Operation, with the same result and operands.
+	 *
+	 * @return the copy
+	 */
+	public Operation copy() {
+		return new Operation(opcode, result, operands);
+	}
+
+	@Override
+	public String toString() {
+		switch (opcode) {
+		case ASSIGN:
+			return result + " = " + operands[0];
+		case PHI:
+			return result + " = phi" + Arrays.toString(operands);
+		case READ:
+			return "read " + result;
+		case WRITE:
+			return "write " + operands[0];
+		case NOOP:
+		case DUMP:
+			return opcode.symbol;
+		default:
+			return String.format("%s = %s %s %s", result, operands[0], opcode.symbol, operands[1]);
+		}
+	}
+}
@@ -0,0 +1,480 @@
+package compiler.ir;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * Propagates the Constants and the copies of Variables of a graph in
+ * {@link SSA} form, across the statements and the blocks of the program. The
+ * values are found with the sparse conditional constant propagation by Wegman
+ * and Zadeck, which only considers the blocks that can be executed given the
+ * values found so far, so that the Comparison of a BRANCH whose operands are
+ * Constants decides the only block that is executed after it. Every Variable
+ * starts with the value {@code 0}, which is the value of its location when the
+ * program starts.
+ * <p>
+ * Afterwards, the graph is transformed in place:
+ * <ul>
+ * <li>the operands whose value is a Constant are replaced by the Constant and
+ * the Operations whose result is a Constant simply assign the Constant</li>
+ * <li>the BRANCHES whose Comparison is always true or always false become
+ * JUMPS and the blocks that can't be executed are removed</li>
+ * <li>the uses of a Variable that is a copy of another Variable are replaced by
+ * that Variable, where it is still the current version of its Variable</li>
+ * <li>the Operations whose result is never used are removed, unless they may
+ * stop the machine with an error, or their result is a Variable and the program
+ * dumps the memory, where the value of every Variable is shown</li>
+ * </ul>
+ * PHI Operations don't generate code, since all versions of a Variable share
+ * its location, therefore their operands are never replaced.
+ * <p>
+ * A Comparison is only decided if subtracting its operands doesn't overflow,
+ * since the machine compares two values by subtracting them. Negative values
+ * are never replaced by Constants, since memory can't be initialised with them.
+ *
+ * @author Alex Mandelias
+ */
+public final class Propagation {
+
+	/* the value of an operand: unknown until it is evaluated, a constant, or varying */
+	private static final class Value {
+		static final Value UNKNOWN = new Value(0), VARYING = new Value(0);
+
+		final int constant;
+
+		private Value(int constant) {
+			this.constant = constant;
+		}
+
+		static Value of(int constant) {
+			return new Value(constant);
+		}
+
+		boolean isConstant() {
+			return (this != UNKNOWN) && (this != VARYING);
+		}
+
+		Value meet(Value other) {
+			if ((this == UNKNOWN) || (other == VARYING))
+				return other;
+			if ((other == UNKNOWN) || (this == VARYING))
+				return this;
+
+			return constant == other.constant ? this : VARYING;
+		}
+
+		boolean same(Value other) {
+			return isConstant() ? other.isConstant() && (constant == other.constant)
+			        : this == other;
+		}
+	}
+
+	private final ControlFlowGraph      graph;
+	private final IntFunction<Constant> constants;
+
+	private final Map<Operand, Value>              values;
+	private final Map<Operand, Set<BasicBlock>>    users;
+	private final Map<BasicBlock, Set<BasicBlock>> edges;      // the executable edges to each block
+	private final Set<BasicBlock>                  executable;
+	private final Deque<BasicBlock>                worklist;
+	private final Set<BasicBlock>                  queued;
+
+	private Propagation(ControlFlowGraph graph, IntFunction<Constant> constants) {
+		this.graph = graph;
+		this.constants = constants;
+		values = new HashMap<>();
+		users = new HashMap<>();
+		edges = new HashMap<>();
+		executable = new HashSet<>();
+		worklist = new ArrayDeque<>();
+		queued = new HashSet<>();
+	}
+
+	/**
+	 * Propagates the values of a graph in SSA form, in place. Every block that is
+	 * the target of a placed block must also be placed.
+	 *
+	 * @param graph     the graph
+	 * @param constants the function that returns the Constant with a value, which
+	 *                  is declared if it isn't already
+	 */
+	public static void propagate(ControlFlowGraph graph, IntFunction<Constant> constants) {
+		final Propagation propagation = new Propagation(graph, constants);
+
+		propagation.evaluate();
+		propagation.replaceConstants();
+		propagation.removeUnexecutable();
+		propagation.replaceCopies();
+		propagation.removeUnused();
+	}
+
+	/* finds the value of every operand and the blocks that can be executed */
+	private void evaluate() {
+		graph.computePredecessors();
+
+		for (final BasicBlock block : graph.blocks()) {
+			for (final Operation operation : block.operations())
+				for (int i = 0, count = operation.operandCount(); i < count; ++i)
+					users.computeIfAbsent(operation.operand(i), o -> new HashSet<>()).add(block);
+
+			final Terminator terminator = block.terminator();
+			if (terminator != null)
+				for (int i = 0, count = terminator.operandCount(); i < count; ++i)
+					users.computeIfAbsent(terminator.operand(i), o -> new HashSet<>()).add(block);
+		}
+
+		executable.add(graph.entry());
+		enqueue(graph.entry());
+
+		while (!worklist.isEmpty()) {
+			final BasicBlock block = worklist.pop();
+			queued.remove(block);
+
+			for (final Operation operation : block.operations())
+				if (operation.result() != null)
+					update(operation.result(), evaluate(operation, block));
+
+			final Terminator terminator = block.terminator();
+			if (terminator == null)
+				continue;
+
+			if (terminator.kind == Terminator.Kind.BRANCH) {
+				final Boolean outcome = decide(terminator);
+				if (outcome != null)
+					execute(block, terminator.target(outcome ? Terminator.TRUE : Terminator.FALSE));
+				else if ((value(terminator.operand(0)) != Value.UNKNOWN)
+				        && (value(terminator.operand(1)) != Value.UNKNOWN)) {
+					execute(block, terminator.target(Terminator.TRUE));
+					execute(block, terminator.target(Terminator.FALSE));
+				}
+			} else
+				for (int i = 0, count = terminator.targetCount(); i < count; ++i)
+					execute(block, terminator.target(i));
+		}
+	}
+
+	private Value evaluate(Operation operation, BasicBlock block) {
+		switch (operation.opcode) {
+		case ASSIGN:
+			return value(operation.operand(0));
+		case PHI:
+			Value value = Value.UNKNOWN;
+			final List<BasicBlock> predecessors = block.predecessors();
+			final Set<BasicBlock>  from         = edges.getOrDefault(block, new HashSet<>());
+			for (int i = 0, count = predecessors.size(); i < count; ++i)
+				if (from.contains(predecessors.get(i)))
+					value = value.meet(value(operation.operand(i)));
+			return value;
+		case READ:
+			return Value.VARYING;
+		default:
+			break;
+		}
+
+		final Value x = value(operation.operand(0));
+		final Value y = value(operation.operand(1));
+
+		if ((x == Value.VARYING) || (y == Value.VARYING))
+			return Value.VARYING;
+		if ((x == Value.UNKNOWN) || (y == Value.UNKNOWN))
+			return Value.UNKNOWN;
+
+		try {
+			return Value.of(operation.opcode.evaluate(x.constant, y.constant));
+		} catch (final ArithmeticException e) {
+			// the error happens when the program is executed
+			return Value.VARYING;
+		}
+	}
+
+	/* the outcome of a BRANCH if it is always the same, null if it isn't known yet or it varies */
+	private Boolean decide(Terminator branch) {
+		final Operand left  = branch.operand(0);
+		final Operand right = branch.operand(1);
+		final Value   x     = value(left);
+		final Value   y     = value(right);
+
+		// an operand is always equal to itself, whatever its value
+		if (left.equals(right) && (x != Value.UNKNOWN))
+			return branch.condition.test(0, 0);
+
+		if (!x.isConstant() || !y.isConstant())
+			return null;
+
+		try {
+			Math.subtractExact(x.constant, y.constant);
+			Math.subtractExact(y.constant, x.constant);
+		} catch (final ArithmeticException e) {
+			return null;
+		}
+
+		return branch.condition.test(x.constant, y.constant);
+	}
+
+	private Value value(Operand operand) {
+		if (operand instanceof Constant)
+			return Value.of(((Constant) operand).value);
+		if ((operand instanceof Variable) && (((Variable) operand).version == 0))
+			return Value.of(0);
+
+		return values.getOrDefault(operand, Value.UNKNOWN);
+	}
+
+	private void update(Operand result, Value value) {
+		final Value oldValue = values.getOrDefault(result, Value.UNKNOWN);
+		final Value newValue = oldValue.meet(value);
+
+		if (newValue.same(oldValue))
+			return;
+
+		values.put(result, newValue);
+		for (final BasicBlock user : users.getOrDefault(result, new HashSet<>()))
+			if (executable.contains(user))
+				enqueue(user);
+	}
+
+	/* marks an edge as executable and evaluates its target again, for its PHIs */
+	private void execute(BasicBlock from, BasicBlock to) {
+		if (edges.computeIfAbsent(to, b -> new HashSet<>()).add(from)) {
+			executable.add(to);
+			enqueue(to);
+		}
+	}
+
+	private void enqueue(BasicBlock block) {
+		if (queued.add(block))
+			worklist.add(block);
+	}
+
+	/* replaces the operands whose values are Constants and decides the BRANCHES */
+	private void replaceConstants() {
+		for (final BasicBlock block : graph.blocks()) {
+			if (!executable.contains(block))
+				continue;
+
+			final List<Operation> operations = block.operations();
+			for (int i = 0, count = operations.size(); i < count; ++i) {
+				final Operation operation = operations.get(i);
+				if (operation.opcode == Opcode.PHI)
+					continue;
+
+				final Constant result = constant(operation.result());
+				if ((result != null)
+				        && ((operation.opcode == Opcode.ASSIGN) || operation.opcode.isArithmetic())) {
+					operations.set(i, new Operation(Opcode.ASSIGN, operation.result(), result));
+					continue;
+				}
+
+				for (int j = 0, operandCount = operation.operandCount(); j < operandCount; ++j) {
+					final Constant constant = constant(operation.operand(j));
+					if (constant != null)
+						operation.setOperand(j, constant);
+				}
+			}
+
+			final Terminator terminator = block.terminator();
+			if ((terminator == null) || (terminator.kind != Terminator.Kind.BRANCH))
+				continue;
+
+			final BasicBlock ifTrue  = terminator.target(Terminator.TRUE);
+			final BasicBlock ifFalse = terminator.target(Terminator.FALSE);
+			final boolean    toTrue  = edges.getOrDefault(ifTrue, new HashSet<>()).contains(block);
+			final boolean    toFalse = edges.getOrDefault(ifFalse, new HashSet<>()).contains(block);
+
+			if ((ifTrue == ifFalse) || (toTrue && !toFalse))
+				block.setTerminator(Terminator.jump(ifTrue));
+			else if (toFalse && !toTrue)
+				block.setTerminator(Terminator.jump(ifFalse));
+			else
+				for (int j = 0; j < 2; ++j) {
+					final Constant constant = constant(terminator.operand(j));
+					if (constant != null)
+						terminator.setOperand(j, constant);
+				}
+		}
+	}
+
+	/* the Constant with the value of an operand, null if it isn't a non-negative constant */
+	private Constant constant(Operand operand) {
+		if ((operand == null) || (operand instanceof Constant))
+			return null;
+
+		final Value value = value(operand);
+		return value.isConstant() && (value.constant >= 0) ? constants.apply(value.constant)
+		        : null;
+	}
+
+	/* removes the blocks that can't be executed and the operands of the PHIs for their edges */
+	private void removeUnexecutable() {
+		final Map<BasicBlock, List<BasicBlock>> oldPredecessors = new HashMap<>();
+		for (final BasicBlock block : graph.blocks())
+			oldPredecessors.put(block, new ArrayList<>(block.predecessors()));
+
+		graph.blocks().removeIf(block -> !executable.contains(block));
+		graph.computePredecessors();
+
+		for (final BasicBlock block : graph.blocks()) {
+			final List<BasicBlock> predecessors = block.predecessors();
+			final List<Operation>  operations   = block.operations();
+
+			for (int i = 0, count = operations.size(); i < count; ++i) {
+				final Operation phi = operations.get(i);
+				if (phi.opcode != Opcode.PHI)
+					break;
+
+				// the operands of the same predecessor are the same
+				final Operand[] operands = new Operand[predecessors.size()];
+				for (int j = 0; j < operands.length; ++j)
+					operands[j] = phi.operand(oldPredecessors.get(block).indexOf(predecessors.get(j)));
+
+				operations.set(i, new Operation(Opcode.PHI, phi.result(), operands));
+			}
+		}
+	}
+
+	/* replaces the uses of copies, walking the dominator tree as when the graph was converted */
+	private void replaceCopies() {
+		final Map<Variable, Variable> copies = new HashMap<>();
+		for (final BasicBlock block : graph.blocks())
+			for (final Operation operation : block.operations())
+				if ((operation.opcode == Opcode.ASSIGN) && (operation.result() instanceof Variable)
+				        && (operation.operand(0) instanceof Variable))
+					copies.put((Variable) operation.result(), (Variable) operation.operand(0));
+
+		if (copies.isEmpty())
+			return;
+
+		final List<BasicBlock>                  order    = graph.reversePostorder();
+		final Map<BasicBlock, BasicBlock>       idom     = SSA.dominators(order);
+		final Map<BasicBlock, List<BasicBlock>> children = new HashMap<>();
+		for (final BasicBlock block : order)
+			if (idom.get(block) != block)
+				children.computeIfAbsent(idom.get(block), b -> new ArrayList<>()).add(block);
+
+		final Map<Integer, Deque<Variable>> current = new HashMap<>();
+
+		// iterative walk of the dominator tree, a block is on the stack once before and once after its children
+		final Deque<BasicBlock>    stack   = new ArrayDeque<>();
+		final Deque<List<Integer>> defined = new ArrayDeque<>();
+		final Set<BasicBlock>      entered = new HashSet<>();
+
+		stack.push(order.get(0));
+
+		while (!stack.isEmpty()) {
+			final BasicBlock block = stack.peek();
+
+			if (!entered.add(block)) {
+				stack.pop();
+				for (final int id : defined.pop())
+					current.get(id).pop();
+				continue;
+			}
+
+			final List<Integer> definedHere = new ArrayList<>();
+
+			for (final Operation operation : block.operations()) {
+				if (operation.opcode != Opcode.PHI)
+					for (int i = 0, count = operation.operandCount(); i < count; ++i)
+						operation.setOperand(i, Propagation.original(operation.operand(i), copies, current));
+
+				if (operation.result() instanceof Variable) {
+					final Variable variable = (Variable) operation.result();
+					current.computeIfAbsent(variable.id, id -> new ArrayDeque<>()).push(variable);
+					definedHere.add(variable.id);
+				}
+			}
+
+			final Terminator terminator = block.terminator();
+			if (terminator != null)
+				for (int i = 0, count = terminator.operandCount(); i < count; ++i)
+					terminator.setOperand(i, Propagation.original(terminator.operand(i), copies, current));
+
+			defined.push(definedHere);
+			for (final BasicBlock child : children.getOrDefault(block, new ArrayList<>()))
+				stack.push(child);
+		}
+	}
+
+	/* the earliest Variable an operand is a copy of that is still the current version of its Variable */
+	private static Operand original(Operand operand, Map<Variable, Variable> copies,
+	        Map<Integer, Deque<Variable>> current) {
+		Operand original = operand;
+
+		for (Variable copy = copies.get(operand); copy != null; copy = copies.get(copy)) {
+			final Deque<Variable> versions = current.get(copy.id);
+			final int             version  = (versions == null) || versions.isEmpty() ? 0
+			        : versions.peek().version;
+
+			if (copy.version == version)
+				original = copy;
+		}
+
+		return original;
+	}
+
+	/* removes the Operations whose results are never used, until there are none */
+	private void removeUnused() {
+		final Map<Operand, Integer> uses  = new HashMap<>();
+		boolean                     dumps = false;
+
+		for (final BasicBlock block : graph.blocks()) {
+			for (final Operation operation : block.operations()) {
+				dumps |= operation.opcode == Opcode.DUMP;
+				for (int i = 0, count = operation.operandCount(); i < count; ++i)
+					uses.merge(operation.operand(i), 1, Integer::sum);
+			}
+
+			final Terminator terminator = block.terminator();
+			if (terminator != null)
+				for (int i = 0, count = terminator.operandCount(); i < count; ++i)
+					uses.merge(terminator.operand(i), 1, Integer::sum);
+		}
+
+		boolean removed = true;
+		while (removed) {
+			removed = false;
+
+			for (final BasicBlock block : graph.blocks())
+				for (int i = block.operations().size() - 1; i >= 0; --i) {
+					final Operation operation = block.operations().get(i);
+					final Operand   result    = operation.result();
+
+					if ((result == null) || uses.getOrDefault(result, 0) > 0
+					        || (dumps && (result instanceof Variable)) || !Propagation.removable(operation))
+						continue;
+
+					block.operations().remove(i);
+					for (int j = 0, count = operation.operandCount(); j < count; ++j)
+						uses.merge(operation.operand(j), -1, Integer::sum);
+
+					removed = true;
+				}
+		}
+	}
+
+	/* whether an Operation only assigns its result, without stopping the machine with an error */
+	private static boolean removable(Operation operation) {
+		switch (operation.opcode) {
+		case ASSIGN:
+		case PHI:
+		case ADD:
+		case SUBTRACT:
+		case MULTIPLY:
+		case POW:
+			return true;
+		case DIVIDE:
+		case MOD:
+			final Operand divisor = operation.operand(1);
+			return (divisor instanceof Constant) && (((Constant) divisor).value != 0);
+		default:
+			return false;
+		}
+	}
+}
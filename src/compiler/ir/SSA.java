@@ -0,0 +1,231 @@
+package compiler.ir;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Converts a {@link ControlFlowGraph} to static single assignment form, where
+ * every version of a {@link Variable} is assigned exactly once. The conversion
+ * follows Cytron et al.: {@link Opcode#PHI PHI} Operations are placed at the
+ * dominance frontiers of the blocks that assign each Variable and then the uses
+ * of the Variables are renamed to the version that reaches them, walking the
+ * dominator tree. The dominators are calculated with the iterative algorithm by
+ * Cooper, Harvey and Kennedy.
+ * <p>
+ * Only the blocks that can be reached from the entry are converted. Where a
+ * Variable is used before it is assigned, version {@code 0} is used.
+ *
+ * @author Alex Mandelias
+ */
+public final class SSA {
+
+	private SSA() {}
+
+	/**
+	 * Converts a graph to SSA form in place.
+	 *
+	 * @param graph the graph
+	 */
+	public static void construct(ControlFlowGraph graph) {
+		graph.computePredecessors();
+
+		final List<BasicBlock>            order = graph.reversePostorder();
+		final Map<BasicBlock, BasicBlock> idom  = SSA.dominators(order);
+
+		SSA.placePhis(order, SSA.frontiers(order, idom));
+		SSA.rename(order, idom);
+	}
+
+	/* the immediate dominator of each reachable block, the entry is its own */
+	static Map<BasicBlock, BasicBlock> dominators(List<BasicBlock> order) {
+		final Map<BasicBlock, Integer>    index = new HashMap<>();
+		final Map<BasicBlock, BasicBlock> idom  = new HashMap<>();
+
+		for (int i = 0, count = order.size(); i < count; ++i)
+			index.put(order.get(i), i);
+
+		final BasicBlock entry = order.get(0);
+		idom.put(entry, entry);
+
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+
+			for (final BasicBlock block : order.subList(1, order.size())) {
+				BasicBlock newIdom = null;
+				for (final BasicBlock predecessor : block.predecessors())
+					if (idom.containsKey(predecessor))
+						newIdom = newIdom == null ? predecessor
+						        : SSA.intersect(predecessor, newIdom, idom, index);
+
+				if (idom.get(block) != newIdom) {
+					idom.put(block, newIdom);
+					changed = true;
+				}
+			}
+		}
+
+		return idom;
+	}
+
+	private static BasicBlock intersect(BasicBlock b1, BasicBlock b2, Map<BasicBlock, BasicBlock> idom,
+	        Map<BasicBlock, Integer> index) {
+		BasicBlock finger1 = b1, finger2 = b2;
+
+		while (finger1 != finger2) {
+			while (index.get(finger1) > index.get(finger2))
+				finger1 = idom.get(finger1);
+			while (index.get(finger2) > index.get(finger1))
+				finger2 = idom.get(finger2);
+		}
+
+		return finger1;
+	}
+
+	/* the dominance frontier of each reachable block */
+	private static Map<BasicBlock, Set<BasicBlock>> frontiers(List<BasicBlock> order,
+	        Map<BasicBlock, BasicBlock> idom) {
+		final Map<BasicBlock, Set<BasicBlock>> frontiers = new HashMap<>();
+		for (final BasicBlock block : order)
+			frontiers.put(block, new HashSet<>());
+
+		for (final BasicBlock block : order) {
+			if (block.predecessors().size() < 2)
+				continue;
+
+			for (final BasicBlock predecessor : block.predecessors()) {
+				if (!idom.containsKey(predecessor))
+					continue;
+
+				for (BasicBlock runner = predecessor; runner != idom.get(block); runner = idom.get(runner)) {
+					frontiers.get(runner).add(block);
+					if (runner == idom.get(runner))
+						break;
+				}
+			}
+		}
+
+		return frontiers;
+	}
+
+	/* places a PHI for each Variable at the iterated dominance frontier of its assignments */
+	private static void placePhis(List<BasicBlock> order, Map<BasicBlock, Set<BasicBlock>> frontiers) {
+		final Map<Integer, Variable>         variables   = new LinkedHashMap<>();
+		final Map<Integer, List<BasicBlock>> assignments = new HashMap<>();
+
+		for (final BasicBlock block : order)
+			for (final Operation operation : block.operations())
+				if (operation.result() instanceof Variable) {
+					final Variable variable = (Variable) operation.result();
+					variables.putIfAbsent(variable.id, variable.version(0));
+					assignments.computeIfAbsent(variable.id, id -> new ArrayList<>()).add(block);
+				}
+
+		for (final Variable variable : variables.values()) {
+			final Deque<BasicBlock> worklist = new ArrayDeque<>(assignments.get(variable.id));
+			final Set<BasicBlock>   visited  = new HashSet<>(worklist);
+			final Set<BasicBlock>   hasPhi   = new HashSet<>();
+
+			while (!worklist.isEmpty())
+				for (final BasicBlock block : frontiers.get(worklist.pop()))
+					if (hasPhi.add(block)) {
+						final Operand[] operands = new Operand[block.predecessors().size()];
+						for (int i = 0; i < operands.length; ++i)
+							operands[i] = variable;
+
+						block.operations().add(0, new Operation(Opcode.PHI, variable, operands));
+
+						if (visited.add(block))
+							worklist.push(block);
+					}
+		}
+	}
+
+	/* renames every assignment to a new version and every use to the version that reaches it */
+	private static void rename(List<BasicBlock> order, Map<BasicBlock, BasicBlock> idom) {
+		final Map<BasicBlock, List<BasicBlock>> children = new HashMap<>();
+		for (final BasicBlock block : order)
+			if (idom.get(block) != block)
+				children.computeIfAbsent(idom.get(block), b -> new ArrayList<>()).add(block);
+
+		final Map<Integer, Deque<Variable>> current  = new HashMap<>();
+		final Map<Integer, Integer>         versions = new HashMap<>();
+
+		// iterative walk of the dominator tree, a block is on the stack once before and once after its children
+		final Deque<BasicBlock>    stack   = new ArrayDeque<>();
+		final Deque<List<Integer>> defined = new ArrayDeque<>();
+		final Set<BasicBlock>      entered = new HashSet<>();
+
+		stack.push(order.get(0));
+
+		while (!stack.isEmpty()) {
+			final BasicBlock block = stack.peek();
+
+			if (!entered.add(block)) {
+				stack.pop();
+				for (final int id : defined.pop())
+					current.get(id).pop();
+				continue;
+			}
+
+			final List<Integer> definedHere = new ArrayList<>();
+
+			for (final Operation operation : block.operations()) {
+				if (operation.opcode != Opcode.PHI)
+					for (int i = 0, count = operation.operandCount(); i < count; ++i)
+						operation.setOperand(i, SSA.use(operation.operand(i), current));
+
+				if (operation.result() instanceof Variable) {
+					final Variable variable = (Variable) operation.result();
+					final int      version  = versions.merge(variable.id, 1, Integer::sum);
+					final Variable renamed  = variable.version(version);
+
+					operation.setResult(renamed);
+					current.computeIfAbsent(variable.id, id -> new ArrayDeque<>()).push(renamed);
+					definedHere.add(variable.id);
+				}
+			}
+
+			final Terminator terminator = block.terminator();
+			if (terminator != null) {
+				for (int i = 0, count = terminator.operandCount(); i < count; ++i)
+					terminator.setOperand(i, SSA.use(terminator.operand(i), current));
+
+				final Set<BasicBlock> done = new HashSet<>();
+				for (final BasicBlock successor : block.successors()) {
+					if (!done.add(successor))
+						continue;
+
+					final List<BasicBlock> predecessors = successor.predecessors();
+					for (int i = 0, count = predecessors.size(); i < count; ++i)
+						if (predecessors.get(i) == block)
+							for (final Operation phi : successor.operations()) {
+								if (phi.opcode != Opcode.PHI)
+									break;
+
+								phi.setOperand(i, SSA.use(phi.operand(i), current));
+							}
+				}
+			}
+
+			defined.push(definedHere);
+			for (final BasicBlock child : children.getOrDefault(block, new ArrayList<>()))
+				stack.push(child);
+		}
+	}
+
+	private static Operand use(Operand operand, Map<Integer, Deque<Variable>> current) {
+		if (!(operand instanceof Variable))
+			return operand;
+
+		final Deque<Variable> versions = current.get(((Variable) operand).id);
+		return (versions == null) || versions.isEmpty() ? operand : versions.peek();
+	}
+}
@@ -0,0 +1,49 @@
+package compiler.ir;
+
+/**
+ * A Temporary that holds an intermediate result of an expression. Each
+ * Temporary is assigned exactly once. Its location is allocated when it is
+ * created, or later, and may be changed, so that locations can be reused.
+ *
+ * @author Alex Mandelias
+ */
+public final class Temp extends Operand {
+
+	/** The location of a Temporary whose location isn't allocated yet */
+	public static final int NO_LOCATION = -1;
+
+	/** The number of the Temporary, unique within a graph */
+	public final int number;
+
+	private int location;
+
+	/**
+	 * Constructs a Temporary.
+	 *
+	 * @param number   the number of the Temporary
+	 * @param location the location of the Temporary, or {@link #NO_LOCATION}
+	 */
+	public Temp(int number, int location) {
+		this.number = number;
+		this.location = location;
+	}
+
+	@Override
+	public int location() {
+		return location;
+	}
+
+	/**
+	 * Changes the location of this Temporary.
+	 *
+	 * @param location the new location
+	 */
+	public void setLocation(int location) {
+		this.location = location;
+	}
+
+	@Override
+	public String toString() {
+		return "t" + number;
+	}
+}
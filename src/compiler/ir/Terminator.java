@@ -0,0 +1,178 @@
+package compiler.ir;
+
+import java.util.Map;
+
+import compiler.Condition;
+
+/**
+ * The last instruction of a {@link BasicBlock}, which decides the block that is
+ * executed next. A {@link Kind#BRANCH BRANCH} compares two operands and
+ * continues at its first target if the comparison is true, at its second
+ * otherwise. The operands and the targets can be replaced.
+ *
+ * @author Alex Mandelias
+ */
+public final class Terminator {
+
+	/** The different kinds of Terminators */
+	public enum Kind {
+
+		/** Unconditional jump to one target */
+		JUMP,
+
+		/** Conditional jump to one of two targets */
+		BRANCH,
+
+		/** End of the program, without targets */
+		HALT
+	}
+
+	/** The index of the target of a BRANCH when the comparison is true */
+	public static final int TRUE = 0;
+
+	/** The index of the target of a BRANCH when the comparison is false */
+	public static final int FALSE = 1;
+
+	/** The Kind of this Terminator */
+	public final Kind kind;
+
+	/** The Condition of a BRANCH, {@code null} for other Kinds */
+	public final Condition condition;
+
+	private final Operand[]    operands;
+	private final BasicBlock[] targets;
+
+	private Terminator(Kind kind, Condition condition, Operand[] operands, BasicBlock[] targets) {
+		this.kind = kind;
+		this.condition = condition;
+		this.operands = operands;
+		this.targets = targets;
+	}
+
+	/**
+	 * Constructs a Terminator that jumps to a block.
+	 *
+	 * @param target the block
+	 *
+	 * @return the Terminator
+	 */
+	public static Terminator jump(BasicBlock target) {
+		return new Terminator(Kind.JUMP, null, new Operand[0], new BasicBlock[] { target });
+	}
+
+	/**
+	 * Constructs a Terminator that compares two operands and jumps to one of two
+	 * blocks.
+	 *
+	 * @param condition the Condition of the comparison
+	 * @param left      the left operand of the comparison
+	 * @param right     the right operand of the comparison
+	 * @param ifTrue    the block to jump to if the comparison is true
+	 * @param ifFalse   the block to jump to if the comparison is false
+	 *
+	 * @return the Terminator
+	 */
+	public static Terminator branch(Condition condition, Operand left, Operand right,
+	        BasicBlock ifTrue, BasicBlock ifFalse) {
+		return new Terminator(Kind.BRANCH, condition, new Operand[] { left, right },
+		        new BasicBlock[] { ifTrue, ifFalse });
+	}
+
+	/**
+	 * Constructs a Terminator that ends the program.
+	 *
+	 * @return the Terminator
+	 */
+	public static Terminator halt() {
+		return new Terminator(Kind.HALT, null, new Operand[0], new BasicBlock[0]);
+	}
+
+	/**
+	 * Returns the number of operands of this Terminator.
+	 *
+	 * @return the number of operands
+	 */
+	public int operandCount() {
+		return operands.length;
+	}
+
+	/**
+	 * Returns an operand of this Terminator.
+	 *
+	 * @param index the index of the operand
+	 *
+	 * @return the operand
+	 */
+	public Operand operand(int index) {
+		return operands[index];
+	}
+
+	/**
+	 * Replaces an operand of this Terminator.
+	 *
+	 * @param index   the index of the operand
+	 * @param operand the new operand
+	 */
+	public void setOperand(int index, Operand operand) {
+		operands[index] = operand;
+	}
+
+	/**
+	 * Returns the number of targets of this Terminator.
+	 *
+	 * @return the number of targets
+	 */
+	public int targetCount() {
+		return targets.length;
+	}
+
+	/**
+	 * Returns a target of this Terminator.
+	 *
+	 * @param index the index of the target
+	 *
+	 * @return the target
+	 */
+	public BasicBlock target(int index) {
+		return targets[index];
+	}
+
+	/**
+	 * Replaces a target of this Terminator.
+	 *
+	 * @param index  the index of the target
+	 * @param target the new target
+	 */
+	public void setTarget(int index, BasicBlock target) {
+		targets[index] = target;
+	}
+
+	/**
+	 * Returns a copy of this Terminator, whose targets are the copies of the
+	 * targets of this Terminator.
+	 *
+	 * @param copies the copy of each block
+	 *
+	 * @return the copy
+	 */
+	Terminator copy(Map<BasicBlock, BasicBlock> copies) {
+		final BasicBlock[] newTargets = new BasicBlock[targets.length];
+		for (int i = 0; i < targets.length; ++i)
+			newTargets[i] = copies.get(targets[i]);
+
+		return new Terminator(kind, condition, operands.clone(), newTargets);
+	}
+
+	@Override
+	public String toString() {
+		switch (kind) {
+		case JUMP:
+			return "jump " + targets[0].name();
+		case BRANCH:
+			return String.format("if %s %s %s then %s else %s", operands[0], condition.value,
+			        operands[1], targets[TRUE].name(), targets[FALSE].name());
+		default:
+			return "halt";
+		}
+	}
+}
@@ -0,0 +1,204 @@
+package compiler.ir;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Removes the arithmetic Operations of a graph in {@link SSA} form that
+ * calculate a value that was already calculated, for example the {@code b * b}
+ * of two statements, or twice in the same expression. In SSA form every
+ * version of a Variable has a single value, therefore two Operations with the
+ * same Opcode and the same operands, in any order if the Opcode is
+ * commutative, calculate the same value.
+ * <p>
+ * The values are numbered while walking the dominator tree, so that the value
+ * of an Operation is known in the blocks that can only be executed after it,
+ * and the uses of the result of an Operation whose value is known are replaced
+ * by an operand that holds the value. That is a Variable that was assigned the
+ * value, if it is still the current version of its Variable, otherwise the
+ * Temporary where the value was first calculated.
+ *
+ * @author Alex Mandelias
+ */
+public final class ValueNumbering {
+
+	/* the Opcode and the values of the operands of an arithmetic Operation */
+	private static final class Key {
+		private final Opcode opcode;
+		private final Object x, y;
+
+		private Key(Opcode opcode, Object x, Object y) {
+			this.opcode = opcode;
+			this.x = x;
+			this.y = y;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (!(other instanceof Key))
+				return false;
+
+			final Key other1 = (Key) other;
+			if (other1.opcode != opcode)
+				return false;
+
+			return (other1.x.equals(x) && other1.y.equals(y))
+			        || (opcode.isCommutative() && other1.x.equals(y) && other1.y.equals(x));
+		}
+
+		@Override
+		public int hashCode() {
+			final int operands = opcode.isCommutative() ? x.hashCode() + y.hashCode()
+			        : (31 * x.hashCode()) + y.hashCode();
+
+			return (31 * opcode.hashCode()) + operands;
+		}
+	}
+
+	private final ControlFlowGraph graph;
+
+	private final Map<Key, Deque<Operand>>      values;   // the operands that hold each value, the first last
+	private final Map<Temp, Operand>            replaced; // the Temporaries whose Operations were removed
+	private final Map<Operand, Key>             keys;     // the value of each Temporary and Variable
+	private final Map<Integer, Deque<Variable>> current;  // the current versions of each Variable
+
+	private ValueNumbering(ControlFlowGraph graph) {
+		this.graph = graph;
+		values = new HashMap<>();
+		replaced = new HashMap<>();
+		keys = new HashMap<>();
+		current = new HashMap<>();
+	}
+
+	/**
+	 * Removes the Operations of a graph in SSA form that calculate a value that
+	 * was already calculated. The graph must be complete, and stays in SSA form.
+	 *
+	 * @param graph the graph
+	 */
+	public static void number(ControlFlowGraph graph) {
+		new ValueNumbering(graph).number();
+	}
+
+	private void number() {
+		final List<BasicBlock>                  order    = graph.reversePostorder();
+		final Map<BasicBlock, BasicBlock>       idom     = SSA.dominators(order);
+		final Map<BasicBlock, List<BasicBlock>> children = new HashMap<>();
+		for (final BasicBlock block : order)
+			if (idom.get(block) != block)
+				children.computeIfAbsent(idom.get(block), b -> new ArrayList<>()).add(block);
+
+		// iterative walk of the dominator tree, a block is on the stack once before and once after its children
+		final Deque<BasicBlock> stack   = new ArrayDeque<>();
+		final Deque<Runnable>   undo    = new ArrayDeque<>();
+		final Set<BasicBlock>   entered = new HashSet<>();
+
+		stack.push(order.get(0));
+
+		while (!stack.isEmpty()) {
+			final BasicBlock block = stack.peek();
+
+			if (!entered.add(block)) {
+				stack.pop();
+				undo.pop().run();
+				continue;
+			}
+
+			final List<Runnable> undoHere = new ArrayList<>();
+			number(block, undoHere);
+
+			undo.push(() -> {
+				for (int i = undoHere.size() - 1; i >= 0; --i)
+					undoHere.get(i).run();
+			});
+
+			for (final BasicBlock child : children.getOrDefault(block, new ArrayList<>()))
+				stack.push(child);
+		}
+	}
+
+	/* numbers the values of a block, and adds what must be undone after its children */
+	private void number(BasicBlock block, List<Runnable> undo) {
+		final List<Operation> operations = block.operations();
+
+		for (int i = 0; i < operations.size(); ++i) {
+			final Operation operation = operations.get(i);
+
+			if (operation.opcode != Opcode.PHI)
+				for (int j = 0, count = operation.operandCount(); j < count; ++j)
+					operation.setOperand(j, replaced.getOrDefault(operation.operand(j), operation.operand(j)));
+
+			final Operand result = operation.result();
+			if (result instanceof Variable) {
+				final Variable variable = (Variable) result;
+				final Deque<Variable> versions = current.computeIfAbsent(variable.id,
+				        id -> new ArrayDeque<>());
+
+				versions.push(variable);
+				undo.add(versions::pop);
+			}
+
+			final Key key;
+			if (operation.opcode.isArithmetic())
+				key = new Key(operation.opcode, ValueNumbering.value(operation.operand(0)),
+				        ValueNumbering.value(operation.operand(1)));
+			else if (operation.opcode == Opcode.ASSIGN)
+				key = keys.get(operation.operand(0));
+			else
+				key = null;
+
+			if ((key == null) || (result == null))
+				continue;
+
+			final Operand holder = holder(key);
+			if ((holder != null) && (result instanceof Temp) && operation.opcode.isArithmetic()) {
+				replaced.put((Temp) result, holder);
+				operations.remove(i--);
+				continue;
+			}
+
+			final Deque<Operand> holders = values.computeIfAbsent(key, k -> new ArrayDeque<>());
+			holders.push(result);
+			undo.add(holders::pop);
+			keys.put(result, key);
+		}
+
+		final Terminator terminator = block.terminator();
+		if (terminator != null)
+			for (int i = 0, count = terminator.operandCount(); i < count; ++i)
+				terminator.setOperand(i, replaced.getOrDefault(terminator.operand(i), terminator.operand(i)));
+	}
+
+	/* the operand that holds a value, a Variable that is still current or else the first Temporary */
+	private Operand holder(Key key) {
+		final Deque<Operand> holders = values.get(key);
+		if ((holders == null) || holders.isEmpty())
+			return null;
+
+		for (final Operand holder : holders)
+			if ((holder instanceof Variable) && isCurrent((Variable) holder))
+				return holder;
+
+		final Operand first = holders.peekLast();
+		return first instanceof Temp ? first : null;
+	}
+
+	private boolean isCurrent(Variable variable) {
+		final Deque<Variable> versions = current.get(variable.id);
+		final int             version  = (versions == null) || versions.isEmpty() ? 0
+		        : versions.peek().version;
+
+		return variable.version == version;
+	}
+
+	/* Variables and Temporaries are their own values, Constants are their value */
+	private static Object value(Operand operand) {
+		return operand instanceof Constant ? Integer.valueOf(((Constant) operand).value) : operand;
+	}
+}
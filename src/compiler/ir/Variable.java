@@ -0,0 +1,81 @@
+package compiler.ir;
+
+/**
+ * A version of a Variable of the program. Before a graph is converted to
+ * {@link SSA} form every Variable has only version {@code 0}. Afterwards, each
+ * assignment to the Variable defines a new version, and version {@code 0} is
+ * the value the Variable has when the program starts.
+ * <p>
+ * All versions of a Variable share its location in memory, therefore a version
+ * may only be used where it is the current version of its Variable, which is
+ * always the case in a graph that was just converted to SSA form.
+ *
+ * @author Alex Mandelias
+ */
+public final class Variable extends Operand {
+
+	/** The id of the Variable's symbol in the Symbol Table */
+	public final int id;
+
+	/** The name of the Variable */
+	public final String name;
+
+	/** The version of the Variable */
+	public final int version;
+
+	private final int location;
+
+	/**
+	 * Constructs version {@code 0} of a Variable.
+	 *
+	 * @param id       the id of the Variable's symbol
+	 * @param name     the name of the Variable
+	 * @param location the location of the Variable
+	 */
+	public Variable(int id, String name, int location) {
+		this(id, name, location, 0);
+	}
+
+	private Variable(int id, String name, int location, int version) {
+		this.id = id;
+		this.name = name;
+		this.location = location;
+		this.version = version;
+	}
+
+	/**
+	 * Returns a new version of this Variable.
+	 *
+	 * @param version the version
+	 *
+	 * @return the version of the Variable
+	 */
+	public Variable version(int version) {
+		return new Variable(id, name, location, version);
+	}
+
+	@Override
+	public int location() {
+		return location;
+	}
+
+	/* two Variables are equal if they are the same version of the same Variable */
+	@Override
+	public boolean equals(Object other) {
+		if (!(other instanceof Variable))
+			return false;
+
+		final Variable other1 = (Variable) other;
+		return (other1.id == id) && (other1.version == version);
+	}
+
+	@Override
+	public int hashCode() {
+		return (31 * id) + version;
+	}
+
+	@Override
+	public String toString() {
+		return version == 0 ? name : name + "." + version;
+	}
+}
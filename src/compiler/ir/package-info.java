@@ -0,0 +1,18 @@
+/**
+ * Defines the intermediate representation of a high-level-language program
+ * between its {@link compiler.ast abstract syntax tree} and the machine code: a
+ * {@link compiler.ir.ControlFlowGraph control-flow graph} of
+ * {@link compiler.ir.BasicBlock basic blocks}, whose
+ * {@link compiler.ir.Operation Operations} operate on Variables, Constants and
+ * Temporaries that all live in memory. The graph can be converted to
+ * {@link compiler.ir.SSA static single assignment form} for analysing and
+ * optimising the program, for example by {@link compiler.ir.Propagation
+ * propagating} its Constants, {@link compiler.ir.ValueNumbering numbering}
+ * its values or moving the {@link compiler.ir.LoopInvariants invariants} of its
+ * loops out of them.
+ *
+ * @author Alex Mandelias
+ *
+ * @see compiler.ir.ControlFlowGraph
+ */
+package compiler.ir;
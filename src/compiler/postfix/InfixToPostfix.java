@@ -2,13 +2,21 @@ package compiler.postfix;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Stack;
+
+import compiler.exceptions.UnexpectedTokenException;
 
 /**
  * Defines the static method {@link InfixToPostfix#convertToPostfix(String)
  * convertToPostfix(String)} which converts the {@code infix} expression given
  * as a String to its equivalent {@code postfix} expression represented by a
  * list of {@link compiler.postfix.Token Tokens}.
+ * <p>
+ * The conversion is done by a precedence-climbing parser, which keeps the
+ * operators it hasn't completed on an explicit stack instead of recursing, so
+ * that expressions of any depth can be converted. Addition and subtraction have
+ * the lowest precedence, followed by multiplication, division and modulo
+ * division and then by exponentiation. Exponentiation is right-associative, all
+ * other operators are left-associative.
  *
  * @author Alex Mandelias
  */
@@ -21,69 +29,162 @@ public final class InfixToPostfix {
 	 * Converts the {@code infix} expression of the form "{@code a + b}", to its
 	 * equivalent postfix expression of the form "{@code a b +}". The postfix
 	 * expression is represented by a list of {@code Tokens}.
-	 * <p>
-	 * TODO: error checking
 	 *
 	 * @param infix the infix expression
 	 *
 	 * @return the postfix expression
 	 *
+	 * @throws UnexpectedTokenException if the expression is not valid
+	 *
 	 * @see compiler.postfix.Token
 	 */
-	public static List<Token> convertToPostfix(String infix) {
-		final List<Token>  postfix = new ArrayList<>();
-		final Stack<Token> stack   = new Stack<>();
+	public static List<Token> convertToPostfix(String infix) throws UnexpectedTokenException {
+		return InfixToPostfix.convertToPostfix(InfixToPostfix.tokenise(infix));
+	}
+
+	/**
+	 * Converts the {@code infix} expression, which is already split into
+	 * {@code Tokens}, to its equivalent postfix expression.
+	 *
+	 * @param infix the Tokens of the infix expression
+	 *
+	 * @return the postfix expression
+	 *
+	 * @throws UnexpectedTokenException if the expression is not valid
+	 *
+	 * @see #convertToPostfix(String)
+	 */
+	public static List<Token> convertToPostfix(List<Token> infix)
+	        throws UnexpectedTokenException {
+		final Parser parser = new Parser(infix.size());
+
+		for (final Token token : infix)
+			parser.next(token);
+
+		return parser.finish();
+	}
+
+	/* the precedence of a left parenthesis, lower than that of any operator */
+	private static final int PARENTHESIS = 0;
+
+	// returns the precedence of an operator, higher binds tighter
+	private static int precedence(Token operator) {
+		if (operator == Token.POW)
+			return 3;
+
+		if ((operator == Token.MUL) || (operator == Token.DIV) || (operator == Token.MOD))
+			return 2;
+
+		return 1;
+	}
+
+	private static boolean isRightAssociative(Token operator) {
+		return operator == Token.POW;
+	}
+
+	/*
+	 * The state of the conversion of one expression. The operators whose right
+	 * operand isn't complete yet and the left parentheses that aren't closed yet
+	 * are kept on a stack, together with their precedence. An operator completes
+	 * the operators on the stack that bind at least as tightly as it does, which
+	 * are then added to the postfix expression. Only the stack grows with the
+	 * nesting of the expression, therefore any depth can be converted.
+	 */
+	private static final class Parser {
+
+		private final List<Token> postfix;
+		private final Token[]     operators;
+		private final int[]       precedences;
+		private int               top;
+		private boolean           operand; // whether an operand is expected next
+
+		private Parser(int size) {
+			postfix = new ArrayList<>(size);
+			operators = new Token[size];
+			precedences = new int[size];
+			top = 0;
+			operand = true;
+		}
 
-		stack.push(Token.LEFT_PAREN);
+		private void next(Token token) throws UnexpectedTokenException {
+			if (operand) {
+				if (token == Token.LEFT_PAREN)
+					push(token, InfixToPostfix.PARENTHESIS);
 
-		final String toTokenise = infix + Token.RIGHT_PAREN.value;
+				else if (token.isOperatorOrParenthesis())
+					throw new UnexpectedTokenException(token.value, "an operand");
 
-		for (final Token t : InfixToPostfix.tokenise(toTokenise)) {
+				else {
+					postfix.add(token);
+					operand = false;
+				}
 
-			if (t == Token.LEFT_PAREN) {
-				stack.push(t);
+			} else if (token == Token.RIGHT_PAREN) {
+				popAtLeast(InfixToPostfix.PARENTHESIS + 1);
 
-			} else if (t == Token.RIGHT_PAREN) {
-				while (stack.peek().isOperator())
-					postfix.add(stack.pop());
+				if (top == 0)
+					throw new UnexpectedTokenException(token.value, "an operator");
 
-				stack.pop();
+				--top;
 
-			} else if (t.isOperator()) {
-				while (stack.peek().isOperator() && !InfixToPostfix.precedence(t, stack.peek()))
-					postfix.add(stack.pop());
+			} else if (token.isOperator()) {
+				final int precedence = InfixToPostfix.precedence(token);
 
-				stack.push(t);
+				// an operator of the same precedence binds tighter only if it is to the left
+				popAtLeast(InfixToPostfix.isRightAssociative(token) ? precedence + 1 : precedence);
+				push(token, precedence);
+				operand = true;
 
 			} else
-				postfix.add(t);
+				throw new UnexpectedTokenException(token.value, "an operator");
 		}
 
-		return postfix;
-	}
+		private List<Token> finish() throws UnexpectedTokenException {
+			if (operand)
+				throw new UnexpectedTokenException("", "an operand");
 
-	// returns true iff op1 has higher precedence over op2
-	private static boolean precedence(Token op1, Token op2) {
-		if (op1 == Token.POW)
-			return true;
+			popAtLeast(InfixToPostfix.PARENTHESIS + 1);
 
-		if ((op1 == Token.MUL) || (op1 == Token.DIV) || (op1 == Token.MOD))
-			return (op2 == Token.ADD) || (op2 == Token.SUB);
+			if (top > 0)
+				throw new UnexpectedTokenException("", "')'");
 
-		return false;
-	}
+			return postfix;
+		}
+
+		private void push(Token token, int precedence) {
+			operators[top] = token;
+			precedences[top] = precedence;
+			++top;
+		}
 
-	private static final String splitInfixToSymbolsRegex = "(?<=[^\\.:a-zA-Z\\d])|(?=[^\\.:a-zA-Z\\d])";
+		/* completes the operators at the top of the stack with at least the given precedence */
+		private void popAtLeast(int precedence) {
+			while ((top > 0) && (precedences[top - 1] >= precedence))
+				postfix.add(operators[--top]);
+		}
+	}
 
 	// returns a list of the Tokens found in the infix expression
 	private static List<Token> tokenise(String infix) {
 		final List<Token> tokenList = new ArrayList<>();
 
-		final String parts[] = infix.replaceAll("\\s+", "")
-		        .split(InfixToPostfix.splitInfixToSymbolsRegex);
+		int start = -1;
+		for (int i = 0, length = infix.length(); i <= length; ++i) {
+			final char  c        = i < length ? infix.charAt(i) : ' ';
+			final Token operator = Token.of(c);
+
+			if ((operator != null) || Character.isWhitespace(c)) {
+				if (start != -1) {
+					tokenList.add(Token.of(infix.substring(start, i)));
+					start = -1;
+				}
 
-		for (final String token : parts)
-			tokenList.add(Token.of(token));
+				if (operator != null)
+					tokenList.add(operator);
+
+			} else if (start == -1)
+				start = i;
+		}
 
 		return tokenList;
 	}
@@ -1,71 +1,110 @@
 package compiler.postfix;
 
-import java.util.Arrays;
-import java.util.Collection;
-import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Wrapper for different tokens (strings) that can appear in infix and postfix
  * expressions. Tokens are constructed with the {@link Token#of(String)
- * of(String)} method to allow reuse of frequently used Tokens, which are also
- * public members of this class.
+ * of(String)} method. There is only one Token for every operator and
+ * parenthesis, which are also public members of this class, therefore they can
+ * be compared with {@code ==}.
+ * <p>
+ * The Tokens of the operands that were used recently are kept in a small table
+ * and reused, so that the same operands of the lines of a program don't have to
+ * be allocated every time. The table has a fixed size, since a long-lived
+ * Compiler may compile any number of programs, therefore two operands with the
+ * same value aren't necessarily the same Token.
  *
  * @author Alex Mandelias
  */
 public class Token {
 
 	/** Token for Left Parenthesis */
-	public static final Token LEFT_PAREN = new Token("(");
+	public static final Token LEFT_PAREN = new Token("(", false);
 
 	/** Token for Right Parenthesis */
-	public static final Token RIGHT_PAREN = new Token(")");
+	public static final Token RIGHT_PAREN = new Token(")", false);
 
 	/** Token for Addition */
-	public static final Token ADD = new Token("+");
+	public static final Token ADD = new Token("+", true);
 
 	/** Token for Subtraction */
-	public static final Token SUB = new Token("-");
+	public static final Token SUB = new Token("-", true);
 
 	/** Token for Multiplication */
-	public static final Token MUL = new Token("*");
+	public static final Token MUL = new Token("*", true);
 
 	/** Token for Division */
-	public static final Token DIV = new Token("/");
+	public static final Token DIV = new Token("/", true);
 
 	/** Token for Exponentiation */
-	public static final Token POW = new Token("^");
+	public static final Token POW = new Token("^", true);
 
 	/** Token for Modulo Division */
-	public static final Token MOD = new Token("%");
+	public static final Token MOD = new Token("%", true);
 
-	private static final Collection<Token> operators = new HashSet<>(
-	        Arrays.asList(Token.ADD, Token.SUB, Token.MUL, Token.DIV, Token.POW, Token.MOD));
+	/* the operands used recently, in the slot of the hash of their value */
+	private static final AtomicReferenceArray<Token> operands = new AtomicReferenceArray<>(256);
 
 	/**
-	 * Returns a {@code Token} with a specific {@code value}.
+	 * Returns the {@code Token} with a specific {@code value}.
 	 *
 	 * @param value the value
 	 *
-	 * @return a Token with that value
+	 * @return the Token with that value
 	 */
 	public static Token of(String value) {
-		for (final Token token : Token.operators)
-			if (token.value.equals(value))
+		if (value.length() == 1) {
+			final Token token = Token.of(value.charAt(0));
+			if (token != null)
 				return token;
+		}
+
+		final int   slot   = value.hashCode() & (Token.operands.length() - 1);
+		final Token recent = Token.operands.get(slot);
+		if ((recent != null) && recent.value.equals(value))
+			return recent;
 
-		switch (value) {
-		case "(":
+		final Token token = new Token(value, false);
+		Token.operands.set(slot, token);
+		return token;
+	}
+
+	/**
+	 * Returns the {@code Token} for an operator or a parenthesis.
+	 *
+	 * @param c the character of the operator or the parenthesis
+	 *
+	 * @return the Token, or {@code null} if the character is neither
+	 */
+	public static Token of(char c) {
+		switch (c) {
+		case '(':
 			return Token.LEFT_PAREN;
-		case ")":
+		case ')':
 			return Token.RIGHT_PAREN;
+		case '+':
+			return Token.ADD;
+		case '-':
+			return Token.SUB;
+		case '*':
+			return Token.MUL;
+		case '/':
+			return Token.DIV;
+		case '^':
+			return Token.POW;
+		case '%':
+			return Token.MOD;
 		default:
-			return new Token(value);
+			return null;
 		}
 	}
 
 	/** The value the Token encapsulates */
 	public final String value;
 
+	private final boolean isOperator;
+
 	/**
 	 * Returns whether or not this {@code Token} represents a mathematical operator.
 	 *
@@ -73,7 +112,7 @@ public class Token {
 	 *         otherwise
 	 */
 	public boolean isOperator() {
-		return Token.operators.contains(this);
+		return isOperator;
 	}
 
 	/**
@@ -88,8 +127,9 @@ public class Token {
 	}
 
 	// instantiate only using the `of(String)` method
-	private Token(String value) {
+	private Token(String value, boolean isOperator) {
 		this.value = value;
+		this.isOperator = isOperator;
 	}
 
 	@Override
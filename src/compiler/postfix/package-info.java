@@ -5,8 +5,6 @@
  * appear in an expression</li>
  * <li>{@link compiler.postfix.InfixToPostfix convert} an {@code infix}
  * expression to its equivalent {@code postfix} expression</li>
- * <li>produce the machine code that {@link compiler.postfix.PostfixEvaluator
- * evaluates} a {@code postfix} expression</li>
  * </ul>
  *
  * @author Alex Mandelias
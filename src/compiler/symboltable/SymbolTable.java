@@ -1,7 +1,9 @@
 package compiler.symboltable;
 
-import java.util.LinkedHashMap;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.function.IntUnaryOperator;
 
 /**
  * Encapsulates information about different {@code symbols} found when compiling
@@ -10,16 +12,87 @@ import java.util.Map;
  * the implementation's completeness, RuntimeExceptions are thrown when
  * information about unknown symbols is requested and when duplicate entries are
  * added.
+ * <p>
+ * Symbols are {@link #intern(String) interned} to dense {@code ids}, ideally
+ * once when they are first read, and the information about them is stored in
+ * arrays indexed by their id and their {@link SymbolType Type}. The methods that
+ * accept ids instead of Strings neither hash the symbol nor allocate any
+ * objects, and {@link #location(int, SymbolType)} reports a missing symbol by
+ * returning {@link #NOT_FOUND} instead of throwing an exception.
  *
  * @author Alex Mandelias
  */
 public class SymbolTable {
 
-	private final Map<SymbolKey, SymbolInfo> map;
+	/** Returned by the lookup methods when there is no such symbol */
+	public static final int NOT_FOUND = -1;
+
+	private static final int TYPES = SymbolType.values().length;
+
+	private final Map<String, Integer> ids;
+
+	private String[] symbols;   // by id
+	private int[]    locations; // by slot (id and type), NOT_FOUND if there is no entry
+	private String[] varTypes;  // by slot
+	private int[]    entries;   // the slots of the entries in the order they were added
+	private int      idCount, size;
 
 	/** Constructs an empty SymbolTable */
 	public SymbolTable() {
-		map = new LinkedHashMap<>();
+		ids = new HashMap<>();
+		symbols = new String[16];
+		locations = new int[16 * SymbolTable.TYPES];
+		varTypes = new String[16 * SymbolTable.TYPES];
+		entries = new int[16];
+		idCount = 0;
+		size = 0;
+
+		Arrays.fill(locations, SymbolTable.NOT_FOUND);
+	}
+
+	/**
+	 * Returns the id of a {@code symbol}, assigning the next available id to it if
+	 * it doesn't have one. Ids are assigned regardless of entries being added for
+	 * the symbol.
+	 *
+	 * @param symbol the symbol
+	 *
+	 * @return the id of the symbol
+	 */
+	public int intern(String symbol) {
+		final Integer id = ids.get(symbol);
+		if (id != null)
+			return id;
+
+		if (idCount == symbols.length)
+			grow();
+
+		symbols[idCount] = symbol;
+		ids.put(symbol, idCount);
+		return idCount++;
+	}
+
+	/**
+	 * Returns the id of a {@code symbol}, without assigning one to it.
+	 *
+	 * @param symbol the symbol
+	 *
+	 * @return the id of the symbol, or {@link #NOT_FOUND} if it doesn't have one
+	 */
+	public int idOf(String symbol) {
+		final Integer id = ids.get(symbol);
+		return id == null ? SymbolTable.NOT_FOUND : id;
+	}
+
+	/**
+	 * Returns the symbol that has an {@code id}.
+	 *
+	 * @param id the id of the symbol
+	 *
+	 * @return the symbol
+	 */
+	public String symbol(int id) {
+		return symbols[id];
 	}
 
 	/**
@@ -33,13 +106,60 @@ public class SymbolTable {
 	 * @param varType  the varType
 	 */
 	public void addEntry(String symbol, SymbolType type, int location, String varType) {
-		final SymbolInfo value = new SymbolInfo(symbol, type, location, varType);
-		final SymbolKey  key   = value.key();
+		addEntry(intern(symbol), type, location, varType);
+	}
+
+	/**
+	 * Same as {@link #addEntry(String, SymbolType, int, String)} but for the
+	 * symbol with an {@code id}.
+	 *
+	 * @param id       the id of the symbol
+	 * @param type     the type
+	 * @param location the location
+	 * @param varType  the varType
+	 */
+	public void addEntry(int id, SymbolType type, int location, String varType) {
+		final int slot = SymbolTable.slot(id, type);
+
+		if (locations[slot] != SymbolTable.NOT_FOUND)
+			throw new DuplicateSymbolException(new SymbolKey(symbols[id], type));
+
+		if (size == entries.length)
+			entries = Arrays.copyOf(entries, 2 * size);
+
+		locations[slot] = location;
+		varTypes[slot] = varType;
+		entries[size++] = slot;
+	}
+
+	/**
+	 * Changes the location of the existing symbol with an {@code id} and a
+	 * specific {@code type}.
+	 *
+	 * @param id       the id of the symbol
+	 * @param type     the type
+	 * @param location the new location
+	 */
+	public void setLocation(int id, SymbolType type, int location) {
+		final int slot = SymbolTable.slot(id, type);
 
-		if (existsSymbol(key.symbol, key.type))
-			throw new DuplicateSymbolException(key);
+		if (locations[slot] == SymbolTable.NOT_FOUND)
+			throw new UnknownSymbolException(symbols[id], type);
 
-		map.put(key, value);
+		locations[slot] = location;
+	}
+
+	/**
+	 * Changes the location of every symbol of a specific {@code type}, for
+	 * example after the code that the labels point to was moved.
+	 *
+	 * @param type       the type
+	 * @param relocation the new location of each old location
+	 */
+	public void relocate(SymbolType type, IntUnaryOperator relocation) {
+		for (int i = 0; i < size; ++i)
+			if ((entries[i] % SymbolTable.TYPES) == type.ordinal())
+				locations[entries[i]] = relocation.applyAsInt(locations[entries[i]]);
 	}
 
 	/**
@@ -53,7 +173,48 @@ public class SymbolTable {
 	 *         {@code false} otherwise
 	 */
 	public boolean existsSymbol(String symbol, SymbolType type) {
-		return map.containsKey(new SymbolKey(symbol, type));
+		final int id = idOf(symbol);
+		return (id != SymbolTable.NOT_FOUND) && existsSymbol(id, type);
+	}
+
+	/**
+	 * Same as {@link #existsSymbol(String, SymbolType)} but for the symbol with an
+	 * {@code id}.
+	 *
+	 * @param id   the id of the symbol
+	 * @param type the type
+	 *
+	 * @return {@code true} if the symbol of the given {@code type} exists,
+	 *         {@code false} otherwise
+	 */
+	public boolean existsSymbol(int id, SymbolType type) {
+		return location(id, type) != SymbolTable.NOT_FOUND;
+	}
+
+	/**
+	 * Returns the location of the symbol with an {@code id} and a specific
+	 * {@code type}.
+	 *
+	 * @param id   the id of the symbol
+	 * @param type the type
+	 *
+	 * @return the location, or {@link #NOT_FOUND} if there is no such symbol
+	 */
+	public int location(int id, SymbolType type) {
+		return locations[SymbolTable.slot(id, type)];
+	}
+
+	/**
+	 * Returns the varType of the symbol with an {@code id} and a specific
+	 * {@code type}.
+	 *
+	 * @param id   the id of the symbol
+	 * @param type the type
+	 *
+	 * @return the varType, or {@code null} if there is no such symbol
+	 */
+	public String varType(int id, SymbolType type) {
+		return varTypes[SymbolTable.slot(id, type)];
 	}
 
 	/**
@@ -77,21 +238,46 @@ public class SymbolTable {
 	 * @return information about the symbol
 	 */
 	public SymbolInfo getSymbol(String symbol, SymbolType... types) {
-		SymbolInfo info = null;
+		final int id = idOf(symbol);
 
-		for (final SymbolType type : types)
-			if ((info = map.get(new SymbolKey(symbol, type))) != null)
-				break;
+		if (id != SymbolTable.NOT_FOUND)
+			for (final SymbolType type : types)
+				if (existsSymbol(id, type))
+					return new SymbolInfo(symbol, type, location(id, type), varType(id, type));
 
-		if (info == null)
-			throw new UnknownSymbolException(symbol, types);
+		throw new UnknownSymbolException(symbol, types);
+	}
 
-		return info;
+	/**
+	 * Returns the number of entries in the table.
+	 *
+	 * @return the number of entries
+	 */
+	public int size() {
+		return size;
 	}
 
-	/** Clears the table */
+	/**
+	 * Removes the most recently added entries so that only the first {@code size}
+	 * entries remain in the table. The ids of the symbols are not affected.
+	 *
+	 * @param size the number of entries to keep
+	 */
+	public void truncate(int size) {
+		for (int i = size; i < this.size; ++i) {
+			locations[entries[i]] = SymbolTable.NOT_FOUND;
+			varTypes[entries[i]] = null;
+		}
+
+		this.size = Math.min(size, this.size);
+	}
+
+	/** Clears the table, including the ids of the symbols */
 	public void clear() {
-		map.clear();
+		truncate(0);
+		ids.clear();
+		Arrays.fill(symbols, 0, idCount, null);
+		idCount = 0;
 	}
 
 	@Override
@@ -99,9 +285,31 @@ public class SymbolTable {
 		final StringBuilder sb = new StringBuilder(
 		        String.format("%12s%12s%12s%12s\n", "Symbol", "Type", "Location", "Var_Type"));
 
-		for (final SymbolInfo info : map.values())
+		final SymbolType[] types = SymbolType.values();
+		for (int i = 0; i < size; ++i) {
+			final int slot = entries[i];
+			final int id   = slot / SymbolTable.TYPES;
+
+			final SymbolInfo info = new SymbolInfo(symbols[id], types[slot % SymbolTable.TYPES],
+			        locations[slot], varTypes[slot]);
+
 			sb.append(info).append(System.lineSeparator());
+		}
 
 		return sb.toString();
 	}
+
+	private static int slot(int id, SymbolType type) {
+		return (id * SymbolTable.TYPES) + type.ordinal();
+	}
+
+	private void grow() {
+		final int oldSlots = locations.length;
+
+		symbols = Arrays.copyOf(symbols, 2 * symbols.length);
+		locations = Arrays.copyOf(locations, 2 * oldSlots);
+		varTypes = Arrays.copyOf(varTypes, 2 * oldSlots);
+
+		Arrays.fill(locations, oldSlots, locations.length, SymbolTable.NOT_FOUND);
+	}
 }
@@ -1,7 +1,6 @@
 package compiler.symboltable;
 
-import java.lang.reflect.InvocationTargetException;
-import java.util.regex.Pattern;
+import java.util.function.Function;
 
 import compiler.exceptions.CompilerException;
 import compiler.exceptions.NotALabelException;
@@ -11,50 +10,88 @@ import compiler.exceptions.UnexpectedTokenException;
 /**
  * The Type of a {@link SymbolInfo Symbol} found in a high-level-language
  * program. {@code Symbols} may represent Variables, Constants or Labels and
- * have the corresponding type. The Type is determined using a regular
- * expression that a {@code Symbol} must match. The {@code assert} methods use
- * them and may throw an {@link compiler.exceptions.CompilerException
- * CompmilerException} associated with each type when the assertion fails.
+ * have the corresponding type. The Type is determined by the characters that a
+ * {@code Symbol} consists of:
+ * <ul>
+ * <li>Variables: a letter followed by letters, digits and underscores</li>
+ * <li>Constants: a non-negative integer without leading zeros</li>
+ * <li>Labels: a colon followed by letters, digits and underscores</li>
+ * </ul>
+ * The {@code assert} methods use them and may throw an
+ * {@link compiler.exceptions.CompilerException CompmilerException} associated
+ * with each type when the assertion fails.
  *
  * @author Alex Mandelias
  */
 public enum SymbolType {
 
 	/** Symbol for a Variable */
-	VARIABLE('V', "^[a-zA-Z]\\w*$", NotAVariableException.class),
+	VARIABLE('V', NotAVariableException::new),
 
 	/** Symbol for a Constant */
-	CONSTANT('C', "^[1-9]\\d*|0$", null),
+	CONSTANT('C', null),
 
 	/** Symbol for a Line */
-	LABEL('L', "^:\\w*$", NotALabelException.class);
+	LABEL('L', NotALabelException::new);
 
-	/** The Pattern that Symbols of this Type match */
-	public final Pattern pattern;
-
-	private final char                               c;
-	private final Class<? extends CompilerException> exc;
+	private final char                                c;
+	private final Function<String, CompilerException> exc;
 
 	/**
-	 * Returns the type of a {@code symbol} according to the {@code pattern} (regex)
-	 * of each of the SymbolTypes defined in this enum.
+	 * Returns the type of a {@code symbol} according to the characters it consists
+	 * of.
 	 *
 	 * @param symbol the symbol
 	 *
 	 * @return the enum constant corresponding to the symbol's type, or {@code null}
-	 *         if no enum constants match the symbol
+	 *         if the symbol isn't of any type
 	 */
 	public static SymbolType typeOf(String symbol) {
-		for (final SymbolType type : SymbolType.values())
-			if (type.pattern.matcher(symbol).find())
-				return type;
+		return SymbolType.typeOf(symbol, 0, symbol.length());
+	}
+
+	/**
+	 * Returns the type of the symbol that consists of the characters of a
+	 * {@code CharSequence} from {@code start} (inclusive) to {@code end}
+	 * (exclusive), without creating a String for the symbol.
+	 *
+	 * @param chars the characters
+	 * @param start the index of the first character of the symbol
+	 * @param end   the index after the last character of the symbol
+	 *
+	 * @return the enum constant corresponding to the symbol's type, or {@code null}
+	 *         if the symbol isn't of any type
+	 */
+	public static SymbolType typeOf(CharSequence chars, int start, int end) {
+		if (start >= end)
+			return null;
+
+		final char first = chars.charAt(start);
+
+		if (first == '0')
+			return (end - start) == 1 ? CONSTANT : null;
+
+		if (SymbolType.isDigit(first)) {
+			for (int i = start + 1; i < end; ++i)
+				if (!SymbolType.isDigit(chars.charAt(i)))
+					return null;
+
+			return CONSTANT;
+		}
+
+		if ((first == ':') || SymbolType.isLetter(first)) {
+			for (int i = start + 1; i < end; ++i)
+				if (!SymbolType.isWordCharacter(chars.charAt(i)))
+					return null;
+
+			return first == ':' ? LABEL : VARIABLE;
+		}
 
 		return null;
 	}
 
-	SymbolType(char c, String regex, Class<? extends CompilerException> exc) {
+	SymbolType(char c, Function<String, CompilerException> exc) {
 		this.c = c;
-		pattern = Pattern.compile(regex);
 		this.exc = exc;
 	}
 
@@ -72,13 +109,24 @@ public enum SymbolType {
 	 * @throws CompilerException if the symbol doesn't match the type
 	 */
 	public static void assertType(String symbol, SymbolType type) throws CompilerException {
-		if (!type.pattern.matcher(symbol).find())
-			try {
-				throw type.exc.getDeclaredConstructor(String.class).newInstance(symbol);
-			} catch (InstantiationException | IllegalAccessException | IllegalArgumentException
-			        | InvocationTargetException | NoSuchMethodException | SecurityException e) {
-				throw new RuntimeException(e);
-			}
+		SymbolType.assertType(symbol, SymbolType.typeOf(symbol), type);
+	}
+
+	/**
+	 * Asserts that the {@code symbol}, whose type is already known, matches a
+	 * specific {@code type}.
+	 *
+	 * @param symbol     the symbol
+	 * @param symbolType the type of the symbol, {@code null} if it isn't of any
+	 *                   type
+	 * @param type       the expected type of the symbol
+	 *
+	 * @throws CompilerException if the symbol doesn't match the type
+	 */
+	public static void assertType(String symbol, SymbolType symbolType, SymbolType type)
+	        throws CompilerException {
+		if (symbolType != type)
+			throw type.exc.apply(symbol);
 	}
 
 	/**
@@ -91,11 +139,36 @@ public enum SymbolType {
 	 */
 	public static void assertTypeNot(String symbol, SymbolType type)
 	        throws UnexpectedTokenException {
-		if (type.pattern.matcher(symbol).find())
-			try {
-				throw new UnexpectedTokenException(symbol, "not a " + type.name());
-			} catch (IllegalArgumentException | SecurityException e) {
-				throw new RuntimeException(e);
-			}
+		SymbolType.assertTypeNot(symbol, SymbolType.typeOf(symbol), type);
+	}
+
+	/**
+	 * Asserts that the {@code symbol}, whose type is already known, does not match
+	 * a specific {@code type}.
+	 *
+	 * @param symbol     the symbol
+	 * @param symbolType the type of the symbol, {@code null} if it isn't of any
+	 *                   type
+	 * @param type       the expected type of the symbol
+	 *
+	 * @throws UnexpectedTokenException if the symbol matches the type
+	 */
+	public static void assertTypeNot(String symbol, SymbolType symbolType, SymbolType type)
+	        throws UnexpectedTokenException {
+		if (symbolType == type)
+			throw new UnexpectedTokenException(symbol, "not a " + type.name());
+	}
+
+	// letters, digits and underscores may appear after the first character
+	private static boolean isWordCharacter(char c) {
+		return SymbolType.isLetter(c) || SymbolType.isDigit(c) || (c == '_');
+	}
+
+	private static boolean isLetter(char c) {
+		return ((c >= 'a') && (c <= 'z')) || ((c >= 'A') && (c <= 'Z'));
+	}
+
+	private static boolean isDigit(char c) {
+		return (c >= '0') && (c <= '9');
 	}
 }
@@ -5,6 +5,10 @@ import java.util.Arrays;
 /**
  * An implementation of the RAM, CodeReader, CodeWriter interfaces.
  * <p>
+ * Every cell is stamped with the epoch in which it was last written and a cell
+ * with an older stamp reads as 0, therefore clearing the Memory only starts a
+ * new epoch and takes constant time regardless of its size.
+ * <p>
  * TODO: some overflow/underflow maybe, or just mod(0x10000) each value written
  *
  * @author Alex Mandelias
@@ -17,8 +21,11 @@ public class Memory implements CodeReader, CodeWriter {
 	}
 
 	private final int[] data;
+	private final int[] epochs;
 	private final int   size;
 
+	private int epoch;
+
 	/**
 	 * Constructs the Memory with the given {@code size}.
 	 *
@@ -26,7 +33,9 @@ public class Memory implements CodeReader, CodeWriter {
 	 */
 	public Memory(int size) {
 		data = new int[size];
+		epochs = new int[size];
 		this.size = size;
+		epoch = 0;
 	}
 
 	@Override
@@ -37,6 +46,7 @@ public class Memory implements CodeReader, CodeWriter {
 	@Override
 	public void write(int address, int value) {
 		data[address] = value;
+		epochs[address] = epoch;
 	}
 
 	/**
@@ -67,7 +77,7 @@ public class Memory implements CodeReader, CodeWriter {
 
 	@Override
 	public int read(int address) {
-		return data[address];
+		return epochs[address] == epoch ? data[address] : 0;
 	}
 
 	/**
@@ -94,7 +104,11 @@ public class Memory implements CodeReader, CodeWriter {
 
 	@Override
 	public void clear() {
-		Arrays.fill(data, 0);
+		// after 2^32 epochs the stamps would repeat, so they are actually cleared
+		if (++epoch == 0) {
+			Arrays.fill(data, 0);
+			Arrays.fill(epochs, 0);
+		}
 	}
 
 	@Override
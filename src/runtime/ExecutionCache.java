@@ -0,0 +1,115 @@
+package runtime;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import utility.ContentCache;
+import utility.Digest;
+import utility.Pool;
+
+/**
+ * A cache in front of the {@link SML_Executor}. Execution is deterministic given
+ * the program, its input and the limits of the execution, therefore the
+ * {@link ExecutionResult} of a previous execution can be returned instead of
+ * executing the same program again. Results are kept in memory, bounded by
+ * their total size, and optionally in a directory.
+ * <p>
+ * Executions that are stopped because of a timeout or a cancellation depend on
+ * the time they took and are never cached. The Executors that execute the
+ * programs that aren't found in the cache are reused, from a {@link Pool}
+ * shared by all caches.
+ *
+ * @author Alex Mandelias
+ *
+ * @see ContentCache
+ */
+public final class ExecutionCache {
+
+	/*
+	 * Increment the version whenever the Executor or the ExecutionResult changes
+	 * so that results of an older Executor are not found in a cache directory.
+	 */
+	private static final int cacheVersion = 1;
+
+	/* enough for a few threads that execute at the same time */
+	private static final Pool<SML_Executor> executors = new Pool<>(
+	        Runtime.getRuntime().availableProcessors(), SML_Executor::new);
+
+	private final ContentCache<ExecutionResult> cache;
+
+	/**
+	 * Constructs an in-memory cache of results with a total size of at most
+	 * {@code capacity} bytes.
+	 *
+	 * @param capacity the maximum total size of the results kept in memory
+	 */
+	public ExecutionCache(long capacity) {
+		this(capacity, null);
+	}
+
+	/**
+	 * Constructs a cache of results with a total size of at most {@code capacity}
+	 * bytes in memory, which also stores every result in the {@code directory}.
+	 *
+	 * @param capacity  the maximum total size of the results kept in memory
+	 * @param directory the directory where results are stored, or {@code null} to
+	 *                  keep results only in memory
+	 */
+	public ExecutionCache(long capacity, File directory) {
+		cache = new ContentCache<>(capacity, ExecutionResult::size, directory,
+		        ExecutionResult.class, ExecutionStatus.class);
+	}
+
+	/**
+	 * Returns the result of executing the {@code image} with the {@code input},
+	 * executing it only if there is no result for this combination of image,
+	 * input and limits in the cache.
+	 *
+	 * @param image   the machine-code program
+	 * @param input   the input of the program, a line for each value it reads
+	 * @param limit   the maximum number of instructions, 0 for no limit
+	 * @param timeout the maximum number of milliseconds, 0 for no limit
+	 *
+	 * @return the result of the execution
+	 *
+	 * @see SML_Executor#execute(int[], long, long)
+	 */
+	public ExecutionResult execute(int[] image, String input, long limit, long timeout) {
+		final String key = new Digest().add(ExecutionCache.cacheVersion).add(image).add(input)
+		        .add(limit).add(timeout).toString();
+
+		ExecutionResult result = cache.get(key);
+		if (result == null) {
+			result = ExecutionCache.executeUncached(image, input, limit, timeout);
+
+			if ((result.status != ExecutionStatus.TIMEOUT)
+			        && (result.status != ExecutionStatus.CANCELLED))
+				cache.put(key, result);
+		}
+
+		return result;
+	}
+
+	private static ExecutionResult executeUncached(int[] image, String input, long limit,
+	        long timeout) {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+		final SML_Executor executor = ExecutionCache.executors.acquire();
+		try {
+			executor.reset(SML_Executor.streams()
+			        .in(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)))
+			        .out(new PrintStream(out, true, StandardCharsets.UTF_8))
+			        .err(new PrintStream(err, true, StandardCharsets.UTF_8)));
+
+			final ExecutionStatus status = executor.execute(image, limit, timeout);
+			return new ExecutionResult(status, out.toString(StandardCharsets.UTF_8),
+			        err.toString(StandardCharsets.UTF_8), executor.getDumpString());
+		} finally {
+			ExecutionCache.executors.release(executor);
+		}
+	}
+}
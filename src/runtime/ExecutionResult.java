@@ -0,0 +1,53 @@
+package runtime;
+
+import java.io.Serializable;
+
+/**
+ * The result of executing a machine-code program with a specific input. It
+ * contains everything that the execution produced: how it ended, what was
+ * written to the Output and Error Streams and the final state of the Executor.
+ *
+ * @author Alex Mandelias
+ *
+ * @see ExecutionCache
+ */
+public final class ExecutionResult implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/** How the execution ended */
+	public final ExecutionStatus status;
+
+	/** Everything the execution wrote to the Output Stream */
+	public final String output;
+
+	/** Everything the execution wrote to the Error Stream */
+	public final String errors;
+
+	/** The registers and the memory of the Executor when the execution ended */
+	public final String dump;
+
+	/**
+	 * Constructs the ExecutionResult.
+	 *
+	 * @param status the status
+	 * @param output the output
+	 * @param errors the errors
+	 * @param dump   the dump
+	 */
+	public ExecutionResult(ExecutionStatus status, String output, String errors, String dump) {
+		this.status = status;
+		this.output = output;
+		this.errors = errors;
+		this.dump = dump;
+	}
+
+	/**
+	 * Returns an estimate of the number of bytes this result occupies in memory.
+	 *
+	 * @return the size
+	 */
+	public long size() {
+		return 64 + (2L * (output.length() + errors.length() + dump.length()));
+	}
+}
@@ -0,0 +1,35 @@
+package runtime;
+
+/**
+ * The different ways the execution of a machine-code program can end. Every
+ * call to {@link SML_Executor#execute execute} reports exactly one of them.
+ *
+ * @author Alex Mandelias
+ */
+public enum ExecutionStatus {
+
+	/** The program executed a {@code HALT} instruction */
+	HALTED("halted"),
+
+	/** The program was stopped by an error (invalid instruction, division by 0...) */
+	ERROR("stopped due to an error"),
+
+	/** The program executed more instructions than it was allowed to */
+	INSTRUCTION_LIMIT("exceeded the instruction limit"),
+
+	/** The program ran for longer than it was allowed to */
+	TIMEOUT("exceeded the time limit"),
+
+	/** The program was cancelled from another thread */
+	CANCELLED("was cancelled"),
+
+	/** The program reached the exact same state twice and would never halt */
+	INFINITE_LOOP("entered an infinite loop");
+
+	/** A short description of how the execution ended */
+	public final String description;
+
+	ExecutionStatus(String description) {
+		this.description = description;
+	}
+}
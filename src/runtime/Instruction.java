@@ -2,15 +2,16 @@ package runtime;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Scanner;
 
 import runtime.exceptions.InvalidInstructionException;
 
 /**
  * An Instruction that is executed in the context of an {@link SML_Executor}.
  * Instructions are identified by their {@link Instruction#operationCode
- * operation code} and also use an {@link Instruction#operand operand} as the
- * address of memory they will operate on.
+ * operation code} and are executed with an operand, the address of memory they
+ * will operate on. The operand is passed to each execution instead of being
+ * stored in the Instruction, since the Instructions are shared by all
+ * SML_Executors, including the ones that run concurrently.
  *
  * @author Alex Mandelias
  */
@@ -23,12 +24,9 @@ public enum Instruction {
 	 */
 	READ_INT(0x10) {
 		@Override
-		protected void execute(SML_Executor executor) {
-			@SuppressWarnings("resource")
-			final Scanner scanner = new Scanner(System.in);
-
+		protected void execute(SML_Executor executor, int operand) {
 			executor.prompt();
-			final String input0 = scanner.nextLine();
+			final String input0 = executor.readLine();
 			final int    input;
 
 			try {
@@ -48,12 +46,9 @@ public enum Instruction {
 	 */
 	READ_STRING(0x11) {
 		@Override
-		protected void execute(SML_Executor executor) {
-			@SuppressWarnings("resource")
-			final Scanner scanner = new Scanner(System.in);
-
+		protected void execute(SML_Executor executor, int operand) {
 			executor.prompt();
-			final char[] array = scanner.nextLine().toCharArray();
+			final char[] array = executor.readLine().toCharArray();
 
 			executor.writeChars(operand, array);
 		}
@@ -66,7 +61,7 @@ public enum Instruction {
 	 */
 	WRITE(0x12) {
 		@Override
-		protected void execute(SML_Executor executor) {
+		protected void execute(SML_Executor executor, int operand) {
 			executor.output();
 			executor.message("%04x", executor.read(operand));
 		}
@@ -79,7 +74,7 @@ public enum Instruction {
 	 */
 	WRITE_NL(0x13) {
 		@Override
-		protected void execute(SML_Executor executor) {
+		protected void execute(SML_Executor executor, int operand) {
 			executor.output();
 			executor.message("%04x%n", executor.read(operand));
 		}
@@ -92,7 +87,7 @@ public enum Instruction {
 	 */
 	WRITE_STRING(0x14) {
 		@Override
-		protected void execute(SML_Executor executor) {
+		protected void execute(SML_Executor executor, int operand) {
 			final char[] chars = executor.readChars(operand);
 
 			executor.output();
@@ -108,7 +103,7 @@ public enum Instruction {
 	 */
 	WRITE_STRING_NL(0x15) {
 		@Override
-		protected void execute(SML_Executor executor) {
+		protected void execute(SML_Executor executor, int operand) {
 			final char[] chars = executor.readChars(operand);
 
 			executor.output();
@@ -125,7 +120,7 @@ public enum Instruction {
 	 */
 	LOAD(0x20) {
 		@Override
-		protected void execute(SML_Executor executor) {
+		protected void execute(SML_Executor executor, int operand) {
 			executor.setAccumulator(executor.read(operand));
 		}
 	},
@@ -137,7 +132,7 @@ public enum Instruction {
 	 */
 	STORE(0x21) {
 		@Override
-		protected void execute(SML_Executor executor) {
+		protected void execute(SML_Executor executor, int operand) {
 			executor.write(operand, executor.getAccumulator());
 		}
 	},
@@ -149,7 +144,7 @@ public enum Instruction {
 	 */
 	ADD(0x30) {
 		@Override
-		protected void execute(SML_Executor executor) {
+		protected void execute(SML_Executor executor, int operand) {
 			final int sum = executor.getAccumulator() + executor.read(operand);
 			executor.setAccumulator(sum);
 		}
@@ -162,7 +157,7 @@ public enum Instruction {
 	 */
 	SUBTRACT(0x31) {
 		@Override
-		protected void execute(SML_Executor executor) {
+		protected void execute(SML_Executor executor, int operand) {
 			final int difference = executor.getAccumulator() - executor.read(operand);
 			executor.setAccumulator(difference);
 		}
@@ -175,7 +170,7 @@ public enum Instruction {
 	 */
 	DIVIDE(0x32) {
 		@Override
-		protected void execute(SML_Executor executor) {
+		protected void execute(SML_Executor executor, int operand) {
 			final int divisor = executor.read(operand);
 			if (divisor == 0)
 				throw new ArithmeticException("Division By 0");
@@ -193,7 +188,7 @@ public enum Instruction {
 	 */
 	MULTIPLY(0x33) {
 		@Override
-		protected void execute(SML_Executor executor) {
+		protected void execute(SML_Executor executor, int operand) {
 			final int product = executor.getAccumulator() * executor.read(operand);
 			executor.setAccumulator(product);
 		}
@@ -207,7 +202,7 @@ public enum Instruction {
 	 */
 	MOD(0x34) {
 		@Override
-		protected void execute(SML_Executor executor) {
+		protected void execute(SML_Executor executor, int operand) {
 			final int divisor = executor.read(operand);
 			if (divisor == 0)
 				throw new ArithmeticException("Division By 0");
@@ -225,7 +220,7 @@ public enum Instruction {
 	 */
 	POW(0x35) {
 		@Override
-		protected void execute(SML_Executor executor) {
+		protected void execute(SML_Executor executor, int operand) {
 			final double power = Math.pow(executor.getAccumulator(), executor.read(operand));
 			executor.setAccumulator((int) power);
 		}
@@ -238,7 +233,7 @@ public enum Instruction {
 	 */
 	BRANCH(0x40) {
 		@Override
-		protected void execute(SML_Executor executor) {
+		protected void execute(SML_Executor executor, int operand) {
 			executor.setInstructionPointer(operand);
 		}
 	},
@@ -250,7 +245,7 @@ public enum Instruction {
 	 */
 	BRANCHNEG(0x41) {
 		@Override
-		protected void execute(SML_Executor executor) {
+		protected void execute(SML_Executor executor, int operand) {
 			if (executor.getAccumulator() < 0)
 				executor.setInstructionPointer(operand);
 		}
@@ -263,7 +258,7 @@ public enum Instruction {
 	 */
 	BRANCHZERO(0x42) {
 		@Override
-		protected void execute(SML_Executor executor) {
+		protected void execute(SML_Executor executor, int operand) {
 			if (executor.getAccumulator() == 0)
 				executor.setInstructionPointer(operand);
 		}
@@ -276,7 +271,7 @@ public enum Instruction {
 	 */
 	HALT(0x43) {
 		@Override
-		protected void execute(SML_Executor executor) {
+		protected void execute(SML_Executor executor, int operand) {
 			executor.halt();
 		}
 	},
@@ -288,7 +283,7 @@ public enum Instruction {
 	 */
 	DUMP(0xf0) {
 		@Override
-		protected void execute(SML_Executor executor) {
+		protected void execute(SML_Executor executor, int operand) {
 			executor.dump();
 		}
 	},
@@ -300,7 +295,7 @@ public enum Instruction {
 	 */
 	NOOP(0xf1) {
 		@Override
-		protected void execute(SML_Executor executor) {
+		protected void execute(SML_Executor executor, int operand) {
 
 		}
 	};
@@ -308,9 +303,6 @@ public enum Instruction {
 	/** The byte that identifies this Instruction */
 	private final int operationCode;
 
-	/** The memory address this Instruction will use during execution */
-	protected int operand;
-
 	private static final Map<Integer, Instruction> map;
 
 	static {
@@ -324,30 +316,27 @@ public enum Instruction {
 	 * {@code SML_Executor}.
 	 *
 	 * @param executor the SML_Executor
+	 * @param operand  the memory address this Instruction uses
 	 */
-	protected abstract void execute(SML_Executor executor);
+	protected abstract void execute(SML_Executor executor, int operand);
 
 	/**
 	 * Returns the Instruction identified by the {@link Instruction#operationCode
-	 * operationCode}, while also specifying its {@link Instruction#operand
-	 * operand}.
+	 * operationCode}.
 	 *
 	 * @param operationCode the Instruction's operation code
-	 * @param operand       the Instruction's new operand
 	 *
-	 * @return the Instruction with the operation code and the operand
+	 * @return the Instruction with the operation code
 	 *
 	 * @throws InvalidInstructionException if the {@code operationCode} doesn't
 	 *                                     correspond to an Instruction
 	 */
-	public static Instruction of(int operationCode, int operand)
-			throws InvalidInstructionException {
+	public static Instruction of(int operationCode) throws InvalidInstructionException {
 
 		final Instruction instruction = Instruction.map.get(operationCode);
 		if (instruction == null)
 			throw new InvalidInstructionException(operationCode);
 
-		instruction.operand = operand;
 		return instruction;
 	}
 
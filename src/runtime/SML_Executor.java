@@ -10,6 +10,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintStream;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Scanner;
 
 import memory.CodeReader;
@@ -26,7 +29,11 @@ import utility.StreamSet;
  * executes them and outputs the results. The Executor is {@code stateless}
  * meaning that no information is stored between executions and that an instance
  * of an Executor is not necessary to execute a program. Before each call to
- * {@code execute} the Executor is automatically reset.
+ * {@code execute} the memory and the registers of the Executor are
+ * automatically cleared, which takes constant time, therefore an instance can
+ * be reused for any number of executions, for example by keeping it in a
+ * {@link utility.Pool Pool}, where it should be {@link #reset() reset} between
+ * jobs.
  * <p>
  * The execution uses {@link requirement.requirements.AbstractRequirement
  * Requirements} in order to specify different parameters. They can be obtained
@@ -52,12 +59,25 @@ public class SML_Executor {
 	        + "      output user-friendly results to stdout as well, independent from --output\n"
 	        + "  -verbose\n"
 	        + "      show all output, not only error messages\n"
+	        + "  --limit <number>\n"
+	        + "      stop execution after this many instructions, 0 for no limit\n"
+	        + "  --timeout <milliseconds>\n"
+	        + "      stop execution after this much time, 0 for no limit\n"
+	        + "  --cache <directory or 'memory' or 'none'>\n"
+	        + "      where to look for and store the results of previous executions\n"
 	        + "\n"
 	        + "Executing with no options is equivalent to:\n"
 	        + "  java --class-path bin;lib\\requirement.jar runtime.SML_Executor --input out.txt --output res.txt\n";
 
-	private final InputStream inputStream;
-	private final PrintStream outputStream, errorStream;
+	/*
+	 * The caches of execution results, one for each value of the 'cache'
+	 * requirement, shared by all Executors.
+	 */
+	private static final Map<String, ExecutionCache> caches        = new HashMap<>();
+	private static final long                        cacheCapacity = 16 << 20;
+
+	private InputStream inputStream;
+	private PrintStream outputStream, errorStream;
 
 	private final CodeReader memory;
 
@@ -73,6 +93,33 @@ public class SML_Executor {
 	private int operand;
 	private boolean halt;
 
+	/* set from any thread by cancel(), cleared by reset() or by the execution it stops */
+	private volatile boolean cancelled;
+
+	/*
+	 * Zobrist-style hash of the memory, the XOR of mix(address, value) over every
+	 * cell. It is updated on every write so that hashing the whole state of the
+	 * machine at a backward branch costs O(1) instead of O(size()).
+	 */
+	private long memoryHash;
+
+	/* the hash of the memory when every cell is 0 */
+	private final long clearedMemoryHash;
+
+	/* hashes of the states most recently seen at backward branches */
+	private final long[] recentStates;
+	private int          recentStatesCount;
+
+	/* a state whose hash was seen twice, kept to verify that it really repeats */
+	private final int[] candidateMemory;
+	private long        candidateHash;
+	private int         candidateInstructionPointer;
+	private int         candidateAccumulator;
+	private int         candidateSeenAt;
+	private boolean     hasCandidate;
+
+	private Scanner scanner;
+
 	/** Constructs an Executor with the "standard" in, out and error streams */
 	public SML_Executor() {
 		this(new StreamSet());
@@ -103,8 +150,57 @@ public class SML_Executor {
 		errorStream = err;
 
 		memory = new Memory(256);
+
+		recentStates = new long[16];
+		candidateMemory = new int[memory.size()];
+
+		rehashMemory();
+		clearedMemoryHash = memoryHash;
+		reset();
+	}
+
+	/**
+	 * Resets the Executor to the state it was when it was constructed: the memory
+	 * and the registers are cleared, it is no longer halted and a
+	 * {@link #cancel() cancellation} that wasn't acted upon is forgotten. The
+	 * Executor continues to use the same streams. It takes constant time,
+	 * regardless of the size of the memory.
+	 */
+	public void reset() {
+		clear();
+		cancelled = false;
+	}
+
+	/* clears the memory and the registers but not a cancellation, which may arrive before the execution starts */
+	private void clear() {
+		memory.clear();
+		memory.initialiseForExecution();
+		memoryHash = clearedMemoryHash;
+
 		accumulator = 0;
+		instructionRegister = 0;
+		operationCode = 0;
+		operand = 0;
 		halt = false;
+
+		forgetStates();
+	}
+
+	/**
+	 * Resets the Executor, as with {@link #reset()}, and changes the streams it
+	 * uses, so that an instance can be reused for a different execution.
+	 *
+	 * @param streamset the set of Streams that the Executor will use
+	 *
+	 * @see StreamSet
+	 */
+	public void reset(StreamSet streamset) {
+		inputStream = streamset.in;
+		outputStream = streamset.out;
+		errorStream = streamset.err;
+		scanner = null;
+
+		reset();
 	}
 
 	/**
@@ -153,8 +249,21 @@ public class SML_Executor {
 	 * | output  | res.txt | "stdout" or filename | --           |
 	 * | screen  | false   | output to stdout too | -            |
 	 * | verbose | false   | output all messages  | -            |
+	 * | limit   | 0       | max instructions     | --           |
+	 * | timeout | 0       | max milliseconds     | --           |
+	 * | cache   | none    | "memory" or dirname  | --           |
 	 * </pre>
 	 *
+	 * A {@code limit} or {@code timeout} of 0 means that there is no limit.
+	 * <p>
+	 * With a {@code cache}, the Executor looks up the result of executing the
+	 * program with the same input and limits in a cache of previous executions
+	 * before executing it, and stores it there after executing it. The cache is
+	 * either kept only in memory or also in a directory, so that it can be shared
+	 * between different runs. Since the result depends on the whole input, the
+	 * input is read until it ends before the program is executed, therefore a
+	 * cache shouldn't be used when the input is typed while the program runs.
+	 *
 	 * @return the Requirements
 	 */
 	public static Requirements getRequirements() {
@@ -164,11 +273,17 @@ public class SML_Executor {
 		reqs.add("output", StringType.ANY);
 		reqs.add("screen");
 		reqs.add("verbose");
+		reqs.add("limit", StringType.NON_NEG_INTEGER);
+		reqs.add("timeout", StringType.NON_NEG_INTEGER);
+		reqs.add("cache", StringType.ANY);
 
 		reqs.fulfil("input", "out.txt");
 		reqs.fulfil("output", "res.txt");
 		reqs.fulfil("screen", false);
 		reqs.fulfil("verbose", false);
+		reqs.fulfil("limit", "0");
+		reqs.fulfil("timeout", "0");
+		reqs.fulfil("cache", "none");
 
 		return reqs;
 	}
@@ -195,21 +310,31 @@ public class SML_Executor {
 	 * {@link SML_Executor#getRequirements() getRequirements()} method.
 	 *
 	 * @param requirements the parameters needed to compile
+	 *
+	 * @return how the execution ended, {@code ERROR} if it couldn't start
 	 */
-	public void execute(Requirements requirements) {
+	public ExecutionStatus execute(Requirements requirements) {
+		clear();
+
 		if (!requirements.fulfilled()) {
 			for (final AbstractRequirement r : requirements)
 				if (!r.fulfilled())
 					err("No value for parameter '%s' found", r.key());
 
 			err("Execution couldn't start due to missing parameters");
-			return;
+			return ExecutionStatus.ERROR;
 		}
 
 		final String  input   = (String) requirements.getValue("input");
 		final String  output  = (String) requirements.getValue("output");
 		final boolean screen  = (boolean) requirements.getValue("screen");
 		final boolean verbose = (boolean) requirements.getValue("verbose");
+		final long    limit   = Long.parseLong((String) requirements.getValue("limit"));
+		final long    timeout = Long.parseLong((String) requirements.getValue("timeout"));
+		final String  cache   = (String) requirements.getValue("cache");
+
+		final ExecutionCache  executions = SML_Executor.cache(cache);
+		final ExecutionResult result;
 
 		if (!verbose) {
 
@@ -220,12 +345,12 @@ public class SML_Executor {
 			else
 				loadToMemoryFromFile(new File(input));
 
-			executeInstructionsFromMemory();
+			result = executeFromMemory(executions, limit, timeout);
 
 			if (screen || output.equals("stdout"))
-				writeResultsToStdout();
+				writeResultsToStdout(result.dump);
 			if (!output.equals("stdout"))
-				writeResultsToFile(new File(output));
+				writeResultsToFile(new File(output), result.dump);
 
 		} else {
 
@@ -243,44 +368,292 @@ public class SML_Executor {
 			}
 			out("Progarm loading completed");
 
+			if (executions != null)
+				out("Looking up execution in cache: %s", cache);
+
 			out("Execution started");
-			executeInstructionsFromMemory();
-			out("Execution ended");
+			result = executeFromMemory(executions, limit, timeout);
+			out("Execution ended: program %s", result.status.description);
 
 			if (screen || output.equals("stdout"))
 				out("Executor State:");
-			writeResultsToStdout();
+			writeResultsToStdout(result.dump);
 			if (!output.equals("stdout")) {
 				out("Writing results to file: %s", output);
-				writeResultsToFile(new File(output));
+				writeResultsToFile(new File(output), result.dump);
 			}
 		}
+
+		return result.status;
+	}
+
+	/*
+	 * Executes the program in memory, or with a cache gets the result of executing
+	 * it with the rest of the input from the cache and writes its output. Without
+	 * a cache, the output of the result is empty since it was already written.
+	 */
+	private ExecutionResult executeFromMemory(ExecutionCache executions, long limit,
+	        long timeout) {
+		if (executions == null) {
+			final ExecutionStatus status = executeInstructionsFromMemory(limit, timeout);
+			return new ExecutionResult(status, "", "", getDumpString());
+		}
+
+		final int[] image = new int[memory.size()];
+		for (int i = 0, size = image.length; i < size; ++i)
+			image[i] = memory.read(i);
+
+		final StringBuilder input   = new StringBuilder();
+		final Scanner       scanner = scanner();
+		while (scanner.hasNextLine())
+			input.append(scanner.nextLine()).append('\n');
+
+		final ExecutionResult result = executions.execute(image, input.toString(), limit, timeout);
+
+		outputStream.print(result.output);
+		outputStream.flush();
+		errorStream.print(result.errors);
+		errorStream.flush();
+
+		return result;
+	}
+
+	private static ExecutionCache cache(String cache) {
+		if (cache.equals("none"))
+			return null;
+
+		synchronized (SML_Executor.caches) {
+			return SML_Executor.caches.computeIfAbsent(cache,
+			        c -> new ExecutionCache(SML_Executor.cacheCapacity,
+			                c.equals("memory") ? null : new File(c)));
+		}
+	}
+
+	/**
+	 * Loads the {@code image} to memory and executes it, without any output apart
+	 * from what the program itself writes. Input is read from the Executor's Input
+	 * Stream. Afterwards, the state of the Executor can be retrieved with the
+	 * {@link #getDumpString()} method.
+	 *
+	 * @param image   the machine-code program
+	 * @param limit   the maximum number of instructions, 0 for no limit
+	 * @param timeout the maximum number of milliseconds, 0 for no limit
+	 *
+	 * @return how the execution ended
+	 *
+	 * @throws IllegalArgumentException if the image doesn't fit in memory
+	 */
+	public ExecutionStatus execute(int[] image, long limit, long timeout) {
+		if (image.length > memory.size())
+			throw new IllegalArgumentException(String.format(
+			        "Image of size %d doesn't fit in memory of size %d", image.length,
+			        memory.size()));
+
+		clear();
+
+		for (int i = 0, count = image.length; i < count; ++i)
+			write(i, image[i]);
+
+		return executeInstructionsFromMemory(limit, timeout);
 	}
 
-	private void executeInstructionsFromMemory() {
+	/**
+	 * Cancels the execution currently in progress, or the next one if none is in
+	 * progress. This method may be called from any thread. The execution stops
+	 * at the next backward branch or input instruction and reports
+	 * {@link ExecutionStatus#CANCELLED CANCELLED}, after which the Executor can
+	 * execute again. A cancellation that wasn't acted upon is forgotten when the
+	 * Executor is {@link #reset() reset}.
+	 * <p>
+	 * An input instruction that is already waiting for input that never arrives
+	 * can't be stopped, neither by a cancellation nor by a timeout.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/*
+	 * Every non-terminating program has to jump backwards, therefore the limits are
+	 * only checked at backward branches and the hot path only pays for a decrement
+	 * and a comparison. A program may execute at most size() more instructions than
+	 * its limit before it's stopped.
+	 *
+	 * The same goes for infinite loop detection: the state of the machine (the
+	 * instruction pointer, the accumulator and the memory) is only compared with
+	 * recently seen states at backward branches.
+	 *
+	 * A program that waits for input may wait forever without jumping, therefore
+	 * the cancellation and the timeout are also checked before reading input.
+	 */
+	private ExecutionStatus executeInstructionsFromMemory(long limit, long timeout) {
 		memory.initialiseForExecution();
+		rehashMemory();
+		forgetStates();
+
+		final boolean hasDeadline = timeout > 0;
+		final long    deadline    = System.nanoTime() + (timeout * 1_000_000L);
+		long          remaining   = limit > 0 ? limit : Long.MAX_VALUE;
+
+		ExecutionStatus status = ExecutionStatus.HALTED;
 
 		try {
 			while (!halt) {
+				final int address = memory.getInstructionPointer();
+
 				instructionRegister = memory.fetchInstruction();
 				operationCode = instructionRegister / 0x100;
 				operand = instructionRegister % 0x100;
 
-				Instruction.of(operationCode, operand).execute(this);
+				if (SML_Executor.isRead(operationCode)) {
+					final ExecutionStatus interruption = interruption(hasDeadline, deadline);
+					if (interruption != null) {
+						status = interruption;
+						break;
+					}
+				}
+
+				Instruction.of(operationCode).execute(this, operand);
+				--remaining;
+
+				if (memory.getInstructionPointer() <= address) {
+					if (remaining <= 0) {
+						status = ExecutionStatus.INSTRUCTION_LIMIT;
+						break;
+					}
+					final ExecutionStatus interruption = interruption(hasDeadline, deadline);
+					if (interruption != null) {
+						status = interruption;
+						break;
+					}
+					if (stateRepeats()) {
+						status = ExecutionStatus.INFINITE_LOOP;
+						break;
+					}
+				}
 			}
 		} catch (final NumberFormatException e) {
 			// This assumes that the exception's message is the number that isn't an integer
 			err("'%s' is not a valid base-16 integer", e.getMessage());
+			status = ExecutionStatus.ERROR;
 		} catch (InvalidInstructionException | ArithmeticException e) {
 			err("%s", e.getMessage());
+			status = ExecutionStatus.ERROR;
+		} catch (final NoSuchElementException e) {
+			err("Expected more input");
+			status = ExecutionStatus.ERROR;
 		}
+
+		// the cancellation was acted upon and doesn't affect the next execution
+		if (status == ExecutionStatus.CANCELLED)
+			cancelled = false;
+
+		if (status == ExecutionStatus.INSTRUCTION_LIMIT)
+			err("Program %s of %d instructions", status.description, limit);
+		else if (status == ExecutionStatus.TIMEOUT)
+			err("Program %s of %d milliseconds", status.description, timeout);
+		else if ((status == ExecutionStatus.CANCELLED)
+		        || (status == ExecutionStatus.INFINITE_LOOP))
+			err("Program %s", status.description);
+
+		return status;
+	}
+
+	/* CANCELLED or TIMEOUT if the execution has to stop, otherwise null */
+	private ExecutionStatus interruption(boolean hasDeadline, long deadline) {
+		if (cancelled)
+			return ExecutionStatus.CANCELLED;
+		if (hasDeadline && ((System.nanoTime() - deadline) > 0))
+			return ExecutionStatus.TIMEOUT;
+
+		return null;
+	}
+
+	private static boolean isRead(int operationCode) {
+		final int opcode = operationCode * 0x100;
+		return (opcode == Instruction.READ_INT.opcode()) || (opcode == Instruction.READ_STRING.opcode());
 	}
 
-	// --- 4 methods for input, output ---
+	// --- 6 methods for infinite loop detection ---
+
+	/*
+	 * Returns true only if the current state is identical to a previous one. Since
+	 * the machine is deterministic (as long as it doesn't read input) it will then
+	 * go through the same states forever. A hash that was seen before only makes
+	 * the state a candidate, which is then compared cell-by-cell when its hash is
+	 * seen again, so that a hash collision can never stop a correct program. A loop
+	 * short enough to be caught repeats a candidate before recentStates.length
+	 * more states are seen, otherwise it's replaced by the next one.
+	 */
+	private boolean stateRepeats() {
+		final int  instructionPointer = memory.getInstructionPointer();
+		final long hash               = memoryHash ^ SML_Executor.mix(-1, instructionPointer)
+		        ^ SML_Executor.mix(-2, accumulator);
+
+		if (hasCandidate && (hash == candidateHash) && isCandidate(instructionPointer))
+			return true;
+
+		final boolean candidateExpired = !hasCandidate
+		        || ((recentStatesCount - candidateSeenAt) > recentStates.length);
+
+		final int count = Math.min(recentStatesCount, recentStates.length);
+		for (int i = 0; candidateExpired && (i < count); ++i)
+			if (recentStates[i] == hash) {
+				saveCandidate(hash, instructionPointer);
+				break;
+			}
+
+		recentStates[recentStatesCount % recentStates.length] = hash;
+		++recentStatesCount;
+		return false;
+	}
+
+	private boolean isCandidate(int instructionPointer) {
+		if ((instructionPointer != candidateInstructionPointer)
+		        || (accumulator != candidateAccumulator))
+			return false;
+
+		for (int i = 0, size = candidateMemory.length; i < size; ++i)
+			if (memory.read(i) != candidateMemory[i])
+				return false;
+
+		return true;
+	}
+
+	private void saveCandidate(long hash, int instructionPointer) {
+		for (int i = 0, size = candidateMemory.length; i < size; ++i)
+			candidateMemory[i] = memory.read(i);
+
+		candidateHash = hash;
+		candidateInstructionPointer = instructionPointer;
+		candidateAccumulator = accumulator;
+		candidateSeenAt = recentStatesCount;
+		hasCandidate = true;
+	}
+
+	/* the states seen before reading input say nothing about the ones after it */
+	private void forgetStates() {
+		recentStatesCount = 0;
+		hasCandidate = false;
+	}
+
+	private void rehashMemory() {
+		memoryHash = 0;
+		for (int i = 0, size = memory.size(); i < size; ++i)
+			memoryHash ^= SML_Executor.mix(i, memory.read(i));
+	}
+
+	/* the splitmix64 finaliser applied to the (address, value) pair */
+	private static long mix(int address, int value) {
+		long z = (((long) address) << 32) | (value & 0xffffffffL);
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+	// --- 5 methods for input, output ---
 
 	private void loadToMemoryFromStdin() {
-		@SuppressWarnings("resource")
-		final Scanner scanner = new Scanner(inputStream);
+		final Scanner scanner = scanner();
 
 		boolean valid;
 		int     input     = 0;
@@ -327,20 +700,27 @@ public class SML_Executor {
 		}
 	}
 
-	private void writeResultsToStdout() {
-		out("%s", getDumpString());
+	private Scanner scanner() {
+		if (scanner == null)
+			scanner = new Scanner(inputStream);
+
+		return scanner;
 	}
 
-	private void writeResultsToFile(File file) {
+	private void writeResultsToStdout(String dump) {
+		out("%s", dump);
+	}
+
+	private void writeResultsToFile(File file, String dump) {
 		try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
-			writer.write(getDumpString());
+			writer.write(dump);
 
 		} catch (final IOException e) {
 			err("Unexpected error while writing to file %s", file);
 		}
 	}
 
-	// --- 5 method for uniform message printing ---
+	// --- 6 method for uniform message printing ---
 
 	private void out(String format, Object... args) {
 		outputStream.printf("Runtime Info:  %s%n", String.format(format, args));
@@ -367,6 +747,17 @@ public class SML_Executor {
 		message("> ");
 	}
 
+	/**
+	 * Reads the next line from the Executor's Input Stream. Since the rest of the
+	 * execution depends on the input, the states seen so far are forgotten.
+	 *
+	 * @return the line read
+	 */
+	String readLine() {
+		forgetStates();
+		return scanner().nextLine();
+	}
+
 	/** Prints a prefix for another message to standard out */
 	void output() {
 		message("SML: ");
@@ -432,6 +823,8 @@ public class SML_Executor {
 	 * @see memory.RAM#write(int, int)
 	 */
 	void write(int address, int value) {
+		memoryHash ^= SML_Executor.mix(address, memory.read(address))
+		        ^ SML_Executor.mix(address, value);
 		memory.write(address, value);
 	}
 
@@ -445,6 +838,7 @@ public class SML_Executor {
 	 */
 	void writeChars(int address, char[] values) {
 		memory.writeChars(address, values);
+		rehashMemory();
 	}
 
 	/**
@@ -471,7 +865,13 @@ public class SML_Executor {
 
 	// d u m p
 
-	private String getDumpString() {
+	/**
+	 * Returns the registers and the memory of the Executor, in the format used for
+	 * the results of an execution.
+	 *
+	 * @return the dump String
+	 */
+	String getDumpString() {
 		final StringBuilder sb = new StringBuilder();
 		sb.append("REGISTERES:")
 		.append("\naccumulator:            " + accumulator)
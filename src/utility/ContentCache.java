@@ -0,0 +1,194 @@
+package utility;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToLongFunction;
+
+/**
+ * A content-addressed cache that maps {@code keys}, typically obtained from a
+ * {@link Digest}, to {@code values}. Values are kept in memory and, when the
+ * total {@code size} of the values exceeds the {@code capacity} of the cache,
+ * the least recently used ones are evicted. Optionally, values are also stored
+ * in a directory, one file per key, from where they are read when they are not
+ * found in memory. The directory is not bounded and it is never cleared by the
+ * cache. Since anyone may write to the directory, only objects of the classes
+ * that values consist of are read from it, and any other file is ignored.
+ * <p>
+ * The cache is a best-effort optimisation: errors while reading or writing the
+ * directory are ignored and simply cause a value to be treated as missing. All
+ * methods are {@code synchronized} therefore a cache can be shared between
+ * threads.
+ *
+ * @param <V> the type of the values
+ *
+ * @author Alex Mandelias
+ */
+public final class ContentCache<V extends Serializable> {
+
+	/* values are flat, a deeper graph of objects can't be a value */
+	private static final int maxDepth = 8;
+
+	private final long                      capacity;
+	private final ToLongFunction<? super V> sizeOf;
+	private final File                      directory;
+	private final Set<Class<?>>             classes;
+	private final Map<String, V>            map;
+
+	private long size;
+
+	/**
+	 * Constructs an in-memory cache that holds values of total {@code size} at
+	 * most {@code capacity}.
+	 *
+	 * @param capacity the maximum total size of the values kept in memory
+	 * @param sizeOf   the function that calculates the size of a value
+	 */
+	public ContentCache(long capacity, ToLongFunction<? super V> sizeOf) {
+		this(capacity, sizeOf, null);
+	}
+
+	/**
+	 * Constructs a cache that holds values of total {@code size} at most
+	 * {@code capacity} in memory and all values in the {@code directory}. Only
+	 * objects of the {@code classes}, of arrays of primitives and of Strings are
+	 * read from the directory, therefore they must include the class of the values
+	 * and of every object they refer to, including enums.
+	 *
+	 * @param capacity  the maximum total size of the values kept in memory
+	 * @param sizeOf    the function that calculates the size of a value
+	 * @param directory the directory where values are stored, or {@code null} to
+	 *                  keep values only in memory
+	 * @param classes   the classes of the objects that values consist of
+	 */
+	public ContentCache(long capacity, ToLongFunction<? super V> sizeOf, File directory,
+	        Class<?>... classes) {
+		this.capacity = capacity;
+		this.sizeOf = sizeOf;
+		this.directory = directory;
+		this.classes = Set.of(classes);
+		map = new LinkedHashMap<>(16, 0.75f, true);
+		size = 0;
+
+		if (directory != null)
+			directory.mkdirs();
+	}
+
+	/**
+	 * Returns the value for the {@code key}, looking first in memory and then in
+	 * the directory, if there is one.
+	 *
+	 * @param key the key
+	 *
+	 * @return the value, or {@code null} if there is no value for that key
+	 */
+	public synchronized V get(String key) {
+		V value = map.get(key);
+
+		if ((value == null) && (directory != null)) {
+			value = readFromDirectory(key);
+			if (value != null)
+				putInMemory(key, value);
+		}
+
+		return value;
+	}
+
+	/**
+	 * Associates the {@code value} with the {@code key} in memory and in the
+	 * directory, if there is one.
+	 *
+	 * @param key   the key
+	 * @param value the value
+	 */
+	public synchronized void put(String key, V value) {
+		putInMemory(key, value);
+
+		if (directory != null)
+			writeToDirectory(key, value);
+	}
+
+	/** Removes all values from memory, leaving the directory untouched */
+	public synchronized void clear() {
+		map.clear();
+		size = 0;
+	}
+
+	private void putInMemory(String key, V value) {
+		final long valueSize = sizeOf.applyAsLong(value);
+		if (valueSize > capacity)
+			return;
+
+		final V old = map.put(key, value);
+		if (old != null)
+			size -= sizeOf.applyAsLong(old);
+		size += valueSize;
+
+		// the first entries are the least recently used ones
+		final Iterator<V> iter = map.values().iterator();
+		while (size > capacity) {
+			size -= sizeOf.applyAsLong(iter.next());
+			iter.remove();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private V readFromDirectory(String key) {
+		final File file = new File(directory, key);
+		if (!file.exists())
+			return null;
+
+		try (ObjectInputStream in = new ObjectInputStream(new FileInputStream(file))) {
+			in.setObjectInputFilter(this::filter);
+			return (V) in.readObject();
+		} catch (IOException | ClassNotFoundException | ClassCastException e) {
+			return null;
+		}
+	}
+
+	/* rejects every class that isn't part of a value, so that a file can't create arbitrary objects */
+	private ObjectInputFilter.Status filter(ObjectInputFilter.FilterInfo info) {
+		if (info.depth() > ContentCache.maxDepth)
+			return ObjectInputFilter.Status.REJECTED;
+
+		Class<?> type = info.serialClass();
+		if (type == null)
+			return ObjectInputFilter.Status.UNDECIDED;
+
+		while (type.isArray())
+			type = type.getComponentType();
+
+		return type.isPrimitive() || (type == String.class) || (type == Enum.class)
+		        || classes.contains(type) ? ObjectInputFilter.Status.ALLOWED
+		                : ObjectInputFilter.Status.REJECTED;
+	}
+
+	/* write to a temporary file first so that readers never see half a value */
+	private void writeToDirectory(String key, V value) {
+		File temp = null;
+		try {
+			temp = File.createTempFile(key, ".tmp", directory);
+			try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(temp))) {
+				out.writeObject(value);
+			}
+
+			Files.move(temp.toPath(), new File(directory, key).toPath(),
+			        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (final IOException e) {
+			// the value is still cached in memory
+			if (temp != null)
+				temp.delete();
+		}
+	}
+}
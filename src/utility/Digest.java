@@ -0,0 +1,114 @@
+package utility;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * A SHA-256 digest of a sequence of values, used as the key of a
+ * {@link ContentCache}. Values are added one after the other and the digest of
+ * all of them is obtained with the {@link #toString()} method.
+ * <p>
+ * Usage example:
+ *
+ * <pre>
+ * String key = new Digest()
+ *         .add(image)
+ *         .add(input)
+ *         .toString();
+ * </pre>
+ *
+ * @author Alex Mandelias
+ */
+public final class Digest {
+
+	private final MessageDigest digest;
+	private final byte[]        buffer;
+
+	/** Constructs an empty Digest */
+	public Digest() {
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (final NoSuchAlgorithmException e) {
+			// every Java platform is required to support SHA-256
+			throw new RuntimeException(e);
+		}
+		buffer = new byte[8];
+	}
+
+	/**
+	 * Adds a {@code long} to the Digest.
+	 *
+	 * @param value the value
+	 *
+	 * @return this Digest
+	 */
+	public Digest add(long value) {
+		for (int i = 0; i < 8; ++i)
+			buffer[i] = (byte) (value >>> (8 * i));
+
+		digest.update(buffer);
+		return this;
+	}
+
+	/**
+	 * Adds an array of {@code ints} to the Digest. The length of the array is also
+	 * added, so that adding {@code [1, 2]} and {@code [3]} is different from adding
+	 * {@code [1]} and {@code [2, 3]}.
+	 *
+	 * @param values the values
+	 *
+	 * @return this Digest
+	 */
+	public Digest add(int[] values) {
+		add(values.length);
+		for (final int value : values)
+			add(value);
+
+		return this;
+	}
+
+	/**
+	 * Adds an array of {@code bytes} to the Digest. The length of the array is
+	 * also added, similarly to {@link #add(int[])}.
+	 *
+	 * @param values the values
+	 *
+	 * @return this Digest
+	 */
+	public Digest add(byte[] values) {
+		add(values.length);
+		digest.update(values);
+		return this;
+	}
+
+	/**
+	 * Adds a {@code String} to the Digest. The length of the String is also added,
+	 * similarly to {@link #add(int[])}.
+	 *
+	 * @param value the value
+	 *
+	 * @return this Digest
+	 */
+	public Digest add(String value) {
+		final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		add(bytes.length);
+		digest.update(bytes);
+		return this;
+	}
+
+	/**
+	 * Returns the digest of the values added so far as a hex String. After this
+	 * method is called the Digest is reset.
+	 *
+	 * @return the hex String
+	 */
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder(64);
+		for (final byte b : digest.digest())
+			sb.append(String.format("%02x", b));
+
+		return sb.toString();
+	}
+}
@@ -0,0 +1,79 @@
+package utility;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Supplier;
+
+/**
+ * A bounded pool of reusable instances, such as Compilers and Executors, so
+ * that an instance that is already warmed up can be reused instead of
+ * allocating a new one for every request. An instance is {@link #acquire()
+ * acquired} from the pool, or created if the pool is empty, and is
+ * {@link #release(Object) released} back to it when it is no longer used. At
+ * most {@code capacity} instances are kept and any other released instance is
+ * left to the garbage collector.
+ * <p>
+ * The pool doesn't reset the instances, which should be reset by whoever
+ * acquires them. All methods are {@code synchronized} therefore a pool can be
+ * shared between threads, while each instance is only used by the thread that
+ * acquired it.
+ *
+ * @param <T> the type of the instances
+ *
+ * @author Alex Mandelias
+ */
+public final class Pool<T> {
+
+	private final int                   capacity;
+	private final Supplier<? extends T> factory;
+	private final Deque<T>              instances;
+
+	/**
+	 * Constructs an empty pool that keeps at most {@code capacity} instances and
+	 * creates new ones with a {@code factory}.
+	 *
+	 * @param capacity the maximum number of instances kept in the pool
+	 * @param factory  the function that creates a new instance
+	 */
+	public Pool(int capacity, Supplier<? extends T> factory) {
+		this.capacity = capacity;
+		this.factory = factory;
+		instances = new ArrayDeque<>(capacity);
+	}
+
+	/**
+	 * Returns an instance from the pool, or a new instance if the pool is empty.
+	 * The instance that was released most recently is returned first.
+	 *
+	 * @return the instance
+	 */
+	public T acquire() {
+		synchronized (this) {
+			if (!instances.isEmpty())
+				return instances.pop();
+		}
+
+		// instances are created outside of the lock since they may be expensive
+		return factory.get();
+	}
+
+	/**
+	 * Returns an instance to the pool, unless the pool is full. The instance must
+	 * not be used after it is released.
+	 *
+	 * @param instance the instance
+	 */
+	public synchronized void release(T instance) {
+		if (instances.size() < capacity)
+			instances.push(instance);
+	}
+
+	/**
+	 * Returns the number of instances in the pool.
+	 *
+	 * @return the number of instances
+	 */
+	public synchronized int size() {
+		return instances.size();
+	}
+}
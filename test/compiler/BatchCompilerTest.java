@@ -0,0 +1,106 @@
+package compiler;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import utility.Tests;
+
+/**
+ * Tests that a {@link BatchCompiler} compiles every program of a batch, even
+ * when compiling one of them fails unexpectedly or overflows the stack.
+ *
+ * @author Alex Mandelias
+ */
+public final class BatchCompilerTest {
+
+	private static final String valid = "01 int a\n02 let a = 2 * 3\n03 print a\n04 end\n";
+
+	private BatchCompilerTest() {}
+
+	/**
+	 * Runs the tests of this class.
+	 *
+	 * @param args not used
+	 */
+	public static void main(String[] args) {
+		BatchCompilerTest.run();
+		Tests.report();
+	}
+
+	/** Runs the tests */
+	public static void run() {
+		Tests.test("compiles every program", () -> {
+			final String                     invalid = "01 int a\n02 let a = b\n03 end\n";
+			final Path                       base    = Files.createTempDirectory("batch");
+			final Path                       output  = Files.createTempDirectory("batch-output");
+			final List<BatchCompiler.Result> results = BatchCompilerTest.compile(base, output,
+			        BatchCompilerTest.valid, invalid, BatchCompilerTest.valid);
+
+			Tests.checkEquals(3, results.size(), "results");
+			Tests.check(results.get(0).success(), "first %s", results.get(0).err);
+			Tests.check(!results.get(1).success(), "second has no errors");
+			Tests.check(results.get(2).success(), "third %s", results.get(2).err);
+			Tests.check(Files.exists(output.resolve("p2.txt")), "no machine code for third");
+		});
+
+		Tests.test("survives unexpected errors", () -> {
+			// a valid program that doesn't fit in memory
+			final StringBuilder large = new StringBuilder("01 int a\n");
+			for (int i = 2; i < 200; ++i)
+				large.append(String.format("%02d let a = a + %d%n", i, i * 7));
+			large.append("200 end\n");
+
+			final Path base   = Files.createTempDirectory("batch");
+			final Path output = Files.createTempDirectory("batch-output");
+
+			for (int batch = 0; batch < 2; ++batch) {
+				final List<BatchCompiler.Result> results = BatchCompilerTest.compile(base, output,
+				        BatchCompilerTest.valid, large.toString(), BatchCompilerTest.valid,
+				        BatchCompilerTest.valid);
+
+				Tests.checkEquals(4, results.size(), "results");
+				Tests.check(!results.get(1).success(), "large program has no errors");
+				Tests.check(results.get(1).err.contains("p1.sml"), "error %s", results.get(1).err);
+				for (final int i : new int[] { 0, 2, 3 })
+					Tests.check(results.get(i).success(), "program %d: %s", i, results.get(i).err);
+			}
+		});
+
+		Tests.test("survives stack overflows", () -> {
+			// blocks nested deeper than the Compiler can build them
+			final int           depth = 50_000;
+			final StringBuilder deep  = new StringBuilder("01 int a\n");
+			for (int i = 0; i < depth; ++i)
+				deep.append(String.format("%d if a < 1%n", i + 2));
+			for (int i = 0; i < depth; ++i)
+				deep.append(String.format("%d endif%n", depth + i + 2));
+			deep.append(String.format("%d end%n", (2 * depth) + 2));
+
+			final List<BatchCompiler.Result> results = BatchCompilerTest.compile(
+			        Files.createTempDirectory("batch"), Files.createTempDirectory("batch-output"),
+			        BatchCompilerTest.valid, deep.toString(), BatchCompilerTest.valid);
+
+			Tests.checkEquals(3, results.size(), "results");
+			Tests.check(results.get(1).err.contains("StackOverflowError"), "error %s",
+			        results.get(1).err);
+			Tests.check(results.get(0).success(), "first %s", results.get(0).err);
+			Tests.check(results.get(2).success(), "third %s", results.get(2).err);
+		});
+	}
+
+	/* compiles the programs, named p0.sml, p1.sml and so on, into the output directory */
+	private static List<BatchCompiler.Result> compile(Path base, Path output, String... programs)
+	        throws Exception {
+		final List<Path> sources = new ArrayList<>();
+		for (int i = 0; i < programs.length; ++i) {
+			final Path source = base.resolve("p" + i + ".sml");
+			Files.writeString(source, programs[i]);
+			sources.add(source);
+		}
+
+		return new BatchCompiler(SML_Compiler.getRequirements(), output.toString())
+		        .compile(sources, base);
+	}
+}
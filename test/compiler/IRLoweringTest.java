@@ -0,0 +1,220 @@
+package compiler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import compiler.ir.BasicBlock;
+import compiler.ir.Constant;
+import compiler.ir.ControlFlowGraph;
+import compiler.ir.Opcode;
+import compiler.ir.Operand;
+import compiler.ir.Operation;
+import compiler.ir.Terminator;
+import compiler.ir.Variable;
+import requirement.util.Requirements;
+import runtime.Instruction;
+import utility.Tests;
+
+/**
+ * Tests exhaustively that the branches an {@link IRLowering} generates for every
+ * {@link Condition} behave as {@link Condition#test(int, int)}, for every layout
+ * of the blocks they branch to, for every kind of operands and for every sign of
+ * and equality between their values, with and without optimising.
+ *
+ * @author Alex Mandelias
+ */
+public final class IRLoweringTest {
+
+	private static final int LOAD       = Instruction.LOAD.opcode() / 0x100;
+	private static final int STORE      = Instruction.STORE.opcode() / 0x100;
+	private static final int SUBTRACT   = Instruction.SUBTRACT.opcode() / 0x100;
+	private static final int BRANCH     = Instruction.BRANCH.opcode() / 0x100;
+	private static final int BRANCHNEG  = Instruction.BRANCHNEG.opcode() / 0x100;
+	private static final int BRANCHZERO = Instruction.BRANCHZERO.opcode() / 0x100;
+	private static final int HALT       = Instruction.HALT.opcode() / 0x100;
+	private static final int NOOP       = Instruction.NOOP.opcode() / 0x100;
+
+	/* the locations of the operands and of the result */
+	private static final int LEFT = 0xc0, RIGHT = 0xc1, ZERO = 0xc2, ONE = 0xc3, TWO = 0xc4,
+	        RESULT = 0xc5;
+
+	/* the kinds of operands of the branch */
+	private static final String[] kinds = { "variables", "right zero", "left zero",
+	        "same variable", "left in accumulator" };
+
+	/* the layouts of the blocks after the branch */
+	private static final String[] layouts = { "true, false", "false, true", "other, true, false",
+	        "other, false, true" };
+
+	private static final int[] values;
+	static {
+		final List<Integer> list = new ArrayList<>();
+		for (int i = -40; i <= 40; ++i)
+			list.add(i);
+		for (final int value : new int[] { 1 << 30, -(1 << 30), (1 << 30) - 1, 123456789,
+		        -123456789 })
+			list.add(value);
+
+		values = list.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	private IRLoweringTest() {}
+
+	/**
+	 * Runs the tests of this class.
+	 *
+	 * @param args not used
+	 */
+	public static void main(String[] args) {
+		IRLoweringTest.run();
+		Tests.report();
+	}
+
+	/** Runs the tests */
+	public static void run() {
+		for (final boolean optimise : new boolean[] { false, true })
+			for (final Condition condition : Condition.values())
+				Tests.test(String.format("%s, optimise %s", condition, optimise), () -> {
+					for (int layout = 0; layout < IRLoweringTest.layouts.length; ++layout)
+						for (int kind = 0; kind < IRLoweringTest.kinds.length; ++kind) {
+							final int[] code = IRLoweringTest.lower(condition, layout, kind,
+							        optimise);
+
+							IRLoweringTest.check(condition, layout, kind, code);
+							IRLoweringTest.check(condition, layout, kind,
+							        new Peephole(code).optimise());
+						}
+				});
+	}
+
+	/*
+	 * lowers a branch on the condition, whose true block stores 1 to the result and
+	 * whose false block stores 2 to it
+	 */
+	private static int[] lower(Condition condition, int layout, int kind, boolean optimise)
+	        throws Exception {
+		final SML_Compiler compiler = IRLoweringTest.compiler(optimise);
+
+		final Variable left   = new Variable(0, "left", IRLoweringTest.LEFT);
+		final Variable right  = new Variable(1, "right", IRLoweringTest.RIGHT);
+		final Variable result = new Variable(2, "result", IRLoweringTest.RESULT);
+		final Constant zero   = new Constant(0, IRLoweringTest.ZERO);
+
+		final Operand l = kind == 2 ? zero : left;
+		final Operand r = kind == 1 ? zero : kind == 3 ? left : right;
+
+		final ControlFlowGraph graph  = new ControlFlowGraph();
+		final BasicBlock       branch = graph.newBlock();
+		final BasicBlock       t      = graph.newBlock();
+		final BasicBlock       f      = graph.newBlock();
+		final BasicBlock       other  = graph.newBlock();
+
+		graph.entry().setTerminator(Terminator.jump(branch));
+		graph.place(branch);
+
+		if (kind == 4)
+			branch.operations().add(new Operation(Opcode.ASSIGN, left, left));
+		branch.setTerminator(Terminator.branch(condition, l, r, t, f));
+
+		t.operations().add(new Operation(Opcode.ASSIGN, result,
+		        new Constant(1, IRLoweringTest.ONE)));
+		t.setTerminator(Terminator.halt());
+		f.operations().add(new Operation(Opcode.ASSIGN, result,
+		        new Constant(2, IRLoweringTest.TWO)));
+		f.setTerminator(Terminator.halt());
+		other.setTerminator(Terminator.halt());
+
+		if (layout >= 2)
+			graph.place(other);
+		graph.place(layout % 2 == 0 ? t : f);
+		graph.place(layout % 2 == 0 ? f : t);
+
+		new IRLowering(compiler).lower(graph);
+		return compiler.code();
+	}
+
+	/* executes the code for every pair of values and compares the result */
+	private static void check(Condition condition, int layout, int kind, int[] code) {
+		for (final int lv : IRLoweringTest.values)
+			for (final int rv : IRLoweringTest.values) {
+				final int left  = kind == 2 ? 0 : lv;
+				final int right = kind == 1 ? 0 : kind == 3 ? lv : rv;
+
+				// the subtraction of the branch overflows
+				if ((((long) left - right) != (left - right))
+				        || (((long) right - left) != (right - left)))
+					continue;
+
+				final int expected = condition.test(left, right) ? 1 : 2;
+				final int actual   = IRLoweringTest.execute(code, lv, rv);
+				if (expected != actual) {
+					Tests.check(false, "layout %s, %s, %d %s %d: %d instead of %d",
+					        IRLoweringTest.layouts[layout], IRLoweringTest.kinds[kind], left,
+					        condition, right, actual, expected);
+					return;
+				}
+			}
+	}
+
+	/* executes the code and returns the result, or -1 if it doesn't halt */
+	private static int execute(int[] code, int left, int right) {
+		final int[] memory = new int[0x100];
+		System.arraycopy(code, 0, memory, 0, code.length);
+		memory[IRLoweringTest.LEFT] = left;
+		memory[IRLoweringTest.RIGHT] = right;
+		memory[IRLoweringTest.ONE] = 1;
+		memory[IRLoweringTest.TWO] = 2;
+
+		int accumulator = 0, counter = 0;
+		for (int steps = 0; steps < 100; ++steps) {
+			final int instruction = memory[counter++];
+			final int operation   = instruction / 0x100;
+			final int operand     = instruction % 0x100;
+
+			if (operation == IRLoweringTest.LOAD)
+				accumulator = memory[operand];
+			else if (operation == IRLoweringTest.STORE)
+				memory[operand] = accumulator;
+			else if (operation == IRLoweringTest.SUBTRACT)
+				accumulator -= memory[operand];
+			else if (operation == IRLoweringTest.BRANCH)
+				counter = operand;
+			else if ((operation == IRLoweringTest.BRANCHNEG) && (accumulator < 0))
+				counter = operand;
+			else if ((operation == IRLoweringTest.BRANCHZERO) && (accumulator == 0))
+				counter = operand;
+			else if (operation == IRLoweringTest.HALT)
+				return memory[IRLoweringTest.RESULT];
+			else if ((operation != IRLoweringTest.NOOP) && (operation != IRLoweringTest.BRANCHNEG)
+			        && (operation != IRLoweringTest.BRANCHZERO))
+				return -1;
+		}
+
+		return -1;
+	}
+
+	/* a Compiler that optimises or not and that hasn't generated any code */
+	private static SML_Compiler compiler(boolean optimise) throws Exception {
+		final File program = File.createTempFile("empty", ".sml");
+		final File output  = File.createTempFile("empty", ".txt");
+		Files.writeString(program.toPath(), "01 end\n");
+
+		final SML_Compiler compiler = new SML_Compiler(
+		        Tests.streams("", new ByteArrayOutputStream(), new ByteArrayOutputStream()));
+
+		final Requirements reqs = SML_Compiler.getRequirements();
+		reqs.fulfil("input", program.getPath());
+		reqs.fulfil("output", output.getPath());
+		reqs.fulfil("optimise", optimise);
+
+		compiler.compile(reqs);
+		compiler.reset();
+
+		program.delete();
+		output.delete();
+		return compiler;
+	}
+}
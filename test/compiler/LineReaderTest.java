@@ -0,0 +1,68 @@
+package compiler;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.Pipe;
+
+import utility.Tests;
+
+/**
+ * Tests that a {@link LineReader} reads the lines of a channel, with and
+ * without reading ahead, and that closing it leaves the channel open.
+ *
+ * @author Alex Mandelias
+ */
+public final class LineReaderTest {
+
+	private LineReaderTest() {}
+
+	/**
+	 * Runs the tests of this class.
+	 *
+	 * @param args not used
+	 */
+	public static void main(String[] args) {
+		LineReaderTest.run();
+		Tests.report();
+	}
+
+	/** Runs the tests */
+	public static void run() {
+		for (final boolean pipelined : new boolean[] { false, true })
+			Tests.test("reads lines, pipelined " + pipelined, () -> {
+				final String program = "01 int a\n02 input a\n\n03 print a\n";
+
+				try (LineReader reader = new LineReader(
+				        Channels.newChannel(new ByteArrayInputStream(program.getBytes())),
+				        pipelined)) {
+					Tests.checkEquals("01 int a", reader.readLine(), "first line");
+					Tests.checkEquals("02 input a", reader.readLine(), "second line");
+					Tests.checkEquals("", reader.readLine(), "empty line");
+					Tests.checkEquals("03 print a", reader.readLine(), "last line");
+					Tests.checkEquals(null, reader.readLine(), "end");
+					Tests.checkEquals(null, reader.readLine(), "end again");
+				}
+			});
+
+		Tests.test("close leaves channel open", () -> {
+			// the source of a pipe is interruptible, like a channel of standard input
+			final Pipe pipe = Pipe.open();
+			pipe.sink().write(ByteBuffer.wrap("01 rem\n".getBytes()));
+
+			final LineReader reader = new LineReader(pipe.source(), true);
+			Tests.checkEquals("01 rem", reader.readLine(), "line");
+
+			// the reading thread now waits for the next line
+			Thread.sleep(50);
+			reader.close();
+			Thread.sleep(50);
+
+			Tests.check(pipe.source().isOpen(), "the channel was closed");
+
+			pipe.sink().write(ByteBuffer.wrap("02 rem\n".getBytes()));
+			pipe.sink().close();
+			pipe.source().close();
+		});
+	}
+}
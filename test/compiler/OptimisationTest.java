@@ -0,0 +1,138 @@
+package compiler;
+
+import runtime.Instruction;
+import utility.Tests;
+
+/**
+ * Tests that the programs the Compiler optimises behave as the ones it doesn't
+ * optimise and that they execute fewer instructions, because calculations are
+ * reused and moved out of loops, and that constant expressions of any depth
+ * are folded.
+ *
+ * @author Alex Mandelias
+ */
+public final class OptimisationTest {
+
+	private static final int MULTIPLY = Instruction.MULTIPLY.opcode();
+
+	/* a * b is calculated twice in the first let, again in the second and after a changes */
+	private static final String repeated = String.join("\n", "01 int a b c d", "02 input a b",
+	        "03 let c = a * b + a * b * 2", "04 let d = a * b - c", "05 print c d",
+	        "06 let a = a + 1", "07 let d = a * b", "08 print d", "09 end", "");
+
+	/* a * b + 3 doesn't change in the loop */
+	private static final String invariant = String.join("\n", "01 int a b i n s",
+	        "02 input a b n", "03 let i = 0", "04 let s = 0", "05 while i < n",
+	        "06   let s = s + (a * b + 3)", "07   let i = i + 1", "08 endwhile", "09 print s",
+	        "10 end", "");
+
+	/* the same program, with a * b + 3 calculated before the loop */
+	private static final String hoisted = String.join("\n", "01 int a b i n s k",
+	        "02 input a b n", "03 let i = 0", "04 let s = 0", "05 let k = a * b + 3",
+	        "06 while i < n", "07   let s = s + k", "08   let i = i + 1", "09 endwhile",
+	        "10 print s", "11 end", "");
+
+	/* a / b doesn't change in the loop, but b may be 0 when the loop isn't executed */
+	private static final String division = String.join("\n", "01 int a b i n s",
+	        "02 input a b n", "03 let i = 0", "04 let s = 0", "05 while i < n",
+	        "06   let s = s + a / b", "07   let i = i + 1", "08 endwhile", "09 print s",
+	        "10 end", "");
+
+	/* 1 + 1 + ... + 1, nested deeper than a recursive evaluation of it could go */
+	private static final int depth = 10_000;
+
+	private OptimisationTest() {}
+
+	/**
+	 * Runs the tests of this class.
+	 *
+	 * @param args not used
+	 */
+	public static void main(String[] args) {
+		OptimisationTest.run();
+		Tests.report();
+	}
+
+	/** Runs the tests */
+	public static void run() {
+		for (final String[] program : Programs.all)
+			Tests.test("behaves the same " + program[0].lines().findFirst().get(), () -> {
+				final int[] image     = Programs.compile(program[0], false).image;
+				final int[] optimised = Programs.compile(program[0], true).image;
+
+				Tests.checkEquals(Programs.execute(image, program[1]).output,
+				        Programs.execute(optimised, program[1]).output, "output");
+				Tests.check(Programs.executed(optimised, program[1]) < Programs.executed(image,
+				        program[1]), "optimised program executes more instructions");
+			});
+
+		Tests.test("reuses calculations", () -> {
+			final Programs.Compilation compilation = Programs.compile(OptimisationTest.repeated,
+			        false);
+			final Programs.Compilation optimised   = Programs.compile(OptimisationTest.repeated,
+			        true);
+
+			Tests.checkEquals(5, OptimisationTest.count(compilation.code, MULTIPLY), "MULTIPLY");
+			Tests.checkEquals(3, OptimisationTest.count(optimised.code, MULTIPLY),
+			        "optimised MULTIPLY");
+
+			// 3 * 4 + 3 * 4 * 2, 3 * 4 - 36 and 4 * 4
+			final String output = Programs.execute(optimised.image, "3\n4\n").output;
+			Tests.checkEquals(Programs.execute(compilation.image, "3\n4\n").output, output,
+			        "output");
+			Tests.check(output.contains("0024") && output.contains("ffffffe8")
+			        && output.contains("0010"), "output %s", output);
+		});
+
+		Tests.test("moves invariant calculations out of loops", () -> {
+			final long iterations = OptimisationTest.iterations(OptimisationTest.invariant, true);
+
+			Tests.check(iterations < OptimisationTest.iterations(OptimisationTest.invariant, false),
+			        "%d instructions", iterations);
+			Tests.checkEquals(OptimisationTest.iterations(OptimisationTest.hoisted, true),
+			        iterations, "instructions");
+
+			// 10 * (3 * 4 + 3)
+			Tests.check(Programs.execute(Programs.compile(OptimisationTest.invariant, true).image,
+			        "3\n4\na\n").output.contains("0096"), "output");
+		});
+
+		Tests.test("doesn't divide by zero before loops", () -> {
+			final int[] image = Programs.compile(OptimisationTest.division, true).image;
+
+			Tests.check(Programs.execute(image, "5\n0\n0\n").output.contains("0000"), "output");
+			Tests.check(Programs.execute(image, "7\n2\n3\n").output.contains("0009"), "output");
+		});
+
+		Tests.test("folds deep expressions", () -> {
+			final String left  = "(".repeat(OptimisationTest.depth) + "1"
+			        + " + 1)".repeat(OptimisationTest.depth);
+			final String right = "(1 + ".repeat(OptimisationTest.depth) + "1"
+			        + ")".repeat(OptimisationTest.depth);
+
+			for (final String expression : new String[] { left, right }) {
+				final Programs.Compilation compilation = Programs.compile(String.join("\n",
+				        "01 int a", "02 let a = " + expression, "03 print a", "04 end", ""), true);
+
+				Tests.check(Programs.execute(compilation.image, "").output.contains(String
+				        .format("%04x", OptimisationTest.depth + 1)), "output");
+			}
+		});
+	}
+
+	/* the number of instructions that 10 iterations of the loop of a program execute */
+	private static long iterations(String program, boolean optimise) throws Exception {
+		final int[] image = Programs.compile(program, optimise).image;
+		return Programs.executed(image, "3\n4\n14\n") - Programs.executed(image, "3\n4\na\n");
+	}
+
+	/* the number of instructions with an opcode */
+	private static int count(int[] code, int opcode) {
+		int count = 0;
+		for (final int instruction : code)
+			if ((instruction - (instruction % 0x100)) == opcode)
+				++count;
+
+		return count;
+	}
+}
@@ -0,0 +1,113 @@
+package compiler;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+
+import compiler.ast.Invalid;
+import compiler.ast.Symbol;
+import compiler.exceptions.CompilerException;
+import compiler.symboltable.SymbolTable;
+import utility.Tests;
+
+/**
+ * Tests that a {@link Parser} that checks the lines of a large program in
+ * parallel produces the same Nodes and errors, in the same order, as when it
+ * checks them sequentially.
+ *
+ * @author Alex Mandelias
+ */
+public final class ParserTest {
+
+	/* more than 1024 lines, so that the parallel check is split in many tasks */
+	private static final int groups = 400;
+
+	/* lines with an error, one of which is placed in each group */
+	private static final String[] errors = { "let 5 = a", "print", "input a b 5", "endwhile",
+	        "let a = ( b + 1", "goto label", "x12 print a", "repeat a", "label :a :b",
+	        "else", "endif", "if a < b c" };
+
+	private ParserTest() {}
+
+	/**
+	 * Runs the tests of this class.
+	 *
+	 * @param args not used
+	 */
+	public static void main(String[] args) {
+		ParserTest.run();
+		Tests.report();
+	}
+
+	/** Runs the tests */
+	public static void run() {
+		Tests.test("parallel is the same as sequential", () -> {
+			final List<String> lines      = ParserTest.program();
+			final Parser       sequential = new Parser(new SymbolTable());
+			final Parser       parallel   = new Parser(new SymbolTable());
+
+			final String expected = ParserTest.describe(sequential.parse(lines, false));
+			final String actual   = ParserTest.describe(parallel.parse(lines, true));
+
+			// every group has an error, the nested ones included
+			final int errors = expected.split(Invalid.class.getSimpleName() + "\\{", -1).length - 1;
+			Tests.check(errors >= ParserTest.groups, "%d errors", errors);
+			Tests.checkEquals(expected, actual, "nodes");
+			Tests.checkEquals(sequential.lines(), parallel.lines(), "lines");
+			Tests.checkEquals(sequential.lineNumber(), parallel.lineNumber(), "line number");
+		});
+	}
+
+	/* groups of statements with blocks and an error in each, some across tasks */
+	private static List<String> program() {
+		final List<String> lines = new ArrayList<>();
+		lines.add("int a b c");
+		for (int group = 0; group < ParserTest.groups; ++group) {
+			lines.add("input a b");
+			lines.add("let c = (a + 3) * b % 7");
+			lines.add("if a < b");
+			lines.add("  print a");
+			lines.add("else");
+			lines.add("  while c > 0");
+			lines.add("    let c = c - 1");
+			lines.add(ParserTest.errors[group % ParserTest.errors.length]);
+			if ((group % 5) != 0)
+				lines.add("  endwhile");
+			lines.add("endif");
+			lines.add("label :l" + group);
+			lines.add("ifg a == 3 jumpto :l" + group);
+			lines.add("// a comment");
+		}
+		lines.add("end");
+
+		final List<String> numbered = new ArrayList<>();
+		for (final String line : lines)
+			numbered.add(String.format("%d %s", numbered.size() + 1, line));
+
+		return numbered;
+	}
+
+	/* the type and the fields of every Node, without the ids of the Symbols */
+	private static String describe(Object object) throws IllegalAccessException {
+		if (object instanceof List) {
+			final StringBuilder description = new StringBuilder("[");
+			for (final Object element : (List<?>) object)
+				description.append(ParserTest.describe(element)).append(", ");
+			return description.append("]").toString();
+		}
+
+		if (object instanceof Symbol)
+			return ((Symbol) object).name + ":" + ((Symbol) object).type;
+		if (object instanceof CompilerException)
+			return object.getClass().getSimpleName() + ":" + ((Exception) object).getMessage();
+		if ((object == null) || !object.getClass().getPackageName().equals("compiler.ast"))
+			return String.valueOf(object);
+
+		final StringBuilder description = new StringBuilder(object.getClass().getSimpleName());
+		description.append("{");
+		for (final Field field : object.getClass().getFields())
+			description.append(field.getName()).append("=")
+			        .append(ParserTest.describe(field.get(object))).append(" ");
+		return description.append("}").toString();
+	}
+}
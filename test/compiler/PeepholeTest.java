@@ -0,0 +1,139 @@
+package compiler;
+
+import java.util.Arrays;
+
+import runtime.Instruction;
+import utility.Tests;
+
+/**
+ * Tests the rules of a {@link Peephole} optimiser, the relocation of the code
+ * after it and that the code it optimises behaves the same.
+ *
+ * @author Alex Mandelias
+ */
+public final class PeepholeTest {
+
+	private static final int WRITE      = Instruction.WRITE.opcode();
+	private static final int LOAD       = Instruction.LOAD.opcode();
+	private static final int STORE      = Instruction.STORE.opcode();
+	private static final int BRANCH     = Instruction.BRANCH.opcode();
+	private static final int BRANCHNEG  = Instruction.BRANCHNEG.opcode();
+	private static final int BRANCHZERO = Instruction.BRANCHZERO.opcode();
+	private static final int HALT       = Instruction.HALT.opcode();
+	private static final int NOOP       = Instruction.NOOP.opcode();
+
+	private PeepholeTest() {}
+
+	/**
+	 * Runs the tests of this class.
+	 *
+	 * @param args not used
+	 */
+	public static void main(String[] args) {
+		PeepholeTest.run();
+		Tests.report();
+	}
+
+	/** Runs the tests */
+	public static void run() {
+		Tests.test("rules", () -> {
+			PeepholeTest.check("noop",
+			        new int[] { NOOP, WRITE + 0x10, NOOP, HALT },
+			        new int[] { WRITE + 0x10, HALT });
+			PeepholeTest.check("branch to next",
+			        new int[] { LOAD + 0x10, BRANCHZERO + 2, WRITE + 0x10, HALT },
+			        new int[] { LOAD + 0x10, WRITE + 0x10, HALT });
+			PeepholeTest.check("store load",
+			        new int[] { LOAD + 0x10, STORE + 0x11, LOAD + 0x11, WRITE + 0x11, HALT },
+			        new int[] { LOAD + 0x10, STORE + 0x11, WRITE + 0x11, HALT });
+			PeepholeTest.check("load store",
+			        new int[] { LOAD + 0x10, STORE + 0x10, WRITE + 0x10, HALT },
+			        new int[] { LOAD + 0x10, WRITE + 0x10, HALT });
+			PeepholeTest.check("load load",
+			        new int[] { LOAD + 0x10, LOAD + 0x11, STORE + 0x12, HALT },
+			        new int[] { LOAD + 0x11, STORE + 0x12, HALT });
+			PeepholeTest.check("branch before branch",
+			        new int[] { LOAD + 0x10, BRANCHNEG + 4, BRANCH + 4, WRITE + 0x10, WRITE + 0x11,
+			                HALT },
+			        new int[] { LOAD + 0x10, WRITE + 0x11, HALT });
+			PeepholeTest.check("repeated branch",
+			        new int[] { LOAD + 0x10, BRANCHZERO + 4, BRANCHZERO + 4, WRITE + 0x10, HALT },
+			        new int[] { LOAD + 0x10, BRANCHZERO + 3, WRITE + 0x10, HALT });
+			PeepholeTest.check("branch order",
+			        new int[] { LOAD + 0x10, BRANCHZERO + 5, BRANCHNEG + 6, WRITE + 0x10, HALT,
+			                WRITE + 0x11, HALT },
+			        new int[] { LOAD + 0x10, BRANCHNEG + 6, BRANCHZERO + 5, WRITE + 0x10, HALT,
+			                WRITE + 0x11, HALT });
+			PeepholeTest.check("branch to branch",
+			        new int[] { LOAD + 0x10, BRANCHZERO + 3, HALT, BRANCH + 5, WRITE + 0x10,
+			                WRITE + 0x11, HALT },
+			        new int[] { LOAD + 0x10, BRANCHZERO + 3, HALT, WRITE + 0x11, HALT });
+			PeepholeTest.check("unreachable",
+			        new int[] { WRITE + 0x10, HALT, WRITE + 0x11, HALT },
+			        new int[] { WRITE + 0x10, HALT });
+		});
+
+		Tests.test("targets are kept", () -> {
+			// the LOAD may be reached with any value in the accumulator
+			PeepholeTest.check("store load",
+			        new int[] { LOAD + 0x10, STORE + 0x11, LOAD + 0x11, BRANCHZERO + 2, HALT },
+			        new int[] { LOAD + 0x10, STORE + 0x11, LOAD + 0x11, BRANCHZERO + 2, HALT });
+			PeepholeTest.check("unreachable",
+			        new int[] { LOAD + 0x10, BRANCHZERO + 3, HALT, WRITE + 0x10, HALT },
+			        new int[] { LOAD + 0x10, BRANCHZERO + 3, HALT, WRITE + 0x10, HALT });
+		});
+
+		Tests.test("loops aren't threaded", () -> {
+			PeepholeTest.check("loop", new int[] { BRANCH + 0 }, new int[] { BRANCH + 0 });
+			PeepholeTest.check("branch to loop",
+			        new int[] { LOAD + 0x10, BRANCHZERO + 3, HALT, BRANCH + 3 },
+			        new int[] { LOAD + 0x10, BRANCHZERO + 3, HALT, BRANCH + 3 });
+		});
+
+		Tests.test("relocation", () -> {
+			final Peephole peephole = new Peephole(new int[] { LOAD + 0x10, NOOP, BRANCHZERO + 5,
+			        NOOP, WRITE + 0x10, HALT });
+
+			Tests.checkEquals(Arrays.toString(new int[] { LOAD + 0x10, BRANCHZERO + 3,
+			        WRITE + 0x10, HALT }), Arrays.toString(peephole.optimise()), "code");
+
+			final int[] addresses = { 0, 1, 1, 2, 2, 3, 4 };
+			for (int address = 0; address < addresses.length; ++address)
+				Tests.checkEquals(addresses[address], peephole.address(address),
+				        "address of " + address);
+		});
+
+		for (final String[] program : Programs.all)
+			Tests.test("behaves the same " + program[0].lines().findFirst().get(), () -> {
+				final Programs.Compilation compilation = Programs.compile(program[0], false);
+
+				final int[] code      = compilation.code;
+				final int[] optimised = new Peephole(code).optimise();
+				final int[] image     = compilation.image.clone();
+				for (int i = 0; i < code.length; ++i)
+					image[i] = i < optimised.length ? optimised[i] : 0;
+
+				Tests.check(optimised.length < code.length, "code of %d instructions",
+				        optimised.length);
+				for (final int instruction : optimised)
+					Tests.check(instruction != NOOP, "NOOP wasn't removed");
+				for (final int instruction : optimised) {
+					final int opcode  = instruction - (instruction % 0x100);
+					final int operand = instruction % 0x100;
+					if (((opcode == BRANCH) || (opcode == BRANCHNEG) || (opcode == BRANCHZERO))
+					        && (operand < optimised.length))
+						Tests.check(((optimised[operand] - (optimised[operand] % 0x100)) != BRANCH)
+						        || (optimised[operand] == (BRANCH + operand)),
+						        "branch to %d wasn't threaded", operand);
+				}
+
+				Tests.checkEquals(Programs.execute(compilation.image, program[1]).output,
+				        Programs.execute(image, program[1]).output, "output");
+			});
+	}
+
+	private static void check(String rule, int[] code, int[] expected) {
+		Tests.checkEquals(Arrays.toString(expected),
+		        Arrays.toString(new Peephole(code).optimise()), rule);
+	}
+}
@@ -0,0 +1,161 @@
+package compiler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+import requirement.util.Requirements;
+import runtime.ExecutionCache;
+import runtime.ExecutionResult;
+import runtime.ExecutionStatus;
+import utility.Tests;
+
+/**
+ * Compiles and executes the programs of the tests of the Compiler.
+ *
+ * @author Alex Mandelias
+ */
+final class Programs {
+
+	/** Nested loops and every kind of condition, without input */
+	static final String loops = String.join("\n", "01 int i j s n", "02 let n = 5",
+	        "03 let s = 0", "04 let i = 0", "05 while i < n", "06   let j = 0",
+	        "07   while j <= i", "08     let s = s + i * j", "09     let j = j + 1",
+	        "10   endwhile", "11   if s > 10", "12     print s", "13   else", "14     print i",
+	        "15   endif", "16   if i == 2", "17     print 222", "18   endif", "19   if i != 3",
+	        "20     print 333", "21   endif", "22   if i >= 3", "23     print 444", "24   endif",
+	        "25   if i <= 1", "26     print 555", "27   endif", "28   let i = i + 1",
+	        "29 endwhile", "30 while s > 0", "31   let s = s - 7", "32 endwhile",
+	        "33 while i != 0", "34   let i = i - 1", "35 endwhile", "36 print s i j n", "37 end",
+	        "");
+
+	/** Nested ifs, labels and jumps, and a number guessing game that reads its input */
+	static final String guess = String.join("\n", "01 int a b c", "02 label :input",
+	        "03 input b c", "04 let a = ((b*b) + c*c) ^ 2 / 5", "05 print a b c",
+	        "06 goto :back", "07 noop", "08 label :back", "09 ifg a < 10 jumpto :input",
+	        "10 while b != c", "11   input b", "12   if b < c", "13     print 1", "14   else",
+	        "15     if b > c", "16       print 0", "17     endif", "18   endif", "19 endwhile",
+	        "20 print c", "21 end", "");
+
+	/** The input of {@link #guess} */
+	static final String guessInput = String.join("\n", "1", "2", "3", "7", "1", "9", "5", "7",
+	        "");
+
+	/** The greatest common divisor and the factorial of the input */
+	static final String gcd = String.join("\n", "01 int a b t f n", "02 input a b",
+	        "03 while b != 0", "04   let t = a % b", "05   let a = b", "06   let b = t",
+	        "07 endwhile", "08 print a", "09 input n", "10 let f = 1", "11 while n > 1",
+	        "12   let f = f * n", "13   let n = n - 1", "14 endwhile", "15 print f", "16 end",
+	        "");
+
+	/** The input of {@link #gcd} */
+	static final String gcdInput = String.join("\n", "54", "1e", "5", "");
+
+	/** The programs above and their inputs */
+	static final String[][] all = { { Programs.loops, "" }, { Programs.guess, Programs.guessInput },
+	        { Programs.gcd, Programs.gcdInput } };
+
+	private static final ExecutionCache executions = new ExecutionCache(1 << 20);
+
+	/** A compiled program */
+	static final class Compilation {
+
+		/** The memory image of the program, as it would be written to a file */
+		final int[] image;
+
+		/** The instructions of the program, at the start of its image */
+		final int[] code;
+
+		private Compilation(int[] image, int[] code) {
+			this.image = image;
+			this.code = code;
+		}
+	}
+
+	private Programs() {}
+
+	/**
+	 * Compiles a program and fails if it has errors.
+	 *
+	 * @param program  the program
+	 * @param optimise whether to optimise it
+	 *
+	 * @return the compiled program
+	 *
+	 * @throws Exception if the files of the compilation can't be used
+	 */
+	static Compilation compile(String program, boolean optimise) throws Exception {
+		final File                  source = File.createTempFile("program", ".sml");
+		final File                  output = File.createTempFile("program", ".txt");
+		final ByteArrayOutputStream err    = new ByteArrayOutputStream();
+		Files.writeString(source.toPath(), program);
+
+		final SML_Compiler compiler = new SML_Compiler(
+		        Tests.streams("", new ByteArrayOutputStream(), err));
+
+		final Requirements reqs = SML_Compiler.getRequirements();
+		reqs.fulfil("input", source.getPath());
+		reqs.fulfil("output", output.getPath());
+		reqs.fulfil("optimise", optimise);
+
+		compiler.compile(reqs);
+
+		final List<String> lines = Files.readAllLines(output.toPath());
+		final int[]        image = new int[lines.size()];
+		for (int i = 0; i < image.length; ++i)
+			image[i] = Integer.parseInt(lines.get(i), 16);
+
+		source.delete();
+		output.delete();
+
+		Tests.check(err.size() == 0, "errors %s", err);
+		return new Compilation(image, compiler.code());
+	}
+
+	/**
+	 * Executes a memory image with an input and fails if it doesn't halt.
+	 *
+	 * @param image the image
+	 * @param input the input
+	 *
+	 * @return the result of the execution
+	 */
+	static ExecutionResult execute(int[] image, String input) {
+		final ExecutionResult result = Programs.executions.execute(image, input, 0, 0);
+		Tests.checkEquals(ExecutionStatus.HALTED, result.status, "status");
+		return result;
+	}
+
+	/**
+	 * Returns the smallest limit of instructions with which a memory image halts.
+	 * The limit is only checked at backward jumps, therefore this is the number of
+	 * instructions that were executed up to the last backward jump.
+	 *
+	 * @param image the image
+	 * @param input the input
+	 *
+	 * @return the smallest limit
+	 */
+	static long executed(int[] image, String input) {
+		long high = 1;
+		while (!Programs.halts(image, input, high))
+			high *= 2;
+
+		long low = high / 2;
+		while ((high - low) > 1) {
+			final long middle = (low + high) / 2;
+			if (Programs.halts(image, input, middle))
+				high = middle;
+			else
+				low = middle;
+		}
+
+		return high;
+	}
+
+	private static boolean halts(int[] image, String input, long limit) {
+		return Programs.executions.execute(image, input, limit, 0).status
+		        == ExecutionStatus.HALTED;
+	}
+}
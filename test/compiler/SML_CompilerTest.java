@@ -0,0 +1,275 @@
+package compiler;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import requirement.util.Requirements;
+import utility.ContentCache;
+import utility.Tests;
+
+/**
+ * Tests that an {@link SML_Compiler} finds the programs it compiled in a cache,
+ * but not the ones that a different version or build of it compiled, and that
+ * compiling a program incrementally generates the same code and errors as
+ * compiling it from scratch.
+ *
+ * @author Alex Mandelias
+ */
+public final class SML_CompilerTest {
+
+	private static final String program = "01 int a\n02 input a\n03 print a\n04 end\n";
+
+	/* the same tokens, with different whitespace */
+	private static final String spaced = "01   int a\n\n02 input  a\n03 print a\n04 end\n";
+
+	private static final String found = "Program found in cache";
+
+	private static final String[] blocks = { "01 int a b i", "02 input a b", "03 let i = 0",
+	        "04 if a < b", "05   print a", "06 else", "07   print b", "08 endif",
+	        "09 while i < 3", "10   let i = i + 1", "11   print i", "12 endwhile",
+	        "13 int c", "14 let c = a * b", "15 print c", "16 end" };
+
+	private SML_CompilerTest() {}
+
+	/**
+	 * Runs the tests of this class.
+	 *
+	 * @param args not used
+	 */
+	public static void main(String[] args) {
+		SML_CompilerTest.run();
+		Tests.report();
+	}
+
+	/** Runs the tests */
+	public static void run() {
+		Tests.test("cache keys", () -> {
+			final ContentCache<String> cache = new ContentCache<>(100, String::length);
+			cache.put(SML_Compiler.cacheKey(SML_CompilerTest.program, false, 2, "build"), "value");
+
+			Tests.checkEquals("value",
+			        cache.get(SML_Compiler.cacheKey(SML_CompilerTest.spaced, false, 2, "build")),
+			        "same build");
+			Tests.checkEquals(null,
+			        cache.get(SML_Compiler.cacheKey(SML_CompilerTest.program, false, 3, "build")),
+			        "different version");
+			Tests.checkEquals(null,
+			        cache.get(SML_Compiler.cacheKey(SML_CompilerTest.program, false, 2, "other")),
+			        "different build");
+			Tests.checkEquals(null,
+			        cache.get(SML_Compiler.cacheKey(SML_CompilerTest.program, true, 2, "build")),
+			        "optimised");
+		});
+
+		Tests.test("cache hits for the same build", () -> {
+			final File directory = Files.createTempDirectory("programs").toFile();
+
+			Tests.check(!SML_CompilerTest.compile(SML_CompilerTest.program, directory)
+			        .contains(SML_CompilerTest.found), "first compilation was found");
+			Tests.check(SML_CompilerTest.compile(SML_CompilerTest.spaced, directory)
+			        .contains(SML_CompilerTest.found), "second compilation wasn't found");
+		});
+
+		Tests.test("cache misses for a different build", () -> {
+			final File directory = Files.createTempDirectory("programs").toFile();
+			SML_CompilerTest.compile(SML_CompilerTest.program, directory);
+
+			// the same classes in a different directory are the same build
+			final Path same = SML_CompilerTest.copyClasses();
+			Tests.check(SML_CompilerTest.compile(same, SML_CompilerTest.program, directory)
+			        .contains(SML_CompilerTest.found), "same build wasn't found");
+
+			final Path different = SML_CompilerTest.copyClasses();
+			Files.copy(different.resolve("compiler/SML_Compiler.class"),
+			        different.resolve("compiler/Different.class"));
+			Tests.check(!SML_CompilerTest.compile(different, SML_CompilerTest.program, directory)
+			        .contains(SML_CompilerTest.found), "different build was found");
+
+			try (Stream<Path> files = Files.list(directory.toPath())) {
+				Tests.checkEquals(2L, files.count(), "programs in cache");
+			}
+		});
+
+		final String original = SML_CompilerTest.edit();
+
+		Tests.test("incremental before block", () -> SML_CompilerTest.incremental(original,
+		        SML_CompilerTest.edit("03", "03 let i = 1"), false, false, 2));
+
+		Tests.test("incremental inside if", () -> SML_CompilerTest.incremental(original,
+		        SML_CompilerTest.edit("07", "07   print a b"), false, false, 3));
+
+		Tests.test("incremental inside while", () -> SML_CompilerTest.incremental(original,
+		        SML_CompilerTest.edit("10", "10   let i = i + 2"), false, false, 8));
+
+		Tests.test("incremental after blocks", () -> SML_CompilerTest.incremental(original,
+		        SML_CompilerTest.edit("15", "15 print c a"), false, false, 14));
+
+		Tests.test("incremental without variable", () -> {
+			// the data of c and of the constant are released
+			SML_CompilerTest.incremental(original, SML_CompilerTest.edit("13", "13 rem",
+			        "14", "14 let a = b", "15", "15 print a"), false, false, 12);
+			SML_CompilerTest.incremental(SML_CompilerTest.edit("13", "13 rem", "14", "14 rem"),
+			        original, false, false, 12);
+		});
+
+		Tests.test("incremental without error", () -> {
+			SML_CompilerTest.incremental(SML_CompilerTest.edit("10", "10   let i = j + 1"),
+			        original, false, false, 8);
+			SML_CompilerTest.incremental(SML_CompilerTest.edit("15", "15 print d"), original,
+			        false, false, 14);
+		});
+
+		Tests.test("incremental after error", () -> {
+			// statements after an error are never reused
+			SML_CompilerTest.incremental(SML_CompilerTest.edit("03", "03 let i = j"),
+			        SML_CompilerTest.edit("03", "03 let i = j", "15", "15 print c a"), false,
+			        false, 0);
+		});
+
+		Tests.test("incremental optimised", () -> {
+			SML_CompilerTest.incremental(original, SML_CompilerTest.edit("15", "15 print c a"),
+			        true, true, 14);
+			SML_CompilerTest.incremental(original, SML_CompilerTest.edit("10", "10   let i = i + 2"),
+			        true, true, 8);
+		});
+
+		Tests.test("incremental with other optimisation", () -> {
+			SML_CompilerTest.incremental(original, SML_CompilerTest.edit("15", "15 print c a"),
+			        false, true, 0);
+			SML_CompilerTest.incremental(original, SML_CompilerTest.edit("15", "15 print c a"),
+			        true, false, 0);
+		});
+	}
+
+	/*
+	 * compiles a program and then an edited one incrementally, with the same
+	 * Compiler, and checks that the first lines were reused and that the code and
+	 * the errors are the same as when compiling the edited program from scratch
+	 */
+	private static void incremental(String previous, String program, boolean optimisePrevious,
+	        boolean optimise, int reused) throws Exception {
+		final File                  input    = SML_CompilerTest.write(previous);
+		final File                  output   = File.createTempFile("program", ".txt");
+		final File                  expected = File.createTempFile("program", ".txt");
+		final ByteArrayOutputStream out      = new ByteArrayOutputStream();
+		final ByteArrayOutputStream err      = new ByteArrayOutputStream();
+		final SML_Compiler          compiler = new SML_Compiler(Tests.streams("", out, err));
+
+		final Requirements reqs = SML_Compiler.getRequirements();
+		reqs.fulfil("input", input.getPath());
+		reqs.fulfil("output", output.getPath());
+		reqs.fulfil("incremental", true);
+		reqs.fulfil("verbose", true);
+		reqs.fulfil("optimise", optimisePrevious);
+		compiler.compile(reqs);
+
+		Files.writeString(input.toPath(), program);
+		Files.writeString(output.toPath(), "");
+		out.reset();
+		err.reset();
+		reqs.fulfil("optimise", optimise);
+		compiler.compile(reqs);
+
+		final ByteArrayOutputStream expectedErr = new ByteArrayOutputStream();
+		final Requirements          clean       = SML_Compiler.getRequirements();
+		clean.fulfil("input", input.getPath());
+		clean.fulfil("output", expected.getPath());
+		clean.fulfil("optimise", optimise);
+		new SML_Compiler(Tests.streams("", new ByteArrayOutputStream(), expectedErr)).compile(clean);
+
+		Tests.checkEquals(reused > 0,
+		        out.toString().contains("Reused the first " + reused + " lines"),
+		        "reused " + reused + " lines");
+		Tests.checkEquals(expectedErr.toString(), err.toString(), "errors");
+		Tests.checkEquals(Files.readString(expected.toPath()), Files.readString(output.toPath()),
+		        "code");
+	}
+
+	/* the lines of the program with blocks, with some of them replaced */
+	private static String edit(String... replacements) {
+		final List<String> lines = new ArrayList<>(Arrays.asList(SML_CompilerTest.blocks));
+		for (int i = 0; i < replacements.length; i += 2)
+			lines.set(Integer.parseInt(replacements[i]) - 1, replacements[i + 1]);
+
+		return String.join("\n", lines) + "\n";
+	}
+
+	/* compiles a program with a cache directory and returns the output */
+	private static String compile(String source, File directory) throws Exception {
+		final File                  input    = SML_CompilerTest.write(source);
+		final ByteArrayOutputStream out      = new ByteArrayOutputStream();
+		final SML_Compiler          compiler = new SML_Compiler(
+		        Tests.streams("", out, new ByteArrayOutputStream()));
+
+		final Requirements reqs = SML_Compiler.getRequirements();
+		reqs.fulfil("input", input.getPath());
+		reqs.fulfil("output", File.createTempFile("program", ".txt").getPath());
+		reqs.fulfil("cache", directory.getPath());
+		reqs.fulfil("verbose", true);
+
+		compiler.compile(reqs);
+		return out.toString();
+	}
+
+	/* compiles a program with the Compiler whose classes are in a directory */
+	private static String compile(Path classes, String source, File directory) throws Exception {
+		final File  input = SML_CompilerTest.write(source);
+		final URL[] urls  = { classes.toUri().toURL(), SML_CompilerTest
+		        .location(Requirements.class).toUri().toURL() };
+
+		final PrintStream           previous = System.out;
+		final ByteArrayOutputStream out      = new ByteArrayOutputStream();
+		try (URLClassLoader loader = new URLClassLoader(urls,
+		        ClassLoader.getPlatformClassLoader())) {
+			System.setOut(new PrintStream(out, true));
+			loader.loadClass(SML_Compiler.class.getName())
+			        .getMethod("main", String[].class)
+			        .invoke(null, (Object) new String[] { "--input", input.getPath(), "--output",
+			                File.createTempFile("program", ".txt").getPath(), "--cache",
+			                directory.getPath(), "-verbose" });
+		} finally {
+			System.setOut(previous);
+		}
+
+		return out.toString();
+	}
+
+	/* copies the directory of the classes of the Compiler */
+	private static Path copyClasses() throws Exception {
+		final Path classes = SML_CompilerTest.location(SML_Compiler.class);
+		final Path copy    = Files.createTempDirectory("classes");
+		Tests.check(Files.isDirectory(classes), "classes aren't in a directory: %s", classes);
+
+		try (Stream<Path> files = Files.walk(classes)) {
+			for (final Path file : (Iterable<Path>) files::iterator) {
+				final Path target = copy.resolve(classes.relativize(file).toString());
+				if (Files.isDirectory(file))
+					Files.createDirectories(target);
+				else
+					Files.copy(file, target);
+			}
+		}
+
+		return copy;
+	}
+
+	private static Path location(Class<?> c) throws Exception {
+		return Paths.get(c.getProtectionDomain().getCodeSource().getLocation().toURI());
+	}
+
+	private static File write(String source) throws Exception {
+		final File file = File.createTempFile("program", ".sml");
+		Files.writeString(file.toPath(), source);
+		return file;
+	}
+}
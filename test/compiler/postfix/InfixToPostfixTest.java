@@ -0,0 +1,90 @@
+package compiler.postfix;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import compiler.exceptions.UnexpectedTokenException;
+import utility.Tests;
+
+/**
+ * Tests the precedence and the associativity of the operators of
+ * {@link InfixToPostfix} and the {@link Token Tokens} of the expressions.
+ *
+ * @author Alex Mandelias
+ */
+public final class InfixToPostfixTest {
+
+	private InfixToPostfixTest() {}
+
+	/**
+	 * Runs the tests of this class.
+	 *
+	 * @param args not used
+	 */
+	public static void main(String[] args) {
+		InfixToPostfixTest.run();
+		Tests.report();
+	}
+
+	/** Runs the tests */
+	public static void run() {
+		Tests.test("precedence", () -> {
+			InfixToPostfixTest.check("a + b * c", "a b c * +");
+			InfixToPostfixTest.check("a * b + c", "a b * c +");
+			InfixToPostfixTest.check("a % b ^ c", "a b c ^ %");
+			InfixToPostfixTest.check("( a + b ) * c", "a b + c *");
+		});
+
+		Tests.test("associativity", () -> {
+			InfixToPostfixTest.check("a - b - c", "a b - c -");
+			InfixToPostfixTest.check("a / b * c", "a b / c *");
+			InfixToPostfixTest.check("a ^ b ^ c", "a b c ^ ^");
+		});
+
+		Tests.test("without spaces", () -> InfixToPostfixTest.check("a+b*(c-10)", "a b c 10 - * +"));
+
+		Tests.test("malformed", () -> {
+			for (final String infix : new String[] { "a +", "( a + b", "a b", "* a", "a + )", "",
+			        "( )", "( a ) )", "a ) b" })
+				try {
+					InfixToPostfix.convertToPostfix(infix);
+					Tests.check(false, "%s was converted", infix);
+				} catch (final UnexpectedTokenException e) {
+					// expected
+				}
+		});
+
+		Tests.test("deep nesting", () -> {
+			final int depth = 100_000;
+
+			InfixToPostfixTest.check("(".repeat(depth) + "a + 1" + ")".repeat(depth), "a 1 +");
+			InfixToPostfixTest.check("a" + " ^ a".repeat(3), "a a a a ^ ^ ^");
+
+			final List<Token> tokens = InfixToPostfix.convertToPostfix("a" + " ^ a".repeat(depth));
+			Tests.checkEquals(2 * depth + 1, tokens.size(), "tokens");
+			Tests.checkEquals(Token.POW, tokens.get(tokens.size() - 1), "last token");
+			Tests.checkEquals("a", tokens.get(depth).value, "last operand");
+		});
+
+		Tests.test("operators are unique", () -> {
+			Tests.check(Token.of("+") == Token.ADD, "+");
+			Tests.check(Token.of('(') == Token.LEFT_PAREN, "(");
+			Tests.check(Token.of("+").isOperator(), "+ isn't an operator");
+			Tests.check(!Token.of("x").isOperatorOrParenthesis(), "x is an operator");
+		});
+
+		Tests.test("many operands", () -> {
+			// more operands than the table of recent operands holds
+			for (int i = 0; i < 10_000; ++i) {
+				final String value = "v" + i;
+				Tests.checkEquals(value, Token.of(value).value, "operand");
+			}
+		});
+	}
+
+	private static void check(String infix, String postfix) throws UnexpectedTokenException {
+		final List<Token> tokens = InfixToPostfix.convertToPostfix(infix);
+		Tests.checkEquals(postfix,
+		        tokens.stream().map(Token::toString).collect(Collectors.joining(" ")), infix);
+	}
+}
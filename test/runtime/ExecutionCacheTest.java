@@ -0,0 +1,171 @@
+package runtime;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.file.Files;
+
+import requirement.util.Requirements;
+import utility.Tests;
+
+/**
+ * Tests that an {@link ExecutionCache} returns the results of previous
+ * executions, also through the {@code cache} Requirement of the
+ * {@link SML_Executor}, and that executions on different threads don't affect
+ * each other's results.
+ *
+ * @author Alex Mandelias
+ */
+public final class ExecutionCacheTest {
+
+	private static final int READ_INT   = Instruction.READ_INT.opcode();
+	private static final int WRITE      = Instruction.WRITE.opcode();
+	private static final int LOAD       = Instruction.LOAD.opcode();
+	private static final int ADD        = Instruction.ADD.opcode();
+	private static final int SUBTRACT   = Instruction.SUBTRACT.opcode();
+	private static final int MOD        = Instruction.MOD.opcode();
+	private static final int STORE      = Instruction.STORE.opcode();
+	private static final int BRANCH     = Instruction.BRANCH.opcode();
+	private static final int BRANCHZERO = Instruction.BRANCHZERO.opcode();
+	private static final int HALT       = Instruction.HALT.opcode();
+
+	/* reads two values and prints their sum */
+	private static final int[] sum = { READ_INT + 0x10, READ_INT + 0x11, LOAD + 0x10, ADD + 0x11,
+	        STORE + 0x12, WRITE + 0x12, HALT };
+
+	/* jumps to itself forever */
+	private static final int[] loop = { BRANCH + 0x00 };
+
+	/* counts modulo 1000 forever, never in the same state twice in a row */
+	private static final int[] counter = new int[0x13];
+	static {
+		System.arraycopy(new int[] { LOAD + 0x10, ADD + 0x11, MOD + 0x12, STORE + 0x10,
+		        BRANCH + 0x00 }, 0, ExecutionCacheTest.counter, 0, 5);
+		ExecutionCacheTest.counter[0x11] = 1;
+		ExecutionCacheTest.counter[0x12] = 1000;
+	}
+
+	private ExecutionCacheTest() {}
+
+	/**
+	 * Runs the tests of this class.
+	 *
+	 * @param args not used
+	 */
+	public static void main(String[] args) {
+		ExecutionCacheTest.run();
+		Tests.report();
+	}
+
+	/** Runs the tests */
+	public static void run() {
+		Tests.test("returns cached result", () -> {
+			final ExecutionCache  cache  = new ExecutionCache(1 << 20);
+			final ExecutionResult first  = cache.execute(sum, "2\n3\n", 0, 0);
+			final ExecutionResult second = cache.execute(sum, "2\n3\n", 0, 0);
+
+			Tests.checkEquals(ExecutionStatus.HALTED, first.status, "status");
+			Tests.check(first.output.contains("0005"), "output %s", first.output);
+			Tests.check(first == second, "second execution wasn't cached");
+		});
+
+		Tests.test("depends on input and limits", () -> {
+			final ExecutionCache cache = new ExecutionCache(1 << 20);
+
+			Tests.check(cache.execute(sum, "2\n4\n", 0, 0).output.contains("0006"), "input");
+			Tests.checkEquals(ExecutionStatus.INFINITE_LOOP, cache.execute(loop, "", 0, 0).status,
+			        "unlimited status");
+			Tests.checkEquals(ExecutionStatus.INSTRUCTION_LIMIT, cache.execute(loop, "", 1, 0).status,
+			        "limited status");
+		});
+
+		Tests.test("doesn't cache timeouts", () -> {
+			final ExecutionCache cache = new ExecutionCache(1 << 20);
+
+			final ExecutionResult first = cache.execute(counter, "", 0, 1);
+
+			Tests.checkEquals(ExecutionStatus.TIMEOUT, first.status, "status");
+			Tests.check(first != cache.execute(counter, "", 0, 1), "timeout was cached");
+		});
+
+		Tests.test("reads cached result from directory", () -> {
+			final File directory = Files.createTempDirectory("executions").toFile();
+
+			final ExecutionResult first  = new ExecutionCache(1 << 20, directory)
+			        .execute(sum, "2\n3\n", 0, 0);
+			final ExecutionResult second = new ExecutionCache(1 << 20, directory)
+			        .execute(sum, "2\n3\n", 0, 0);
+
+			Tests.checkEquals(first.output, second.output, "output");
+			Tests.checkEquals(first.dump, second.dump, "dump");
+		});
+
+		Tests.test("concurrent executions", () -> {
+			final ExecutionCache    cache   = new ExecutionCache(1 << 20);
+			final int               threads = 8, rounds = 10, iterations = 20_000;
+			final ExecutionResult[] results = new ExecutionResult[threads * rounds];
+
+			// every execution has a different input, so they all run at the same time
+			final Thread[] running = new Thread[threads];
+			for (int t = 0; t < threads; ++t) {
+				final int[] image = ExecutionCacheTest.count(0x20 + (0x10 * t));
+				final int   first = t;
+				running[t] = new Thread(() -> {
+					for (int i = first; i < results.length; i += threads)
+						results[i] = cache.execute(image,
+						        Integer.toHexString(iterations + i) + "\n", 0, 0);
+				});
+				running[t].start();
+			}
+			for (final Thread thread : running)
+				thread.join();
+
+			for (int i = 0; i < results.length; ++i) {
+				final int[]  image    = ExecutionCacheTest.count(0x20 + (0x10 * (i % threads)));
+				final String expected = String.format("%04x", iterations + i);
+				Tests.check((results[i] != null) && results[i].output.contains(expected),
+				        "execution %d: %s", i, results[i] == null ? null : results[i].output);
+				Tests.check(cache.execute(image, Integer.toHexString(iterations + i) + "\n", 0, 0)
+				        .output.contains(expected), "cached execution %d", i);
+			}
+		});
+
+		Tests.test("executor with cache", () -> {
+			final File          program = File.createTempFile("program", ".txt");
+			final StringBuilder code    = new StringBuilder();
+			for (final int instruction : sum)
+				code.append(Integer.toHexString(instruction)).append('\n');
+			Files.writeString(program.toPath(), code);
+
+			final String uncached = ExecutionCacheTest.execute(program, "none");
+			Tests.check(uncached.contains("0005"), "output %s", uncached);
+			Tests.checkEquals(uncached, ExecutionCacheTest.execute(program, "memory"), "first");
+			Tests.checkEquals(uncached, ExecutionCacheTest.execute(program, "memory"), "second");
+		});
+	}
+
+	/* reads n, counts from 0 to n one at a time and prints n, with its data at an address */
+	private static int[] count(int data) {
+		final int[] image = new int[data + 3];
+		System.arraycopy(new int[] { READ_INT + data, LOAD + data + 1, SUBTRACT + data,
+		        BRANCHZERO + 0x08, LOAD + data + 1, ADD + data + 2, STORE + data + 1,
+		        BRANCH + 0x01, WRITE + data + 1, HALT }, 0, image, 0, 10);
+		image[data + 2] = 1;
+		return image;
+	}
+
+	/* the output and the results of executing a program with the input 2 and 3 */
+	private static String execute(File program, String cache) throws Exception {
+		final File                  results  = File.createTempFile("results", ".txt");
+		final ByteArrayOutputStream out      = new ByteArrayOutputStream();
+		final SML_Executor          executor = new SML_Executor(
+		        Tests.streams("2\n3\n", out, new ByteArrayOutputStream()));
+
+		final Requirements reqs = SML_Executor.getRequirements();
+		reqs.fulfil("input", program.getPath());
+		reqs.fulfil("output", results.getPath());
+		reqs.fulfil("cache", cache);
+
+		executor.execute(reqs);
+		return out + Files.readString(results.toPath());
+	}
+}
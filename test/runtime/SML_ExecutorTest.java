@@ -0,0 +1,190 @@
+package runtime;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+
+import utility.StreamSet;
+import utility.Tests;
+
+/**
+ * Tests how the executions of an {@link SML_Executor} end: with a limit, a
+ * timeout, a cancellation or an infinite loop.
+ *
+ * @author Alex Mandelias
+ */
+public final class SML_ExecutorTest {
+
+	private static final int LOAD       = Instruction.LOAD.opcode();
+	private static final int STORE      = Instruction.STORE.opcode();
+	private static final int ADD        = Instruction.ADD.opcode();
+	private static final int SUBTRACT   = Instruction.SUBTRACT.opcode();
+	private static final int MOD        = Instruction.MOD.opcode();
+	private static final int BRANCH     = Instruction.BRANCH.opcode();
+	private static final int BRANCHZERO = Instruction.BRANCHZERO.opcode();
+	private static final int HALT       = Instruction.HALT.opcode();
+	private static final int READ_INT   = Instruction.READ_INT.opcode();
+	private static final int WRITE      = Instruction.WRITE.opcode();
+
+	/* counts modulo 1000 forever, never in the same state twice in a row */
+	private static final int[] counter = SML_ExecutorTest.image(
+	        new int[] { LOAD + 0x10, ADD + 0x11, MOD + 0x12, STORE + 0x10, BRANCH + 0x00 },
+	        0x10, 0, 1, 1000);
+
+	/* jumps to itself forever */
+	private static final int[] loop = { BRANCH + 0x00 };
+
+	/* alternates a value between 0 and 1 forever */
+	private static final int[] toggle = SML_ExecutorTest.image(
+	        new int[] { LOAD + 0x11, SUBTRACT + 0x10, STORE + 0x10, BRANCH + 0x00 },
+	        0x10, 0, 1);
+
+	/* counts down from 500 and halts */
+	private static final int[] countdown = SML_ExecutorTest.image(
+	        new int[] { LOAD + 0x10, BRANCHZERO + 0x05, SUBTRACT + 0x11, STORE + 0x10,
+	                BRANCH + 0x00, HALT },
+	        0x10, 500, 1);
+
+	/* reads the same value forever */
+	private static final int[] reader = { READ_INT + 0x10, BRANCH + 0x00 };
+
+	/* prints a value and halts */
+	private static final int[] print = SML_ExecutorTest.image(new int[] { WRITE + 0x10, HALT },
+	        0x10, 7);
+
+	private SML_ExecutorTest() {}
+
+	/**
+	 * Runs the tests of this class.
+	 *
+	 * @param args not used
+	 */
+	public static void main(String[] args) {
+		SML_ExecutorTest.run();
+		Tests.report();
+	}
+
+	/** Runs the tests */
+	public static void run() {
+		Tests.test("halts", () -> {
+			final ByteArrayOutputStream out      = new ByteArrayOutputStream();
+			final SML_Executor          executor = SML_ExecutorTest.executor("", out);
+
+			Tests.checkEquals(ExecutionStatus.HALTED, executor.execute(print, 0, 0), "status");
+			Tests.check(out.toString().contains("0007"), "output %s", out);
+		});
+
+		Tests.test("instruction limit", () -> Tests.checkEquals(ExecutionStatus.INSTRUCTION_LIMIT,
+		        SML_ExecutorTest.executor("").execute(counter, 10_000, 0), "status"));
+
+		Tests.test("timeout", () -> Tests.checkEquals(ExecutionStatus.TIMEOUT,
+		        SML_ExecutorTest.executor("").execute(counter, 0, 50), "status"));
+
+		Tests.test("cancel while executing", () -> {
+			final SML_Executor executor = SML_ExecutorTest.executor("");
+			final Thread       canceller = new Thread(() -> {
+				try {
+					Thread.sleep(50);
+				} catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				executor.cancel();
+			});
+
+			canceller.start();
+			Tests.checkEquals(ExecutionStatus.CANCELLED, executor.execute(counter, 0, 10_000),
+			        "status");
+			canceller.join();
+		});
+
+		Tests.test("cancel before executing", () -> {
+			final SML_Executor executor = SML_ExecutorTest.executor("");
+
+			executor.cancel();
+			Tests.checkEquals(ExecutionStatus.CANCELLED, executor.execute(counter, 1_000_000, 0),
+			        "status");
+
+			// the cancellation was acted upon
+			Tests.checkEquals(ExecutionStatus.HALTED, executor.execute(print, 0, 0), "next status");
+		});
+
+		Tests.test("reset forgets cancel", () -> {
+			final SML_Executor executor = SML_ExecutorTest.executor("");
+
+			executor.cancel();
+			executor.reset();
+			Tests.checkEquals(ExecutionStatus.HALTED, executor.execute(print, 0, 0), "status");
+		});
+
+		Tests.test("infinite loop", () -> Tests.checkEquals(ExecutionStatus.INFINITE_LOOP,
+		        SML_ExecutorTest.executor("").execute(loop, 0, 0), "status"));
+
+		Tests.test("infinite loop of two states", () -> Tests.checkEquals(
+		        ExecutionStatus.INFINITE_LOOP, SML_ExecutorTest.executor("").execute(toggle, 0, 0),
+		        "status"));
+
+		Tests.test("long finite loop", () -> Tests.checkEquals(ExecutionStatus.HALTED,
+		        SML_ExecutorTest.executor("").execute(countdown, 0, 0), "status"));
+
+		Tests.test("loop that reads", () -> {
+			// the same state after reading the same input isn't a loop, the input ends eventually
+			final String input = "1\n".repeat(100);
+			Tests.checkEquals(ExecutionStatus.ERROR,
+			        SML_ExecutorTest.executor(input).execute(reader, 0, 0), "status");
+		});
+
+		Tests.test("timeout while reading", () -> {
+			// reads 200 values, one every 5 milliseconds, without jumping
+			final int[] reads = new int[201];
+			for (int i = 0; i < 200; ++i)
+				reads[i] = READ_INT + 0xf0;
+			reads[200] = HALT;
+
+			final ByteArrayOutputStream out      = new ByteArrayOutputStream();
+			final SML_Executor          executor = new SML_Executor(
+			        Tests.streams("", out, new ByteArrayOutputStream()).in(new SlowInput()));
+
+			Tests.checkEquals(ExecutionStatus.TIMEOUT, executor.execute(reads, 0, 50), "status");
+		});
+	}
+
+	/* places the values at an address after the instructions */
+	private static int[] image(int[] instructions, int address, int... values) {
+		final int[] image = new int[address + values.length];
+		System.arraycopy(instructions, 0, image, 0, instructions.length);
+		System.arraycopy(values, 0, image, address, values.length);
+		return image;
+	}
+
+	private static SML_Executor executor(String input) {
+		return SML_ExecutorTest.executor(input, new ByteArrayOutputStream());
+	}
+
+	private static SML_Executor executor(String input, ByteArrayOutputStream out) {
+		final StreamSet streams = Tests.streams(input, out, new ByteArrayOutputStream());
+		return new SML_Executor(streams);
+	}
+
+	/* an endless input of 1s, one line every 5 milliseconds */
+	private static final class SlowInput extends InputStream {
+
+		private final byte[] line = "1\n".getBytes();
+
+		@Override
+		public int read() {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public int read(byte[] buffer, int offset, int length) {
+			try {
+				Thread.sleep(5);
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+
+			final int count = Math.min(length, line.length);
+			System.arraycopy(line, 0, buffer, offset, count);
+			return count;
+		}
+	}
+}
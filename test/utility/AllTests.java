@@ -0,0 +1,43 @@
+package utility;
+
+import compiler.BatchCompilerTest;
+import compiler.IRLoweringTest;
+import compiler.LineReaderTest;
+import compiler.OptimisationTest;
+import compiler.ParserTest;
+import compiler.PeepholeTest;
+import compiler.SML_CompilerTest;
+import compiler.postfix.InfixToPostfixTest;
+import runtime.ExecutionCacheTest;
+import runtime.SML_ExecutorTest;
+
+/**
+ * Runs every test of the project and exits with a non-zero status if any of
+ * them failed.
+ *
+ * @author Alex Mandelias
+ */
+public final class AllTests {
+
+	private AllTests() {}
+
+	/**
+	 * Runs the tests.
+	 *
+	 * @param args not used
+	 */
+	public static void main(String[] args) {
+		SML_ExecutorTest.run();
+		ExecutionCacheTest.run();
+		ContentCacheTest.run();
+		InfixToPostfixTest.run();
+		LineReaderTest.run();
+		BatchCompilerTest.run();
+		ParserTest.run();
+		PeepholeTest.run();
+		IRLoweringTest.run();
+		OptimisationTest.run();
+		SML_CompilerTest.run();
+		Tests.report();
+	}
+}
@@ -0,0 +1,74 @@
+package utility;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests the eviction of a {@link ContentCache} and the values it reads from its
+ * directory.
+ *
+ * @author Alex Mandelias
+ */
+public final class ContentCacheTest {
+
+	private ContentCacheTest() {}
+
+	/**
+	 * Runs the tests of this class.
+	 *
+	 * @param args not used
+	 */
+	public static void main(String[] args) {
+		ContentCacheTest.run();
+		Tests.report();
+	}
+
+	/** Runs the tests */
+	public static void run() {
+		Tests.test("evicts least recently used", () -> {
+			final ContentCache<String> cache = new ContentCache<>(10, String::length);
+
+			cache.put("a", "aaaa");
+			cache.put("b", "bbbb");
+			cache.get("a");
+			cache.put("c", "cccc");
+
+			Tests.checkEquals("aaaa", cache.get("a"), "a");
+			Tests.checkEquals(null, cache.get("b"), "b");
+			Tests.checkEquals("cccc", cache.get("c"), "c");
+		});
+
+		Tests.test("reads values from directory", () -> {
+			final File directory = Files.createTempDirectory("cache").toFile();
+
+			new ContentCache<int[]>(100, v -> v.length, directory).put("key", new int[] { 1, 2, 3 });
+
+			final int[] value = new ContentCache<int[]>(100, v -> v.length, directory).get("key");
+			Tests.check((value != null) && (value.length == 3) && (value[2] == 3), "value %s",
+			        value);
+		});
+
+		Tests.test("ignores other classes in directory", () -> {
+			final File directory = Files.createTempDirectory("cache").toFile();
+
+			final List<String> list = new ArrayList<>();
+			list.add("not a value");
+			ContentCacheTest.write(new File(directory, "key"), list);
+
+			Tests.checkEquals(null,
+			        new ContentCache<ArrayList<?>>(100, ArrayList::size, directory).get("key"),
+			        "value");
+		});
+	}
+
+	private static void write(File file, Object object) throws IOException {
+		try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(file))) {
+			out.writeObject(object);
+		}
+	}
+}
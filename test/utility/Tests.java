@@ -0,0 +1,104 @@
+package utility;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.Objects;
+
+/**
+ * Support for the tests of the project. A test is a plain class whose
+ * {@code run} method runs its cases with {@link #test(String, Case)}, so that
+ * the tests don't need a testing framework, and whose {@code main} method runs
+ * only that class. The {@link AllTests} class runs every test.
+ * <p>
+ * A case fails if it throws anything, for example because a {@code check}
+ * failed, and the rest of the cases still run. The failures are printed and
+ * {@link #report()} exits with a non-zero status if there were any.
+ *
+ * @author Alex Mandelias
+ */
+public final class Tests {
+
+	/** A case of a test, which may throw anything */
+	@FunctionalInterface
+	public interface Case {
+
+		/**
+		 * Runs the case.
+		 *
+		 * @throws Exception if the case fails
+		 */
+		void run() throws Exception;
+	}
+
+	private static int passed;
+	private static int failed;
+
+	private Tests() {}
+
+	/**
+	 * Runs a case and records whether it passed.
+	 *
+	 * @param name the name of the case, printed if it fails
+	 * @param test the case
+	 */
+	public static void test(String name, Case test) {
+		try {
+			test.run();
+			++Tests.passed;
+		} catch (final Throwable e) {
+			++Tests.failed;
+			System.err.printf("FAILED %s: %s%n", name, e);
+		}
+	}
+
+	/**
+	 * Fails the current case if a condition is false.
+	 *
+	 * @param condition the condition
+	 * @param format    the message if it is false
+	 * @param args      the format arguments
+	 */
+	public static void check(boolean condition, String format, Object... args) {
+		if (!condition)
+			throw new AssertionError(String.format(format, args));
+	}
+
+	/**
+	 * Fails the current case if two values aren't equal.
+	 *
+	 * @param expected the expected value
+	 * @param actual   the actual value
+	 * @param what     what the values are, for the message
+	 */
+	public static void checkEquals(Object expected, Object actual, String what) {
+		Tests.check(Objects.equals(expected, actual), "%s: expected <%s> but was <%s>", what,
+		        expected, actual);
+	}
+
+	/**
+	 * Returns a StreamSet whose Input Stream reads the {@code input} and whose
+	 * Output and Error Streams write to the {@code out} and {@code err} buffers.
+	 *
+	 * @param input the input
+	 * @param out   the buffer of the Output Stream
+	 * @param err   the buffer of the Error Stream
+	 *
+	 * @return the StreamSet
+	 */
+	public static StreamSet streams(String input, ByteArrayOutputStream out,
+	        ByteArrayOutputStream err) {
+		return new StreamSet().in(new ByteArrayInputStream(input.getBytes()))
+		        .out(new PrintStream(out, true)).err(new PrintStream(err, true));
+	}
+
+	/**
+	 * Prints how many cases passed and failed, and exits with status {@code 1} if
+	 * any failed.
+	 */
+	public static void report() {
+		System.out.printf("%d passed, %d failed%n", Tests.passed, Tests.failed);
+		if (Tests.failed > 0)
+			System.exit(1);
+	}
+}